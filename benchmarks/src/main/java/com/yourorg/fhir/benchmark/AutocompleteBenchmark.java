@@ -0,0 +1,94 @@
+package com.yourorg.fhir.benchmark;
+
+import com.yourorg.fhir.terminology.AutocompleteIndex;
+import com.yourorg.fhir.terminology.TerminologyIndex;
+import com.yourorg.fhir.terminology.TerminologyIndexWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefix lookups on the autocomplete index at dictionary sizes from a
+ * formulary (50k concepts) to a SNOMED CT extract (400k).
+ *
+ * <p>
+ * Displays are made-up words over a vocabulary with a skewed (roughly Zipf)
+ * word frequency, like clinical terms, where "acute", "tablet" and "500" are
+ * everywhere. {@code shortPrefix} is one to three typed characters (the
+ * precomputed trie nodes), {@code longPrefix} four to eight (a range scan).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AutocompleteBenchmark {
+
+    private static final String SYSTEM = "http://snomed.info/sct";
+    private static final String[] SYLLABLES = { "a", "ac", "al", "am", "an", "ar", "ba", "bi", "car", "ce", "chlo",
+            "cin", "co", "cu", "de", "di", "do", "e", "en", "fa", "fe", "gas", "he", "hy", "i", "in", "la", "le",
+            "li", "lo", "ma", "me", "mi", "mo", "na", "ne", "ni", "no", "o", "pa", "pe", "phe", "pi", "pro", "ra",
+            "re", "ri", "ro", "sa", "se", "si", "ta", "te", "ti", "to", "tra", "u", "va", "ve", "vi", "zo" };
+    private static final int VOCABULARY = 6000;
+    private static final int QUERIES = 1024;
+
+    @Param({ "50000", "400000" })
+    public int concepts;
+
+    private AutocompleteIndex index;
+    private String[] shortPrefixes;
+    private String[] longPrefixes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllables = 2 + random.nextInt(4); syllables > 0; syllables--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = i % 50 == 0 ? String.valueOf(random.nextInt(1000)) : word.toString();
+        }
+
+        TerminologyIndexWriter writer = new TerminologyIndexWriter();
+        for (int i = 0; i < concepts; i++) {
+            StringBuilder display = new StringBuilder();
+            for (int n = 2 + random.nextInt(6); n > 0; n--) {
+                if (display.length() > 0) {
+                    display.append(' ');
+                }
+                display.append(words[skewed(random)]);
+            }
+            display.setCharAt(0, Character.toUpperCase(display.charAt(0)));
+            writer.add(SYSTEM, String.valueOf(100_000_000L + i * 7L), display.toString(), true);
+        }
+        index = AutocompleteIndex.build(new TerminologyIndex(writer.toByteBuffer()), 20).get(SYSTEM);
+
+        shortPrefixes = new String[QUERIES];
+        longPrefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = words[skewed(random)];
+            shortPrefixes[i] = word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+            longPrefixes[i] = word.substring(0, Math.min(word.length(), 4 + random.nextInt(5)));
+        }
+    }
+
+    private static int skewed(Random random) {
+        return random.nextInt(random.nextInt(VOCABULARY) + 1);
+    }
+
+    @Benchmark
+    public List<TerminologyIndex.Concept> shortPrefix() {
+        return index.search(shortPrefixes[next++ & (QUERIES - 1)], 10);
+    }
+
+    @Benchmark
+    public List<TerminologyIndex.Concept> longPrefix() {
+        return index.search(longPrefixes[next++ & (QUERIES - 1)], 10);
+    }
+}
@@ -0,0 +1,105 @@
+package com.yourorg.fhir.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBuilder;
+import com.yourorg.fhir.builder.ObservationBuilder;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.config.CompositeConfig;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.dto.CompositeRequestDTO;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.service.AbdmService;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential vs parallel section assembly of composite OP consult bundles.
+ * The request combines both composite samples (diagnoses, medications,
+ * vitals, lab tests, allergies and invoice lines, 9 section entries) with every
+ * list repeated {@code scale} times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositeAssemblyBenchmark {
+
+    @Param({ "1", "10", "50", "200" })
+    public int scale;
+
+    @Param({ "sequential", "parallel" })
+    public String assembly;
+
+    private ForkJoinPool pool;
+    private AbdmService service;
+    private CompositeRequestDTO dto;
+
+    @Setup
+    public void setUp() throws IOException {
+        pool = new CompositeConfig().compositeSectionPool(0);
+        int threshold = "parallel".equals(assembly) ? 0 : Integer.MAX_VALUE;
+        TerminologyService terminology = TerminologyService.seed();
+        IdGenerator ids = IdGenerator.timeOrdered();
+        AbdmResourceBuilder builder = new AbdmResourceBuilder(terminology, ids);
+        FhirSerializer serializer = new FhirSerializer(new FhirConfig().fhirContext(),
+                new JsonFragmentCache(new SimpleMeterRegistry(), true, 1000, Duration.ofHours(1)), false);
+        service = new AbdmService(serializer, builder,
+                new ResourceTemplateCache(builder, new SimpleMeterRegistry(), 1000, Duration.ofHours(1)),
+                new DiagnosticReportBuilder(ids),
+                new ObservationBuilder(terminology, ids), pool, threshold);
+        dto = Samples.MAPPER.treeToValue(request(scale), CompositeRequestDTO.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Bundle build() {
+        return service.buildCompositeBundle(dto);
+    }
+
+    private static ObjectNode request(int scale) throws IOException {
+        ObjectNode request = (ObjectNode) Samples.MAPPER.readTree(Samples.readBytes("/samples/composite-op-consult.json"));
+        JsonNode invoiceSample = Samples.MAPPER.readTree(Samples.readBytes("/samples/composite_invoice.json"));
+        ((ObjectNode) request.get("opConsult")).set("allergy_list", invoiceSample.at("/opConsult/allergy_list"));
+        request.set("invoice", invoiceSample.get("invoice"));
+        repeatLists(request, scale);
+        return request;
+    }
+
+    private static void repeatLists(JsonNode node, int scale) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            JsonNode value = fields.next().getValue();
+            if (value.isArray()) {
+                List<JsonNode> items = new ArrayList<>();
+                value.forEach(items::add);
+                for (int i = 1; i < scale; i++) {
+                    items.forEach(item -> ((ArrayNode) value).add(item.deepCopy()));
+                }
+            } else if (value.isObject()) {
+                repeatLists(value, scale);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.yourorg.fhir.benchmark;
+
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBuilder;
+import com.yourorg.fhir.builder.ObservationBuilder;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.dto.CompositeRequestDTO;
+import com.yourorg.fhir.dto.IPDischargeSummaryDTO;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.serializer.WireFormat;
+import com.yourorg.fhir.service.AbdmService;
+import com.yourorg.fhir.service.IPDischargeSummaryService;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time of the two bundles internal EMR services consume
+ * (/fhir/composite/op-consult and /fhir/ip-discharge-summary) as pretty JSON,
+ * compact JSON, CBOR and Smile. The encoded size of each combination is
+ * printed during setup; BinaryRoundTripTest checks that the binary formats
+ * parse back into the Bundle a JSON consumer gets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({ "composite-op-consult", "ip-discharge-summary" })
+    public String document;
+
+    @Param({ "PRETTY_JSON", "COMPACT_JSON", "CBOR", "SMILE" })
+    public String encoding;
+
+    private FhirSerializer serializer;
+    private Bundle bundle;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setUp() throws Exception {
+        serializer = new FhirSerializer(new FhirConfig().fhirContext(),
+                new JsonFragmentCache(new SimpleMeterRegistry(), true, 1000, Duration.ofHours(1)), false);
+        TerminologyService terminology = TerminologyService.seed();
+        IdGenerator ids = IdGenerator.timeOrdered();
+        AbdmResourceBuilder builder = new AbdmResourceBuilder(terminology, ids);
+        ResourceTemplateCache templates = new ResourceTemplateCache(builder, new SimpleMeterRegistry(), 1000,
+                Duration.ofHours(1));
+        if ("composite-op-consult".equals(document)) {
+            AbdmService service = new AbdmService(serializer, builder, templates, new DiagnosticReportBuilder(ids),
+                    new ObservationBuilder(terminology, ids), ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+            bundle = service.buildCompositeBundle(Samples.read("composite-op-consult.json", CompositeRequestDTO.class));
+        } else {
+            IPDischargeSummaryService service = new IPDischargeSummaryService(builder, templates, serializer);
+            bundle = service.buildIPDischargeSummaryBundle(
+                    Samples.readResource("/ip_discharge_payload.json", IPDischargeSummaryDTO.class));
+        }
+
+        encode();
+        System.out.printf("%n%s as %s: %d bytes%n", document, encoding, out.size());
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        out.reset();
+        switch (encoding) {
+            case "PRETTY_JSON":
+                serializer.encodeToStream(bundle, out, OutputMode.PRETTY);
+                break;
+            case "COMPACT_JSON":
+                serializer.encodeToStream(bundle, out, OutputMode.COMPACT);
+                break;
+            default:
+                serializer.encodeToStream(bundle, out, wireFormat());
+        }
+        return out.size();
+    }
+
+    private WireFormat wireFormat() {
+        return encoding.endsWith("JSON") ? WireFormat.JSON : WireFormat.valueOf(encoding);
+    }
+}
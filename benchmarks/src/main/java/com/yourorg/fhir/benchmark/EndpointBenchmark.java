@@ -0,0 +1,183 @@
+package com.yourorg.fhir.benchmark;
+
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBundleBuilder;
+import com.yourorg.fhir.builder.ObservationBuilder;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.dto.*;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.service.AbdmService;
+import com.yourorg.fhir.service.IPDischargeSummaryService;
+import com.yourorg.fhir.service.InvoiceService;
+import com.yourorg.fhir.service.LabReportService;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Every document endpoint, one stage at a time, driven by the request payloads
+ * in src/main/resources/samples:
+ * <ul>
+ * <li>{@code bind}: request JSON to DTO (what Spring MVC does),</li>
+ * <li>{@code build}: DTO to resources wrapped in the document Bundle,</li>
+ * <li>{@code serialize}: Bundle to compact JSON,</li>
+ * <li>{@code endToEnd}: request JSON through the service's String API
+ * (AbdmService.createX, LabReportService, InvoiceService,
+ * IPDischargeSummaryService).</li>
+ * </ul>
+ *
+ * <p>
+ * Reports throughput and sampled latency percentiles. Run {@link #main} (or
+ * add {@code -prof gc} on the command line) for allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndpointBenchmark {
+
+    @Param({ "prescription", "op-consult", "wellness", "immunization", "health-document", "discharge-summary",
+            "lab-report", "composite-op-consult", "composite-invoice", "invoice", "ip-discharge-summary" })
+    public String endpoint;
+
+    private byte[] payload;
+    private Class<?> dtoType;
+    private Function<Object, Bundle> builder;
+    private Function<Object, String> service;
+
+    private FhirSerializer serializer;
+    private Object dto;
+    private Bundle bundle;
+
+    @Setup
+    public void setUp() throws IOException {
+        serializer = new FhirSerializer(new FhirConfig().fhirContext(),
+                new JsonFragmentCache(new SimpleMeterRegistry(), true, 1000, Duration.ofHours(1)), false);
+        TerminologyService terminology = TerminologyService.seed();
+        IdGenerator ids = IdGenerator.timeOrdered();
+        AbdmResourceBuilder resourceBuilder = new AbdmResourceBuilder(terminology, ids);
+        ResourceTemplateCache templates = new ResourceTemplateCache(resourceBuilder, new SimpleMeterRegistry(), 1000,
+                Duration.ofHours(1));
+        AbdmService abdmService = new AbdmService(serializer, resourceBuilder, templates,
+                new DiagnosticReportBuilder(ids), new ObservationBuilder(terminology, ids), ForkJoinPool.commonPool(),
+                Integer.MAX_VALUE);
+        LabReportService labReportService = new LabReportService(serializer, new DiagnosticReportBuilder(ids),
+                new DiagnosticReportBundleBuilder(ids), new ObservationBuilder(terminology, ids), ids);
+        InvoiceService invoiceService = new InvoiceService(resourceBuilder, templates, serializer);
+        IPDischargeSummaryService ipDischargeService = new IPDischargeSummaryService(resourceBuilder, templates,
+                serializer);
+
+        switch (endpoint) {
+            case "prescription":
+                use("/samples/prescription.json", PrescriptionDTO.class,
+                        abdmService::buildPrescriptionBundle, abdmService::createPrescription);
+                break;
+            case "op-consult":
+                use("/samples/op-consult.json", OpConsultDTO.class,
+                        abdmService::buildOpConsultBundle, abdmService::createOpConsultNote);
+                break;
+            case "wellness":
+                use("/samples/wellness.json", WellnessRecordDTO.class,
+                        abdmService::buildWellnessBundle, abdmService::createWellnessRecord);
+                break;
+            case "immunization":
+                use("/samples/immunization.json", ImmunizationRecordDTO.class,
+                        abdmService::buildImmunizationBundle, abdmService::createImmunizationRecord);
+                break;
+            case "health-document":
+                use("/samples/health-document.json", HealthDocumentRecordDTO.class,
+                        abdmService::buildHealthDocumentBundle, abdmService::createHealthDocumentRecord);
+                break;
+            case "discharge-summary":
+                use("/samples/discharge-summary.json", DischargeSummaryDTO.class,
+                        abdmService::buildDischargeSummaryBundle, abdmService::createDischargeSummary);
+                break;
+            case "lab-report":
+                use("/samples/lab-report.json", LabReportDTO.class,
+                        labReportService::buildLabReportBundle, labReportService::createLabReport);
+                break;
+            case "composite-op-consult":
+                use("/samples/composite-op-consult.json", CompositeRequestDTO.class,
+                        abdmService::buildCompositeBundle, abdmService::createCompositeBundle);
+                break;
+            case "composite-invoice":
+                use("/samples/composite_invoice.json", CompositeRequestDTO.class,
+                        abdmService::buildCompositeBundle, abdmService::createCompositeBundle);
+                break;
+            case "invoice":
+                use("/samples/invoice.json", InvoiceDTO.class,
+                        invoiceService::buildInvoiceBundle, invoiceService::generateInvoiceBundle);
+                break;
+            case "ip-discharge-summary":
+                use("/ip_discharge_payload.json", IPDischargeSummaryDTO.class,
+                        ipDischargeService::buildIPDischargeSummaryBundle,
+                        ipDischargeService::generateIPDischargeSummary);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+
+        dto = bind();
+        bundle = builder.apply(dto);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void use(String path, Class<T> type, Function<T, Bundle> build, Function<T, String> create)
+            throws IOException {
+        payload = Samples.readBytes(path);
+        dtoType = type;
+        builder = (Function<Object, Bundle>) build;
+        service = (Function<Object, String>) create;
+    }
+
+    @Benchmark
+    public Object bind() throws IOException {
+        return Samples.MAPPER.readValue(payload, dtoType);
+    }
+
+    @Benchmark
+    public Bundle build() {
+        return builder.apply(dto);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return serializer.encodeToString(bundle, OutputMode.COMPACT);
+    }
+
+    @Benchmark
+    public String endToEnd() throws IOException {
+        return service.apply(Samples.MAPPER.readValue(payload, dtoType));
+    }
+
+    /**
+     * Runs this class with the GC profiler attached, e.g.
+     * {@code java -cp target/benchmarks.jar com.yourorg.fhir.benchmark.EndpointBenchmark}.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EndpointBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
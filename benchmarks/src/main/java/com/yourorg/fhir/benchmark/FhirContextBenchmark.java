@@ -0,0 +1,81 @@
+package com.yourorg.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.CompositionRegistry;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.service.InvoiceService;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request serialization latency before and after moving to the shared,
+ * pre-warmed FhirContext.
+ *
+ * <p>
+ * {@code perRequestContext} reproduces the old InvoiceService /
+ * IPDischargeSummaryService behaviour of calling FhirContext.forR4() for every
+ * bundle; {@code sharedSerializer} goes through {@link FhirSerializer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FhirContextBenchmark {
+
+    private Bundle bundle;
+    private FhirSerializer serializer;
+    private InvoiceService invoiceService;
+    private com.yourorg.fhir.dto.InvoiceDTO invoiceDto;
+
+    @Setup
+    public void setUp() throws Exception {
+        AbdmResourceBuilder builder = new AbdmResourceBuilder(TerminologyService.seed(), IdGenerator.timeOrdered());
+        serializer = new FhirSerializer(new FhirConfig().fhirContext(),
+                new JsonFragmentCache(new SimpleMeterRegistry(), true, 1000, Duration.ofHours(1)), true);
+        invoiceService = new InvoiceService(builder,
+                new ResourceTemplateCache(builder, new SimpleMeterRegistry(), 1000, Duration.ofHours(1)), serializer);
+        invoiceDto = Samples.read("invoice.json", com.yourorg.fhir.dto.InvoiceDTO.class);
+
+        Patient patient = builder.buildPatient("Ramesh Kumar", "91-2345-6789-0123", "male", "1985-03-12");
+        Practitioner doc = builder.buildPractitioner("Dr. Anil Sharma", null);
+        ChargeItem item = builder.buildChargeItem(patient, "OP Consultation Fee", 1);
+        Invoice invoice = builder.buildInvoice(patient, List.of(item), List.of(500.0), 500.0, "INR");
+        Composition comp = builder.buildComposition(CompositionRegistry.INVOICE, patient, doc, null, null, new Date(),
+                List.of(invoice));
+
+        bundle = new Bundle();
+        bundle.setType(Bundle.BundleType.DOCUMENT);
+        for (Resource res : List.of(comp, patient, doc, invoice, item)) {
+            bundle.addEntry().setFullUrl("urn:uuid:" + res.getId()).setResource(res);
+        }
+    }
+
+    @Benchmark
+    public String perRequestContext() {
+        return FhirContext.forR4().newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle);
+    }
+
+    @Benchmark
+    public String sharedSerializer() {
+        return serializer.encodeToString(bundle);
+    }
+
+    @Benchmark
+    public String invoiceServiceEndToEnd() {
+        return invoiceService.generateInvoiceBundle(invoiceDto);
+    }
+}
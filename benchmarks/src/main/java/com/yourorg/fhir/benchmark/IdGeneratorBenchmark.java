@@ -0,0 +1,61 @@
+package com.yourorg.fhir.benchmark;
+
+import com.yourorg.fhir.util.IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation throughput of {@link IdGenerator#random()}
+ * ({@code UUID.randomUUID()}, one shared SecureRandom) against
+ * {@link IdGenerator#timeOrdered()} (UUIDv7, per-thread random) at 1, 8 and
+ * 32 threads. A document bundle takes 5 to 50 ids, so this is per-request
+ * overhead that grows with concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator random = IdGenerator.random();
+    private final IdGenerator timeOrdered = IdGenerator.timeOrdered();
+
+    @Benchmark
+    @Threads(1)
+    public String random1() {
+        return random.newId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String random8() {
+        return random.newId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String random32() {
+        return random.newId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String timeOrdered1() {
+        return timeOrdered.newId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String timeOrdered8() {
+        return timeOrdered.newId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String timeOrdered32() {
+        return timeOrdered.newId();
+    }
+}
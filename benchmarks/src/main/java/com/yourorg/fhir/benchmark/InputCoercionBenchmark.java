@@ -0,0 +1,92 @@
+package com.yourorg.fhir.benchmark;
+
+import com.yourorg.fhir.util.InputCoercion;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date and number coercion of request fields on well-formed and malformed
+ * input: {@link InputCoercion} against the parsing it replaced
+ * ({@code java.sql.Date.valueOf} then a new {@code SimpleDateFormat},
+ * {@code Double.parseDouble} and {@code new BigDecimal} with the exception
+ * caught). Malformed input is where the old code paid for a stack trace per
+ * field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputCoercionBenchmark {
+
+    private static final String[] VALID_DATES = { "2023-11-15", "1985-03-12", "2024-02-29", "2024-01-15" };
+    private static final String[] INVALID_DATES = { "15/11/2023", "unknown", "2023-13-01", "N/A" };
+    private static final String[] VALID_NUMBERS = { "72", "120.5", "98.6", "0.75" };
+    private static final String[] INVALID_NUMBERS = { "high", "120/80", "n/a", "72kg" };
+
+    @Param({ "valid", "invalid" })
+    public String input;
+
+    private String[] dates;
+    private String[] numbers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        boolean valid = "valid".equals(input);
+        dates = valid ? VALID_DATES : INVALID_DATES;
+        numbers = valid ? VALID_NUMBERS : INVALID_NUMBERS;
+    }
+
+    @Benchmark
+    public Date legacyDate() {
+        String text = dates[next++ & 3];
+        try {
+            return java.sql.Date.valueOf(text);
+        } catch (Exception e) {
+            try {
+                return new java.text.SimpleDateFormat("yyyy-MM-dd").parse(text);
+            } catch (Exception ex) {
+                return new Date();
+            }
+        }
+    }
+
+    @Benchmark
+    public Date coercedDate() {
+        InputCoercion.Result<InputCoercion.PartialDate> date = InputCoercion.date(dates[next++ & 3]);
+        return date.isValid() ? date.get().getDate() : new Date();
+    }
+
+    @Benchmark
+    public double legacyDouble() {
+        try {
+            return Double.parseDouble(numbers[next++ & 3]);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    @Benchmark
+    public double coercedDouble() {
+        return InputCoercion.decimal(numbers[next++ & 3], 0);
+    }
+
+    @Benchmark
+    public BigDecimal legacyDecimal() {
+        try {
+            return new BigDecimal(numbers[next++ & 3]);
+        } catch (Exception e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal coercedDecimal() {
+        return InputCoercion.decimal(numbers[next++ & 3]).orElse(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,66 @@
+package com.yourorg.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.serializer.OutputMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact JSON encoding of each HAPI-built document bundle, with the
+ * Patient/Practitioner/Organization entries spliced from the
+ * {@link JsonFragmentCache} ({@code fragments=on}) and fully encoded by HAPI
+ * ({@code fragments=off}). JsonFragmentCacheTest checks that both give the
+ * same bytes. Setup encodes one bundle first, so the measured bundle hits the
+ * cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonFragmentBenchmark {
+
+    @Param({ "prescription", "op-consult", "wellness", "immunization", "health-document", "discharge-summary",
+            "lab-report", "composite-op-consult", "invoice", "ip-discharge-summary" })
+    public String endpoint;
+
+    @Param({ "off", "on" })
+    public String fragments;
+
+    private FhirSerializer serializer;
+    private Bundle bundle;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        EndpointBenchmark endpoints = new EndpointBenchmark();
+        endpoints.endpoint = endpoint;
+        endpoints.setUp();
+
+        serializer = serializer(new FhirConfig().fhirContext(), "on".equals(fragments));
+        serializer.encodeToString(endpoints.build(), OutputMode.COMPACT);
+        bundle = endpoints.build();
+    }
+
+    private static FhirSerializer serializer(FhirContext fhirContext, boolean fragments) {
+        return new FhirSerializer(fhirContext,
+                new JsonFragmentCache(new SimpleMeterRegistry(), fragments, 1000, Duration.ofHours(1)), false);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        out.reset();
+        serializer.encodeToStream(bundle, out, OutputMode.COMPACT);
+        return out.size();
+    }
+}
@@ -0,0 +1,44 @@
+package com.yourorg.fhir.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the request payloads shipped in src/main/resources/samples, bound the
+ * same way Spring MVC binds them (unknown properties ignored).
+ */
+final class Samples {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Samples() {
+    }
+
+    static <T> T read(String name, Class<T> type) throws IOException {
+        return readResource("/samples/" + name, type);
+    }
+
+    /**
+     * Reads a payload from anywhere on the classpath, e.g. the IP discharge
+     * example kept next to application.yml.
+     */
+    static <T> T readResource(String path, Class<T> type) throws IOException {
+        return MAPPER.readValue(readBytes(path), type);
+    }
+
+    /**
+     * Raw request body, for benchmarks that include binding in the measurement.
+     */
+    static byte[] readBytes(String path) throws IOException {
+        try (InputStream in = Samples.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Sample not found: " + path);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.yourorg.fhir.builder;
 
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.CodingCatalog;
 import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.FragmentKey;
+import com.yourorg.fhir.util.IdGenerator;
+import com.yourorg.fhir.util.InputCoercion;
 import org.hl7.fhir.r4.model.*;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Main builder class for generating ABDM-compliant FHIR resources.
@@ -16,23 +20,32 @@ import java.util.UUID;
 @Component
 public class AbdmResourceBuilder {
 
-    private static final java.util.Map<String, String> STANDARD_DISPLAYS = new java.util.HashMap<>();
-
-    static {
-        // Medication
-        STANDARD_DISPLAYS.put("781405001", "Medicinal product package (product)");
-
-        // Vitals (LOINC)
-        STANDARD_DISPLAYS.put("29463-7", "Body weight");
-        STANDARD_DISPLAYS.put("8302-2", "Body height");
-        STANDARD_DISPLAYS.put("85354-9", "Blood pressure panel with all children optional");
-        STANDARD_DISPLAYS.put("8480-6", "Systolic blood pressure");
-        STANDARD_DISPLAYS.put("8462-4", "Diastolic blood pressure");
-        STANDARD_DISPLAYS.put("8867-4", "Heart rate");
-        STANDARD_DISPLAYS.put("9279-1", "Respiratory rate");
-        STANDARD_DISPLAYS.put("2708-6", "Oxygen saturation in Arterial blood");
-        STANDARD_DISPLAYS.put("8310-5", "Body temperature");
-        STANDARD_DISPLAYS.put("8280-0", "Waist Circumference at umbilicus by Tape measure");
+    private final TerminologyService terminology;
+    private final IdGenerator ids;
+
+    public AbdmResourceBuilder(TerminologyService terminology, IdGenerator ids) {
+        this.terminology = terminology;
+        this.ids = ids;
+    }
+
+    /**
+     * New logical id for a resource or bundle assembled outside this builder.
+     */
+    public String newId() {
+        return ids.newId();
+    }
+
+    /**
+     * Returns the preferred display for a code from the terminology index, or
+     * the given fallback.
+     *
+     * @param system   Code system (LOINC or SNOMED CT)
+     * @param code     Code in that system
+     * @param fallback Display to use when the code has no standard display
+     * @return Display text
+     */
+    public String standardDisplay(String system, String code, String fallback) {
+        return terminology.display(system, code, fallback);
     }
 
     /**
@@ -42,16 +55,16 @@ public class AbdmResourceBuilder {
      * @param id     Patient health ID
      * @param gender Patient gender (M/F/O)
      * @param dob    Patient date of birth (YYYY-MM-DD or YYYY)
-     * @return FHIR Patient resource
+     * @return FHIR Patient resource, marked with a {@link FragmentKey} (do not
+     *         modify it)
      */
     public Patient buildPatient(String name, String id, String gender, String dob) {
         Patient patient = new Patient();
-        patient.setId(UUID.randomUUID().toString()); // Internal FHIR ID
+        patient.setId(ids.newId()); // Internal FHIR ID
         patient.getMeta().setVersionId("1").addProfile(FhirConstants.PROFILE_PATIENT);
 
         patient.addIdentifier()
-                .setType(new CodeableConcept(
-                        new Coding(FhirConstants.SYSTEM_ID_TYPE, "MR", "Medical record number")))
+                .setType(CodingCatalog.MEDICAL_RECORD_NUMBER.concept())
                 .setSystem(FhirConstants.SYSTEM_PATIENT_ID).setValue(id != null ? id : "22-7225-4829-5255");
 
         patient.addName().setText(name != null ? name : "Anonymous Patient");
@@ -70,31 +83,36 @@ public class AbdmResourceBuilder {
             patient.setGender(Enumerations.AdministrativeGender.UNKNOWN);
         }
 
-        if (dob != null) {
-            try {
-                patient.setBirthDate(com.yourorg.fhir.util.FhirUtil.parseDate(dob));
-            } catch (Exception e) {
-                // Ignore invalid date
-            }
+        // Keeps partial birth dates ("1985", "1985-03"); an invalid date is left out
+        InputCoercion.Result<InputCoercion.PartialDate> birthDate = InputCoercion.date(dob);
+        if (birthDate.isValid()) {
+            patient.setBirthDateElement(birthDate.get().toDateType());
         }
 
-        return patient;
+        return FragmentKey.tag(patient, "AbdmResourceBuilder.buildPatient", name, id, gender, dob);
     }
 
     /**
      * Builds an Organization resource for the clinic/hospital.
      */
     public Organization buildOrganization(String name) {
+        Organization org = organizationTemplate(name);
+        org.setId(ids.newId());
+        return FragmentKey.tag(org, "AbdmResourceBuilder.buildOrganization", name);
+    }
+
+    /**
+     * {@link #buildOrganization} without an id, for {@link ResourceTemplateCache}.
+     */
+    Organization organizationTemplate(String name) {
         Organization org = new Organization();
-        org.setId(UUID.randomUUID().toString());
         org.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Organization");
         org.setName(name != null ? name : "Unknown Clinic");
 
         org.addIdentifier()
                 .setSystem("https://facility.ndhm.gov.in")
                 .setValue("IN0000")
-                .setType(new CodeableConcept(
-                        new Coding("http://terminology.hl7.org/CodeSystem/v2-0203", "XX", "Organization identifier")));
+                .setType(CodingCatalog.ORGANIZATION_IDENTIFIER.concept());
 
         return org;
     }
@@ -107,14 +125,21 @@ public class AbdmResourceBuilder {
      * @return FHIR Practitioner resource
      */
     public Practitioner buildPractitioner(String name, String license) {
+        Practitioner practitioner = practitionerTemplate(name, license);
+        practitioner.setId(ids.newId());
+        return FragmentKey.tag(practitioner, "AbdmResourceBuilder.buildPractitioner", name, license);
+    }
+
+    /**
+     * {@link #buildPractitioner} without an id, for {@link ResourceTemplateCache}.
+     */
+    Practitioner practitionerTemplate(String name, String license) {
         Practitioner practitioner = new Practitioner();
-        practitioner.setId(UUID.randomUUID().toString());
         practitioner.getMeta().setVersionId("1")
                 .addProfile(FhirConstants.PROFILE_PRACTITIONER);
 
         practitioner.addIdentifier()
-                .setType(new CodeableConcept(
-                        new Coding(FhirConstants.SYSTEM_ID_TYPE, "MD", "Medical License number")))
+                .setType(CodingCatalog.MEDICAL_LICENSE_NUMBER.concept())
                 .setSystem(FhirConstants.SYSTEM_DOCTOR_LICENSE).setValue(license != null ? license : "LIC-99999");
 
         practitioner.addName().setText(name != null ? name : "Doctor ABDM");
@@ -132,11 +157,12 @@ public class AbdmResourceBuilder {
      */
     public Condition buildCondition(Patient patient, String code, String display, String text, Date date) {
         Condition condition = new Condition();
-        condition.setId(UUID.randomUUID().toString());
+        condition.setId(ids.newId());
         condition.getMeta().addProfile(FhirConstants.PROFILE_CONDITION);
         condition.setRecordedDate(date != null ? date : new Date());
         condition.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        condition.getCode().addCoding(new Coding(FhirConstants.SYSTEM_SNOMED, code, display)).setText(text);
+        condition.getCode().addCoding(new Coding(FhirConstants.SYSTEM_SNOMED, code,
+                standardDisplay(FhirConstants.SYSTEM_SNOMED, code, display))).setText(text);
         return condition;
     }
 
@@ -162,7 +188,7 @@ public class AbdmResourceBuilder {
     public Observation buildVitalSignObservation(Patient patient, String display, String code, String value,
             String unit, Date date) {
         Observation obs = new Observation();
-        obs.setId(UUID.randomUUID().toString());
+        obs.setId(ids.newId());
         obs.getMeta().addProfile(FhirConstants.PROFILE_OBSERVATION);
         // ABDM Wellness requires Vital Signs profile for entries in Vital Signs section
         obs.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/ObservationVitalSigns");
@@ -171,13 +197,12 @@ public class AbdmResourceBuilder {
         obs.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
         obs.setEffective(new DateTimeType(date != null ? date : new Date()));
 
-        obs.addCategory(new CodeableConcept(new Coding(FhirConstants.SYSTEM_OBS_CATEGORY,
-                "vital-signs", "Vital Signs")));
+        obs.addCategory(CodingCatalog.VITAL_SIGNS_CATEGORY.concept());
 
         // Use provided code if available, fallback logic for legacy support if needed
         String actualCode = code != null ? code : "29463-7";
         String providedDisplay = display != null ? display : "Body Weight";
-        String standardDisplay = STANDARD_DISPLAYS.getOrDefault(actualCode, providedDisplay);
+        String standardDisplay = standardDisplay(FhirConstants.SYSTEM_LOINC, actualCode, providedDisplay);
 
         obs.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_LOINC, actualCode, standardDisplay))
                 .setText(providedDisplay));
@@ -195,11 +220,7 @@ public class AbdmResourceBuilder {
         // ... extend for others if strict validation fails, but usually
         // ObservationVitalSigns is enough.
 
-        double val = 0;
-        try {
-            val = Double.parseDouble(value);
-        } catch (Exception e) {
-        }
+        double val = InputCoercion.decimal(value, 0);
 
         obs.setValue(new Quantity().setValue(val).setUnit(unit).setSystem(FhirConstants.SYSTEM_UCUM).setCode(unit));
         obs.addPerformer(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
@@ -213,7 +234,7 @@ public class AbdmResourceBuilder {
     public Observation buildBloodPressureObservation(Patient patient, String systolicVal, String diastolicVal,
             String unit, Date date) {
         Observation obs = new Observation();
-        obs.setId(UUID.randomUUID().toString());
+        obs.setId(ids.newId());
         obs.getMeta().addProfile(FhirConstants.PROFILE_OBSERVATION);
         obs.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/ObservationVitalSigns");
         obs.getMeta().addProfile("http://hl7.org/fhir/StructureDefinition/bp");
@@ -223,17 +244,14 @@ public class AbdmResourceBuilder {
         obs.setEffective(new DateTimeType(date != null ? date : new Date()));
         obs.addPerformer(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
 
-        obs.addCategory(
-                new CodeableConcept(new Coding(FhirConstants.SYSTEM_OBS_CATEGORY, "vital-signs", "Vital Signs")));
-        obs.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_BP_PANEL,
-                "Blood pressure panel with all children optional")));
+        obs.addCategory(CodingCatalog.VITAL_SIGNS_CATEGORY.concept());
+        obs.setCode(CodingCatalog.BP_PANEL.concept());
 
         // Systolic Component
         if (systolicVal != null) {
             Observation.ObservationComponentComponent systolic = obs.addComponent();
-            systolic.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_SYSTOLIC, "Systolic blood pressure")));
-            double val = Double.parseDouble(systolicVal);
+            systolic.setCode(CodingCatalog.SYSTOLIC_BP.concept());
+            double val = InputCoercion.decimal(systolicVal).orElseThrow("systolic").doubleValue();
             systolic.setValue(new Quantity().setValue(val).setUnit(unit != null ? unit : "mm[Hg]")
                     .setSystem(FhirConstants.SYSTEM_UCUM).setCode(unit != null ? unit : "mm[Hg]"));
         }
@@ -241,9 +259,8 @@ public class AbdmResourceBuilder {
         // Diastolic Component
         if (diastolicVal != null) {
             Observation.ObservationComponentComponent diastolic = obs.addComponent();
-            diastolic.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_DIASTOLIC, "Diastolic blood pressure")));
-            double val = Double.parseDouble(diastolicVal);
+            diastolic.setCode(CodingCatalog.DIASTOLIC_BP.concept());
+            double val = InputCoercion.decimal(diastolicVal).orElseThrow("diastolic").doubleValue();
             diastolic.setValue(new Quantity().setValue(val).setUnit(unit != null ? unit : "mm[Hg]")
                     .setSystem(FhirConstants.SYSTEM_UCUM).setCode(unit != null ? unit : "mm[Hg]"));
         }
@@ -266,7 +283,7 @@ public class AbdmResourceBuilder {
             String medicationName,
             String medicationCode, String dosage, Date date) {
         MedicationRequest mr = new MedicationRequest();
-        mr.setId(UUID.randomUUID().toString());
+        mr.setId(ids.newId());
         mr.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/MedicationRequest");
         mr.setStatus(MedicationRequest.MedicationRequestStatus.ACTIVE);
         mr.setIntent(MedicationRequest.MedicationRequestIntent.ORDER);
@@ -274,7 +291,7 @@ public class AbdmResourceBuilder {
         CodeableConcept medCode = new CodeableConcept();
         String code = medicationCode != null ? medicationCode : FhirConstants.CODE_FALLBACK_MEDICATION;
         String name = medicationName != null ? medicationName : "Unspecified Medication";
-        String display = STANDARD_DISPLAYS.getOrDefault(code, name);
+        String display = standardDisplay(FhirConstants.SYSTEM_SNOMED, code, name);
 
         // Set the coding with the standard display if available, otherwise fallback to
         // name
@@ -297,62 +314,18 @@ public class AbdmResourceBuilder {
     }
 
     /**
-     * Builds the Composition for a Prescription Record.
+     * Builds the Composition of a document type declared in
+     * {@link CompositionRegistry}.
+     *
+     * @param custodian May be null
+     * @param encounter May be null
+     * @param sections  Resources referenced by each declared section, in order
      */
-    public Composition buildPrescriptionComposition(Patient patient, Practitioner author,
-            java.util.List<MedicationRequest> mrs, Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_PRESCRIPTION_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("Prescription Record");
-
-        comp.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD,
-                "Prescription record")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-
-        Composition.SectionComponent section = comp.addSection();
-        section.setTitle("Prescription record (record artifact)");
-        section.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED,
-                FhirConstants.CODE_PRESCRIPTION_RECORD, "Prescription record")));
-        for (MedicationRequest mr : mrs) {
-            section.addEntry(new Reference("urn:uuid:" + mr.getId()).setType("MedicationRequest"));
-        }
-
-        return comp;
-    }
-
-    /**
-     * Builds the Composition for a Discharge Summary.
-     */
-    public Composition buildDischargeSummaryComposition(Patient patient, Practitioner author, Encounter encounter,
-            java.util.List<Condition> conditions, Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_DISCHARGE_SUMMARY_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("Discharge Summary");
-
-        comp.setType(new CodeableConcept(
-                new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_DISCHARGE_SUMMARY, "Discharge summary")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-        comp.setEncounter(new Reference("urn:uuid:" + encounter.getId()).setType("Encounter"));
-
-        if (conditions != null && !conditions.isEmpty()) {
-            Composition.SectionComponent diagSection = comp.addSection();
-            diagSection.setTitle("Diagnosis");
-            for (Condition cond : conditions) {
-                diagSection.addEntry(new Reference("urn:uuid:" + cond.getId()).setType("Condition"));
-            }
-        }
-
-        return comp;
+    @SafeVarargs
+    public final Composition buildComposition(String documentType, Patient patient, Practitioner author,
+            Organization custodian, Encounter encounter, Date date, java.util.List<? extends Resource>... sections) {
+        return CompositionRegistry.standard().get(documentType)
+                .instantiate(ids.newId(), patient, author, custodian, encounter, date, sections);
     }
 
     /**
@@ -361,11 +334,10 @@ public class AbdmResourceBuilder {
     public Encounter buildEncounter(Patient patient, Practitioner practitioner, Organization serviceProvider,
             String dateStr, Date date) {
         Encounter enc = new Encounter();
-        enc.setId(UUID.randomUUID().toString());
+        enc.setId(ids.newId());
         enc.getMeta().addProfile(FhirConstants.PROFILE_ENCOUNTER);
         enc.setStatus(Encounter.EncounterStatus.FINISHED);
-        enc.setClass_(new Coding(FhirConstants.SYSTEM_ENCOUNTER_CLASS, FhirConstants.CODE_ENCOUNTER_INPATIENT,
-                "inpatient encounter"));
+        enc.setClass_(CodingCatalog.INPATIENT_ENCOUNTER.coding());
         enc.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
         enc.addParticipant().setIndividual(new Reference("urn:uuid:" + practitioner.getId()).setType("Practitioner"));
 
@@ -378,163 +350,12 @@ public class AbdmResourceBuilder {
         return enc;
     }
 
-    /**
-     * Builds the Composition for an OP Consult Note.
-     */
-    public Composition buildOPConsultComposition(Patient patient, Practitioner author, Encounter encounter,
-            java.util.List<Condition> conditions, Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_OP_CONSULT_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("OP Consult Record");
-
-        comp.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_OP_CONSULT_RECORD,
-                "Clinical consultation report")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-        comp.setEncounter(new Reference("urn:uuid:" + encounter.getId()).setType("Encounter"));
-
-        if (conditions != null && !conditions.isEmpty()) {
-            Composition.SectionComponent diagSection = comp.addSection();
-            diagSection.setTitle("Diagnosis");
-            for (Condition cond : conditions) {
-                diagSection.addEntry(new Reference("urn:uuid:" + cond.getId()).setType("Condition"));
-            }
-        }
-
-        return comp;
-    }
-
-    /**
-     * Builds a Composite OP Consult Composition.
-     */
-    public Composition buildCompositeOPConsultComposition(Patient patient, Practitioner author, Organization custodian,
-            Encounter encounter,
-            java.util.List<Condition> conditions,
-            java.util.List<MedicationRequest> medications,
-            java.util.List<AllergyIntolerance> allergies,
-            java.util.List<Observation> labResults,
-            java.util.List<Observation> wellnessObs,
-            java.util.List<DiagnosticReport> diagnosticReports,
-            Invoice invoice,
-            Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_OP_CONSULT_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("OP Consult Record (Composite)");
-
-        comp.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_OP_CONSULT_RECORD,
-                "Clinical consultation report")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-
-        if (custodian != null) {
-            comp.setCustodian(new Reference("urn:uuid:" + custodian.getId()).setType("Organization"));
-        }
-
-        comp.setEncounter(new Reference("urn:uuid:" + encounter.getId()).setType("Encounter"));
-
-        // Diagnosis Section
-        if (conditions != null && !conditions.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Diagnosis");
-            for (Condition cond : conditions) {
-                section.addEntry(new Reference("urn:uuid:" + cond.getId()).setType("Condition"));
-            }
-        }
-
-        // Medications Section
-        if (medications != null && !medications.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Medications");
-            section.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED,
-                    FhirConstants.CODE_PRESCRIPTION_RECORD, "Prescription record (record artifact)")));
-            for (MedicationRequest mr : medications) {
-                section.addEntry(new Reference("urn:uuid:" + mr.getId()).setType("MedicationRequest"));
-            }
-        }
-
-        // Allergies Section
-        if (allergies != null && !allergies.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Allergies");
-            section.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED,
-                    "722446000", "Allergy record")));
-            for (AllergyIntolerance allergy : allergies) {
-                section.addEntry(new Reference("urn:uuid:" + allergy.getId()).setType("AllergyIntolerance"));
-            }
-        }
-
-        // Lab Results Section
-        if (diagnosticReports != null && !diagnosticReports.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Diagnostic Reports");
-            for (DiagnosticReport dr : diagnosticReports) {
-                section.addEntry(new Reference("urn:uuid:" + dr.getId()).setType("DiagnosticReport"));
-            }
-        }
-
-        // Invoice Section
-        if (invoice != null) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Billing");
-            // No specific LOINC/SNOMED code for Billing section in example
-            section.addEntry(new Reference("urn:uuid:" + invoice.getId()).setType("Invoice"));
-        }
-
-        // Wellness/Vital Signs Section
-        if (wellnessObs != null && !wellnessObs.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Vital Signs");
-            section.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED,
-                    "46680005", "Vital signs")));
-            for (Observation obs : wellnessObs) {
-                section.addEntry(new Reference("urn:uuid:" + obs.getId()).setType("Observation"));
-            }
-        }
-
-        return comp;
-    }
-
-    /**
-     * Builds the Composition for a Wellness Record.
-     */
-    public Composition buildWellnessComposition(Patient patient, Practitioner author,
-            java.util.List<Observation> observations, Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_WELLNESS_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("Wellness Record");
-
-        comp.setType(
-                new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_DIAGNOSTIC_REPORT,
-                        "Diagnostic studies report")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-
-        Composition.SectionComponent section = comp.addSection().setTitle("Vital Signs");
-        for (Observation obs : observations) {
-            section.addEntry(new Reference("urn:uuid:" + obs.getId()).setType("Observation"));
-        }
-
-        return comp;
-    }
-
     /**
      * Builds an Immunization resource.
      */
     public Immunization buildImmunization(Patient patient, String vaccineName, String vaccineCode, Date date) {
         Immunization imm = new Immunization();
-        imm.setId(UUID.randomUUID().toString());
+        imm.setId(ids.newId());
         imm.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Immunization");
         imm.setStatus(Immunization.ImmunizationStatus.COMPLETED);
         imm.setVaccineCode(
@@ -552,23 +373,19 @@ public class AbdmResourceBuilder {
     public AllergyIntolerance buildAllergyIntolerance(Patient patient, Practitioner author, String code, String display,
             String clinicalStatus, Date date) {
         AllergyIntolerance allergy = new AllergyIntolerance();
-        allergy.setId(UUID.randomUUID().toString());
+        allergy.setId(ids.newId());
         allergy.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/AllergyIntolerance");
 
         // Use supplied clinical status or default to active
         if ("inactive".equalsIgnoreCase(clinicalStatus)) {
-            allergy.setClinicalStatus(new CodeableConcept(new Coding(
-                    "http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "inactive", "Inactive")));
+            allergy.setClinicalStatus(CodingCatalog.ALLERGY_INACTIVE.concept());
         } else if ("resolved".equalsIgnoreCase(clinicalStatus)) {
-            allergy.setClinicalStatus(new CodeableConcept(new Coding(
-                    "http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "resolved", "Resolved")));
+            allergy.setClinicalStatus(CodingCatalog.ALLERGY_RESOLVED.concept());
         } else {
-            allergy.setClinicalStatus(new CodeableConcept(new Coding(
-                    "http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "active", "Active")));
+            allergy.setClinicalStatus(CodingCatalog.ALLERGY_ACTIVE.concept());
         }
 
-        allergy.setVerificationStatus(new CodeableConcept(new Coding(
-                "http://terminology.hl7.org/CodeSystem/allergyintolerance-verification", "confirmed", "Confirmed")));
+        allergy.setVerificationStatus(CodingCatalog.ALLERGY_CONFIRMED.concept());
 
         allergy.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, code != null ? code : "716186003",
                 display != null ? display : "No Known Allergy")));
@@ -579,44 +396,19 @@ public class AbdmResourceBuilder {
         return allergy;
     }
 
-    /**
-     * Builds the Composition for an Immunization Record.
-     */
-    public Composition buildImmunizationComposition(Patient patient, Practitioner author,
-            java.util.List<Immunization> imms, Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_IMMUNIZATION_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("Immunization Record");
-
-        comp.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_IMMUNIZATION_RECORD,
-                "Immunization record")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-
-        Composition.SectionComponent section = comp.addSection().setTitle("Immunization");
-        for (Immunization imm : imms) {
-            section.addEntry(new Reference("urn:uuid:" + imm.getId()).setType("Immunization"));
-        }
-        return comp;
-    }
-
     /**
      * Builds a DocumentReference for attachments.
      */
     public DocumentReference buildDocumentReference(Patient patient, String title, String base64Data, Date date) {
         DocumentReference doc = new DocumentReference();
-        doc.setId(UUID.randomUUID().toString());
+        doc.setId(ids.newId());
         doc.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DocumentReference");
         doc.setStatus(Enumerations.DocumentReferenceStatus.CURRENT);
         doc.setDocStatus(DocumentReference.ReferredDocumentStatus.FINAL);
         doc.setDate(date != null ? date : new Date());
         doc.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
 
-        doc.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, "4241000179101", "Laboratory report")));
+        doc.setType(CodingCatalog.LABORATORY_REPORT.concept());
 
         doc.getContent().add(new DocumentReference.DocumentReferenceContentComponent(
                 new Attachment()
@@ -633,7 +425,7 @@ public class AbdmResourceBuilder {
      */
     public Procedure buildProcedure(Patient patient, String code, String display, String text, Date date) {
         Procedure proc = new Procedure();
-        proc.setId(UUID.randomUUID().toString());
+        proc.setId(ids.newId());
         proc.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Procedure");
         proc.setStatus(Procedure.ProcedureStatus.COMPLETED);
         proc.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
@@ -650,7 +442,7 @@ public class AbdmResourceBuilder {
      */
     public CarePlan buildCarePlan(Patient patient, String title, String details, Date date) {
         CarePlan cp = new CarePlan();
-        cp.setId(UUID.randomUUID().toString());
+        cp.setId(ids.newId());
         cp.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/CarePlan");
         cp.setStatus(CarePlan.CarePlanStatus.ACTIVE);
         cp.setIntent(CarePlan.CarePlanIntent.PLAN);
@@ -666,7 +458,7 @@ public class AbdmResourceBuilder {
      */
     public Appointment buildAppointment(Patient patient, Practitioner practitioner, String description, Date date) {
         Appointment appt = new Appointment();
-        appt.setId(UUID.randomUUID().toString());
+        appt.setId(ids.newId());
         appt.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Appointment");
         appt.setStatus(Appointment.AppointmentStatus.BOOKED);
         appt.setDescription(description);
@@ -689,7 +481,7 @@ public class AbdmResourceBuilder {
      */
     public Specimen buildSpecimen(Patient patient, String code, String display, Date date) {
         Specimen specimen = new Specimen();
-        specimen.setId(UUID.randomUUID().toString());
+        specimen.setId(ids.newId());
         specimen.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Specimen");
         specimen.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
         if (date != null) {
@@ -708,7 +500,7 @@ public class AbdmResourceBuilder {
             java.util.List<Observation> results, Specimen specimen,
             String reportTitle, String reportCode, Date date, String conclusion) {
         DiagnosticReport dr = new DiagnosticReport();
-        dr.setId(UUID.randomUUID().toString());
+        dr.setId(ids.newId());
         dr.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DiagnosticReportLab");
         dr.setStatus(DiagnosticReport.DiagnosticReportStatus.FINAL);
         dr.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_LOINC,
@@ -737,128 +529,15 @@ public class AbdmResourceBuilder {
         return dr;
     }
 
-    /**
-     * Builds the Composition for Inpatient Discharge Summary (New Flow).
-     */
-    public Composition buildIPDischargeSummaryComposition(Patient patient, Practitioner author, Organization custodian,
-            Encounter encounter,
-            java.util.List<Condition> chiefComplaints,
-            java.util.List<Resource> medicalHistory, // Condition or Procedure
-            java.util.List<DiagnosticReport> investigations, // DiagnosticReport
-            java.util.List<Procedure> procedures,
-            java.util.List<MedicationRequest> medications,
-            java.util.List<Resource> carePlan, // CarePlan, Appointment
-            java.util.List<DocumentReference> documents,
-            Date date) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DischargeSummaryRecord");
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date != null ? date : new Date());
-        comp.setTitle("Discharge Summary");
-
-        comp.setType(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, "373942005", "Discharge summary")));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()).setType("Practitioner"));
-        if (custodian != null) {
-            comp.setCustodian(new Reference("urn:uuid:" + custodian.getId()).setType("Organization"));
-        }
-        if (encounter != null) {
-            comp.setEncounter(new Reference("urn:uuid:" + encounter.getId()).setType("Encounter"));
-        }
-
-        // 1. Chief Complaints
-        if (chiefComplaints != null && !chiefComplaints.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Chief complaints");
-            section.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_SNOMED, "422843007", "Chief complaint section")));
-            for (Condition cond : chiefComplaints) {
-                section.addEntry(new Reference("urn:uuid:" + cond.getId()).setType("Condition"));
-            }
-        }
-
-        // 2. Medical History
-        if (medicalHistory != null && !medicalHistory.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Medical History");
-            section.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_SNOMED, "1003642006", "Past medical history section")));
-            for (Resource res : medicalHistory) {
-                section.addEntry(new Reference("urn:uuid:" + res.getId()).setType(res.getResourceType().name()));
-            }
-        }
-
-        // 3. Investigations
-        if (investigations != null && !investigations.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Investigations");
-            section.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_SNOMED, "721981007", "Diagnostic studies report")));
-            for (DiagnosticReport dr : investigations) {
-                section.addEntry(new Reference("urn:uuid:" + dr.getId()).setType("DiagnosticReport"));
-            }
-        }
-
-        // 4. Procedures
-        if (procedures != null && !procedures.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Procedures");
-            section.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_SNOMED, "1003640003", "History of past procedure section")));
-            for (Procedure proc : procedures) {
-                section.addEntry(new Reference("urn:uuid:" + proc.getId()).setType("Procedure"));
-            }
-        }
-
-        // 5. Medications
-        if (medications != null && !medications.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Medications");
-            section.setCode(new CodeableConcept(
-                    new Coding(FhirConstants.SYSTEM_SNOMED, "1003606003", "Medication history section")));
-            for (MedicationRequest mr : medications) {
-                section.addEntry(new Reference("urn:uuid:" + mr.getId()).setType("MedicationRequest"));
-            }
-        }
-
-        // 6. Care Plan
-        if (carePlan != null && !carePlan.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Care Plan");
-            section.setCode(new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, "734163000", "Care plan")));
-            for (Resource res : carePlan) {
-                if (res instanceof CarePlan) {
-                    section.addEntry(new Reference("urn:uuid:" + res.getId()).setType("CarePlan"));
-                }
-            }
-        }
-
-        // 7. Document Reference
-        if (documents != null && !documents.isEmpty()) {
-            Composition.SectionComponent section = comp.addSection();
-            section.setTitle("Document Reference");
-            section.setCode(
-                    new CodeableConcept(new Coding(FhirConstants.SYSTEM_SNOMED, "373942005", "Discharge summary")));
-            for (DocumentReference doc : documents) {
-                section.addEntry(new Reference("urn:uuid:" + doc.getId()).setType("DocumentReference"));
-            }
-        }
-
-        return comp;
-    }
-
     public ChargeItem buildChargeItem(Patient patient, String itemName, int quantity) {
         ChargeItem item = new ChargeItem();
-        item.setId(UUID.randomUUID().toString());
+        item.setId(ids.newId());
         item.setMeta(new Meta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/ChargeItem"));
         item.setStatus(ChargeItem.ChargeItemStatus.BILLED); // Per example
 
         // Code
         CodeableConcept code = new CodeableConcept();
-        code.addCoding(new Coding("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-billing-codes", "05", "Medicines")); // Simplified
-                                                                                                                      // mapping
+        code.addCoding(CodingCatalog.BILLING_MEDICINES.coding()); // Simplified mapping
         code.setText(itemName);
         item.setCode(code);
 
@@ -876,16 +555,14 @@ public class AbdmResourceBuilder {
             double totalAmount,
             String currency) {
         Invoice invoice = new Invoice();
-        invoice.setId(UUID.randomUUID().toString());
-        invoice.addIdentifier().setValue(UUID.randomUUID().toString());
+        invoice.setId(ids.newId());
+        invoice.addIdentifier().setValue(ids.newId());
         invoice.setMeta(new Meta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/Invoice"));
         invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
         invoice.setDate(new Date());
 
         // Type
-        CodeableConcept type = new CodeableConcept();
-        type.addCoding(new Coding("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-billing-codes", "01", "Pharmacy"));
-        invoice.setType(type);
+        invoice.setType(CodingCatalog.BILLING_PHARMACY.concept());
 
         invoice.setSubject(new Reference("urn:uuid:" + patient.getId()));
         invoice.setTotalNet(new Money().setValue(totalAmount).setCurrency(currency));
@@ -901,15 +578,13 @@ public class AbdmResourceBuilder {
             // Base Price
             Invoice.InvoiceLineItemPriceComponentComponent basePrice = lineItem.addPriceComponent();
             basePrice.setType(Invoice.InvoicePriceComponentType.BASE);
-            basePrice.setCode(new CodeableConcept().addCoding(
-                    new Coding("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-price-components", "01", "Rate")));
+            basePrice.setCode(CodingCatalog.PRICE_RATE.concept());
             basePrice.setAmount(new Money().setValue(price).setCurrency(currency));
 
             // MRP (Informational) - assuming same as base for simplicity if not provided
             Invoice.InvoiceLineItemPriceComponentComponent mrp = lineItem.addPriceComponent();
             mrp.setType(Invoice.InvoicePriceComponentType.INFORMATIONAL);
-            mrp.setCode(new CodeableConcept().addCoding(
-                    new Coding("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-price-components", "00", "MRP")));
+            mrp.setCode(CodingCatalog.PRICE_MRP.concept());
             mrp.setAmount(new Money().setValue(price).setCurrency(currency));
 
             i++;
@@ -917,23 +592,4 @@ public class AbdmResourceBuilder {
 
         return invoice;
     }
-
-    public Composition buildInvoiceComposition(Patient patient, Practitioner author, Date date, Invoice invoice) {
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.setMeta(new Meta().addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/InvoiceRecord"));
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(date);
-        comp.setTitle("Pharmacy Invoice Record");
-        comp.setType(new CodeableConcept().setText("Invoice Record"));
-
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()));
-        comp.addAuthor(new Reference("urn:uuid:" + author.getId()));
-
-        Composition.SectionComponent section = comp.addSection();
-        section.setTitle("Invoicing");
-        section.addEntry(new Reference("urn:uuid:" + invoice.getId()).setType("Invoice"));
-
-        return comp;
-    }
 }
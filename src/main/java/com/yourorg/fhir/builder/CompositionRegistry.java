@@ -0,0 +1,137 @@
+package com.yourorg.fhir.builder;
+
+import com.yourorg.fhir.util.FhirConstants;
+import org.hl7.fhir.r4.model.CarePlan;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.yourorg.fhir.builder.CompositionTemplate.document;
+import static com.yourorg.fhir.builder.CompositionTemplate.section;
+
+/**
+ * The Composition of every document type we generate, keyed by the document
+ * type names of the batch endpoints ("prescription", "op-consult", ...).
+ * Adding a document type means declaring its template here; the entry lists
+ * passed to {@link CompositionTemplate#instantiate} follow the section order
+ * declared below.
+ */
+public final class CompositionRegistry {
+
+    public static final String PRESCRIPTION = "prescription";
+    public static final String OP_CONSULT = "op-consult";
+    public static final String WELLNESS = "wellness";
+    public static final String IMMUNIZATION = "immunization";
+    public static final String HEALTH_DOCUMENT = "health-document";
+    public static final String DISCHARGE_SUMMARY = "discharge-summary";
+    public static final String LAB_REPORT = "lab-report";
+    public static final String COMPOSITE_OP_CONSULT = "composite-op-consult";
+    public static final String INVOICE = "invoice";
+    public static final String IP_DISCHARGE_SUMMARY = "ip-discharge-summary";
+
+    private static final String SNOMED = FhirConstants.SYSTEM_SNOMED;
+
+    private static final CompositionRegistry STANDARD = new CompositionRegistry();
+
+    private final Map<String, CompositionTemplate> templates = new LinkedHashMap<>();
+
+    private CompositionRegistry() {
+        // Sections: medication requests
+        define(PRESCRIPTION, document(FhirConstants.PROFILE_PRESCRIPTION_RECORD, "Prescription Record")
+                .type(SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD, "Prescription record")
+                .section(section("Prescription record (record artifact)")
+                        .code(SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD, "Prescription record")
+                        .keptWhenEmpty()));
+
+        // Sections: diagnoses
+        define(OP_CONSULT, document(FhirConstants.PROFILE_OP_CONSULT_RECORD, "OP Consult Record")
+                .type(SNOMED, FhirConstants.CODE_OP_CONSULT_RECORD, "Clinical consultation report")
+                .section(section("Diagnosis")));
+
+        // Sections: vital sign observations
+        define(WELLNESS, document(FhirConstants.PROFILE_WELLNESS_RECORD, "Wellness Record")
+                .type(SNOMED, FhirConstants.CODE_DIAGNOSTIC_REPORT, "Diagnostic studies report")
+                .section(section("Vital Signs").keptWhenEmpty()));
+
+        // Sections: immunizations
+        define(IMMUNIZATION, document(FhirConstants.PROFILE_IMMUNIZATION_RECORD, "Immunization Record")
+                .type(SNOMED, FhirConstants.CODE_IMMUNIZATION_RECORD, "Immunization record")
+                .section(section("Immunization").keptWhenEmpty()));
+
+        // Sections: document references
+        define(HEALTH_DOCUMENT, document(FhirConstants.PROFILE_HEALTH_DOCUMENT_RECORD, "Health Document Record")
+                .type(SNOMED, FhirConstants.CODE_HEALTH_DOCUMENT, "Record artifact")
+                .section(section(null).keptWhenEmpty()));
+
+        // Sections: diagnoses
+        define(DISCHARGE_SUMMARY, document(FhirConstants.PROFILE_DISCHARGE_SUMMARY_RECORD, "Discharge Summary")
+                .type(SNOMED, FhirConstants.CODE_DISCHARGE_SUMMARY, "Discharge summary")
+                .section(section("Diagnosis")));
+
+        // Sections: the diagnostic report
+        define(LAB_REPORT, document("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DiagnosticReportRecord",
+                "Diagnostic studies report")
+                .type(SNOMED, FhirConstants.CODE_DIAGNOSTIC_REPORT, "Diagnostic studies report")
+                .section(section("Diagnostic studies report").keptWhenEmpty()));
+
+        // Sections: diagnoses, medications, allergies, diagnostic reports,
+        // invoice, vital signs
+        define(COMPOSITE_OP_CONSULT,
+                document(FhirConstants.PROFILE_OP_CONSULT_RECORD, "OP Consult Record (Composite)")
+                        .type(SNOMED, FhirConstants.CODE_OP_CONSULT_RECORD, "Clinical consultation report")
+                        .section(section("Diagnosis"))
+                        .section(section("Medications")
+                                .code(SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD,
+                                        "Prescription record (record artifact)"))
+                        .section(section("Allergies").code(SNOMED, "722446000", "Allergy record"))
+                        .section(section("Diagnostic Reports"))
+                        .section(section("Billing"))
+                        .section(section("Vital Signs").code(SNOMED, "46680005", "Vital signs")));
+
+        // Sections: the invoice
+        define(INVOICE, document("https://nrces.in/ndhm/fhir/r4/StructureDefinition/InvoiceRecord",
+                "Pharmacy Invoice Record")
+                .typeText("Invoice Record")
+                .section(section("Invoicing").keptWhenEmpty()));
+
+        // Sections: chief complaints, medical history, investigations,
+        // procedures, medications, care plan, documents
+        define(IP_DISCHARGE_SUMMARY, document(FhirConstants.PROFILE_DISCHARGE_SUMMARY_RECORD, "Discharge Summary")
+                .type(SNOMED, FhirConstants.CODE_DISCHARGE_SUMMARY, "Discharge summary")
+                .section(section("Chief complaints").code(SNOMED, "422843007", "Chief complaint section"))
+                .section(section("Medical History").code(SNOMED, "1003642006", "Past medical history section"))
+                .section(section("Investigations").code(SNOMED, "721981007", "Diagnostic studies report"))
+                .section(section("Procedures").code(SNOMED, "1003640003", "History of past procedure section"))
+                .section(section("Medications").code(SNOMED, "1003606003", "Medication history section"))
+                .section(section("Care Plan").code(SNOMED, "734163000", "Care plan").only(CarePlan.class))
+                .section(section("Document Reference").code(SNOMED, "373942005", "Discharge summary")));
+    }
+
+    /**
+     * @return The registry with the ABDM document types
+     */
+    public static CompositionRegistry standard() {
+        return STANDARD;
+    }
+
+    private void define(String documentType, CompositionTemplate.Builder template) {
+        templates.put(documentType, template.build());
+    }
+
+    /**
+     * @throws IllegalArgumentException If no template has that name
+     */
+    public CompositionTemplate get(String documentType) {
+        CompositionTemplate template = templates.get(documentType);
+        if (template == null) {
+            throw new IllegalArgumentException("No Composition template for document type: " + documentType);
+        }
+        return template;
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(templates.keySet());
+    }
+}
@@ -0,0 +1,199 @@
+package com.yourorg.fhir.builder;
+
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Composition;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The Composition of one document type, declared once (profile, title, type
+ * and sections) and compiled into a skeleton when it is built. Each document
+ * gets a deep copy of the skeleton with its id, date, participants and section
+ * entries filled in; nothing else is rebuilt per request. Each document gets
+ * its own copies of the type and section codings.
+ *
+ * <p>
+ * Sections keep their declared order. A section with no entries is left out
+ * unless it is {@link Section#keptWhenEmpty()}.
+ */
+public final class CompositionTemplate {
+
+    private final Composition skeleton;
+    private final Coding type;
+    private final Section[] sections;
+
+    private CompositionTemplate(Builder builder) {
+        this.skeleton = builder.skeleton;
+        this.type = builder.type;
+        this.sections = builder.sections.toArray(new Section[0]);
+    }
+
+    /**
+     * Starts the declaration of a document type.
+     */
+    public static Builder document(String profile, String title) {
+        return new Builder(profile, title);
+    }
+
+    /**
+     * Declares a section; {@code title} may be null.
+     */
+    public static Section section(String title) {
+        return new Section(title);
+    }
+
+    public int getSectionCount() {
+        return sections.length;
+    }
+
+    /**
+     * Builds the Composition of one document.
+     *
+     * @param custodian May be null
+     * @param encounter May be null
+     * @param date      Null for now
+     * @param entries   Resources referenced by each section, in the declared
+     *                  section order; a list may be null
+     */
+    @SafeVarargs
+    public final Composition instantiate(String id, Patient subject, Practitioner author, Organization custodian,
+            Encounter encounter, Date date, List<? extends Resource>... entries) {
+        if (entries.length != sections.length) {
+            throw new IllegalArgumentException(
+                    "Expected entries for " + sections.length + " sections, got " + entries.length);
+        }
+        Composition comp = skeleton.copy();
+        comp.setId(id);
+        if (type != null) {
+            comp.setType(new CodeableConcept(type.copy()));
+        }
+        comp.setDate(date != null ? date : new Date());
+        comp.setSubject(reference(subject));
+        comp.addAuthor(reference(author));
+        if (custodian != null) {
+            comp.setCustodian(reference(custodian));
+        }
+        if (encounter != null) {
+            comp.setEncounter(reference(encounter));
+        }
+
+        for (int i = 0; i < sections.length; i++) {
+            Section declared = sections[i];
+            Composition.SectionComponent section = null;
+            if (entries[i] != null) {
+                for (Resource resource : entries[i]) {
+                    if (declared.only != null && !declared.only.isInstance(resource)) {
+                        continue;
+                    }
+                    if (section == null) {
+                        section = declared.newSection();
+                        comp.getSection().add(section);
+                    }
+                    section.addEntry(reference(resource));
+                }
+            }
+            if (section == null && declared.keptWhenEmpty) {
+                comp.getSection().add(declared.newSection());
+            }
+        }
+        return comp;
+    }
+
+    private static Reference reference(Resource resource) {
+        return new Reference("urn:uuid:" + resource.getId()).setType(resource.getResourceType().name());
+    }
+
+    /**
+     * Declaration of a document type; {@link #build()} compiles it.
+     */
+    public static final class Builder {
+
+        private final Composition skeleton = new Composition();
+        private final List<Section> sections = new ArrayList<>();
+        private Coding type;
+
+        private Builder(String profile, String title) {
+            skeleton.getMeta().addProfile(profile);
+            skeleton.setStatus(Composition.CompositionStatus.FINAL);
+            skeleton.setTitle(title);
+        }
+
+        public Builder type(String system, String code, String display) {
+            this.type = new Coding(system, code, display);
+            skeleton.setType(null);
+            return this;
+        }
+
+        /**
+         * A type with text only, for documents without a standard code.
+         */
+        public Builder typeText(String text) {
+            this.type = null;
+            skeleton.setType(new CodeableConcept().setText(text));
+            return this;
+        }
+
+        public Builder section(Section section) {
+            sections.add(section);
+            return this;
+        }
+
+        public CompositionTemplate build() {
+            return new CompositionTemplate(this);
+        }
+    }
+
+    /**
+     * Declaration of one section.
+     */
+    public static final class Section {
+
+        private final String title;
+        private Coding code;
+        private boolean keptWhenEmpty;
+        private Class<? extends Resource> only;
+
+        private Section(String title) {
+            this.title = title;
+        }
+
+        public Section code(String system, String code, String display) {
+            this.code = new Coding(system, code, display);
+            return this;
+        }
+
+        /**
+         * Emits the section even without entries.
+         */
+        public Section keptWhenEmpty() {
+            this.keptWhenEmpty = true;
+            return this;
+        }
+
+        /**
+         * References only the resources of {@code type} among those passed in.
+         */
+        public Section only(Class<? extends Resource> type) {
+            this.only = type;
+            return this;
+        }
+
+        private Composition.SectionComponent newSection() {
+            Composition.SectionComponent section = new Composition.SectionComponent();
+            section.setTitle(title);
+            if (code != null) {
+                section.setCode(new CodeableConcept(code.copy()));
+            }
+            return section;
+        }
+    }
+}
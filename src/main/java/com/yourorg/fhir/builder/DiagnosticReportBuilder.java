@@ -1,16 +1,22 @@
 package com.yourorg.fhir.builder;
 
 import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.IdGenerator;
 import com.yourorg.fhir.util.NarrativeUtil;
 import org.hl7.fhir.r4.model.*;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
-import java.util.UUID;
 
 @Component
 public class DiagnosticReportBuilder {
 
+        private final IdGenerator ids;
+
+        public DiagnosticReportBuilder(IdGenerator ids) {
+                this.ids = ids;
+        }
+
         /**
          * Builds a DiagnosticReport resource following ABDM formatting.
          * Includes results interpreter, conclusion, and LOINC coding.
@@ -27,7 +33,7 @@ public class DiagnosticReportBuilder {
 
                 DiagnosticReport report = new DiagnosticReport();
 
-                report.setId(UUID.randomUUID().toString()); // Use UUID for Bundle fullUrl matching
+                report.setId(ids.newId()); // Use UUID for Bundle fullUrl matching
 
                 // ABDM Diagnostic Report Lab Profile
                 report.getMeta().addProfile(FhirConstants.PROFILE_DIAGNOSTIC_REPORT_LAB);
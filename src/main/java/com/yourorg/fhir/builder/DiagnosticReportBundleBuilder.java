@@ -1,11 +1,12 @@
 package com.yourorg.fhir.builder;
 
 import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.IdGenerator;
 import org.hl7.fhir.r4.model.*;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
-import java.util.UUID;
+import java.util.List;
 
 /**
  * Specialized builder for Laboratory Diagnostic Report Bundles.
@@ -14,6 +15,12 @@ import java.util.UUID;
 @Component
 public class DiagnosticReportBundleBuilder {
 
+        private final IdGenerator ids;
+
+        public DiagnosticReportBundleBuilder(IdGenerator ids) {
+                this.ids = ids;
+        }
+
         /**
          * Builds a complete Document Bundle for a Diagnostic Report.
          */
@@ -26,21 +33,23 @@ public class DiagnosticReportBundleBuilder {
 
                 Bundle bundle = new Bundle();
                 bundle.setType(Bundle.BundleType.DOCUMENT);
-                bundle.setId(UUID.randomUUID().toString());
+                bundle.setId(ids.newId());
 
                 Date actualDate = date != null ? date : new Date();
                 bundle.setTimestamp(actualDate);
 
                 bundle.getMeta().setVersionId("1").addProfile(FhirConstants.PROFILE_DOC_BUNDLE);
 
-                Composition composition = buildComposition(patient, practitioner, report, actualDate);
+                Composition composition = CompositionRegistry.standard().get(CompositionRegistry.LAB_REPORT)
+                                .instantiate(ids.newId(), patient, practitioner, null, null, actualDate,
+                                                List.of(report));
 
                 String compositionUrl = "urn:uuid:" + composition.getId();
 
                 bundle.setIdentifier(
                                 new Identifier()
                                                 .setSystem(FhirConstants.SYSTEM_BUNDLE_ID)
-                                                .setValue(UUID.randomUUID().toString()));
+                                                .setValue(ids.newId()));
 
                 // Add entries. Order matters: Composition first.
                 bundle.addEntry()
@@ -67,45 +76,4 @@ public class DiagnosticReportBundleBuilder {
 
                 return bundle;
         }
-
-        private Composition buildComposition(
-                        Patient patient,
-                        Practitioner practitioner,
-                        DiagnosticReport report,
-                        Date date) {
-
-                Composition composition = new Composition();
-                composition.setId(UUID.randomUUID().toString());
-
-                composition.getMeta()
-                                .addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DiagnosticReportRecord");
-
-                composition.setStatus(Composition.CompositionStatus.FINAL);
-                composition.setDate(date != null ? date : new Date());
-
-                composition.setType(
-                                new CodeableConcept().addCoding(
-                                                new Coding(FhirConstants.SYSTEM_SNOMED,
-                                                                FhirConstants.CODE_DIAGNOSTIC_REPORT,
-                                                                "Diagnostic studies report")));
-
-                composition.setTitle("Diagnostic studies report");
-
-                composition.setSubject(
-                                new Reference("urn:uuid:" + patient.getId())
-                                                .setType("Patient"));
-
-                composition.addAuthor(
-                                new Reference("urn:uuid:" + practitioner.getId())
-                                                .setType("Practitioner"));
-
-                composition.addSection(
-                                new Composition.SectionComponent()
-                                                .setTitle("Diagnostic studies report")
-                                                .addEntry(
-                                                                new Reference("urn:uuid:" + report.getId())
-                                                                                .setType("DiagnosticReport")));
-
-                return composition;
-        }
 }
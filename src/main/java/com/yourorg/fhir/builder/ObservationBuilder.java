@@ -1,17 +1,28 @@
 package com.yourorg.fhir.builder;
 
 import com.yourorg.fhir.dto.LabReportDTO;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.CodingCatalog;
 import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.IdGenerator;
+import com.yourorg.fhir.util.InputCoercion;
 import org.hl7.fhir.r4.model.*;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Date;
-import java.util.UUID;
 
 @Component
 public class ObservationBuilder {
 
+        private final TerminologyService terminology;
+        private final IdGenerator ids;
+
+        public ObservationBuilder(TerminologyService terminology, IdGenerator ids) {
+                this.terminology = terminology;
+                this.ids = ids;
+        }
+
         /**
          * Builds an Observation resource representing a Laboratory test result.
          * Uses standard LOINC codes and UCUM units.
@@ -25,25 +36,22 @@ public class ObservationBuilder {
                         Practitioner practitioner, Date date) {
 
                 Observation obs = new Observation();
-                obs.setId(UUID.randomUUID().toString()); // Use UUID for Bundle fullUrl matching
+                obs.setId(ids.newId()); // Use UUID for Bundle fullUrl matching
 
                 obs.setStatus(Observation.ObservationStatus.FINAL);
 
                 // Category = Laboratory (Mandatory for Lab Observations)
-                obs.addCategory(
-                                new CodeableConcept().addCoding(
-                                                new Coding(
-                                                                FhirConstants.SYSTEM_OBS_CATEGORY,
-                                                                "laboratory",
-                                                                "Laboratory")));
+                obs.addCategory(CodingCatalog.LABORATORY_CATEGORY.concept());
 
-                // Test code (Using LOINC standard)
+                // Test code (Using LOINC standard, with its preferred display when known)
                 obs.setCode(
                                 new CodeableConcept().addCoding(
                                                 new Coding(
                                                                 FhirConstants.SYSTEM_LOINC,
                                                                 entry.getLoincCode(),
-                                                                entry.getTestName())));
+                                                                terminology.display(FhirConstants.SYSTEM_LOINC,
+                                                                                entry.getLoincCode(),
+                                                                                entry.getTestName()))));
 
                 // Subject (Reference to the Patient in the Bundle)
                 // Uses urn:uuid scheme for internal bundle references
@@ -60,13 +68,14 @@ public class ObservationBuilder {
                         value = "0"; // Default
                 }
 
-                try {
+                InputCoercion.Result<BigDecimal> parsed = InputCoercion.decimal(value);
+                if (parsed.isValid()) {
                         obs.setValue(
                                         new Quantity()
-                                                        .setValue(new BigDecimal(value))
+                                                        .setValue(parsed.get())
                                                         .setUnit(entry.getUnit() != null ? entry.getUnit() : "unit")
                                                         .setSystem(FhirConstants.SYSTEM_UCUM));
-                } catch (Exception e) {
+                } else {
                         // Fallback if parsing fails
                         obs.setValue(new Quantity().setValue(0).setSystem(FhirConstants.SYSTEM_UCUM));
                 }
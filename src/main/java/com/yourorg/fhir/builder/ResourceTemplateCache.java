@@ -0,0 +1,78 @@
+package com.yourorg.fhir.builder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourorg.fhir.util.FragmentKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Organization and Practitioner resources shared across requests. The same
+ * facility and doctor appear in most documents a clinic sends, so their
+ * resources are built once, kept as templates keyed by identifier and name,
+ * and every bundle gets its own deep copy with a fresh id. Templates are never
+ * handed out. The copies are marked with a {@link FragmentKey}, so they must
+ * not be modified either.
+ *
+ * <p>
+ * Copies take their id from the same {@link AbdmResourceBuilder#newId()} as a
+ * fresh build, in the same order, so content-derived ids do not depend on
+ * whether the template was cached.
+ *
+ * <p>
+ * The cache is bounded by {@code fhir.templates.cache.max-size} and
+ * {@code fhir.templates.cache.ttl} (since last use) and reports hits, misses
+ * and evictions as the {@code cache.*} metrics with
+ * {@code cache=fhirResourceTemplates}.
+ */
+@Component
+public class ResourceTemplateCache {
+
+    static final String CACHE_NAME = "fhirResourceTemplates";
+
+    private record Key(String type, String identifier, String name) {
+    }
+
+    private final AbdmResourceBuilder builder;
+    private final Cache<Key, Object> templates;
+
+    public ResourceTemplateCache(AbdmResourceBuilder builder, MeterRegistry meterRegistry,
+            @Value("${fhir.templates.cache.max-size:1000}") long maxSize,
+            @Value("${fhir.templates.cache.ttl:1h}") Duration ttl) {
+        this.builder = builder;
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, templates, CACHE_NAME);
+    }
+
+    /**
+     * Same as {@link AbdmResourceBuilder#buildPractitioner}.
+     */
+    public Practitioner practitioner(String name, String license) {
+        Key key = new Key("Practitioner", license, name);
+        Practitioner template = (Practitioner) templates.get(key, k -> builder.practitionerTemplate(name, license));
+        Practitioner practitioner = template.copy();
+        practitioner.setId(builder.newId());
+        return FragmentKey.tag(practitioner, CACHE_NAME, key);
+    }
+
+    /**
+     * Same as {@link AbdmResourceBuilder#buildOrganization}.
+     */
+    public Organization organization(String name) {
+        Key key = new Key("Organization", null, name);
+        Organization template = (Organization) templates.get(key, k -> builder.organizationTemplate(name));
+        Organization org = template.copy();
+        org.setId(builder.newId());
+        return FragmentKey.tag(org, CACHE_NAME, key);
+    }
+}
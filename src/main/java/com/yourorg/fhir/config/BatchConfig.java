@@ -0,0 +1,41 @@
+package com.yourorg.fhir.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class BatchConfig {
+
+    /**
+     * Bounded worker pool for batch conversions, shared by all batch requests.
+     * When the queue is full the submitting request thread converts the record
+     * itself, which throttles the reader instead of rejecting work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchExecutor(
+            @Value("${fhir.batch.workers:0}") int workers,
+            @Value("${fhir.batch.queue-capacity:1024}") int queueCapacity) {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("fhir-batch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs bulk jobs in the background. Each job feeds its records through the
+     * batch pool above, so a small number of concurrent jobs is enough.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkJobExecutor(@Value("${fhir.bulk.concurrent-jobs:1}") int concurrentJobs) {
+        return Executors.newFixedThreadPool(Math.max(1, concurrentJobs), new CustomizableThreadFactory("fhir-bulk-"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.yourorg.fhir.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class CompositeConfig {
+
+    /**
+     * Fork-join pool for building the sections of large composite OP consult
+     * bundles. Kept apart from the common pool so parallel streams elsewhere
+     * cannot starve request handling.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool compositeSectionPool(@Value("${fhir.composite.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("fhir-composite-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(threads, threadFactory, null, false);
+    }
+}
@@ -1,22 +1,207 @@
 package com.yourorg.fhir.config;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
+import ca.uhn.fhir.context.support.IValidationSupport;
 import ca.uhn.fhir.validation.FhirValidator;
 
+import com.yourorg.fhir.util.DocumentScope;
+import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.IdGenerator;
+import com.yourorg.fhir.validator.ProfileSnapshotCache;
+import org.hl7.fhir.common.hapi.validation.support.CachingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.CommonCodeSystemsTerminologyService;
+import org.hl7.fhir.common.hapi.validation.support.InMemoryTerminologyServerValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.NpmPackageValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.SnapshotGeneratingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.UnknownCodeSystemWarningValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
+import org.hl7.fhir.common.hapi.validation.validator.FhirInstanceValidator;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class FhirConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(FhirConfig.class);
+
+    /**
+     * Resource types emitted by the document services. Their definitions are
+     * scanned once at startup so the first request does not pay for model
+     * introspection.
+     */
+    private static final List<Class<? extends IBaseResource>> EMITTED_RESOURCE_TYPES = List.of(
+            Bundle.class, Composition.class, Patient.class, Practitioner.class, Organization.class,
+            Encounter.class, Condition.class, Observation.class, MedicationRequest.class,
+            DiagnosticReport.class, Specimen.class, Procedure.class, Immunization.class,
+            AllergyIntolerance.class, DocumentReference.class, CarePlan.class, Appointment.class,
+            Invoice.class, ChargeItem.class, OperationOutcome.class);
+
     @Bean
     public FhirContext fhirContext() {
-        return FhirContext.forR4();
+        FhirContext ctx = FhirContext.forR4();
+        for (Class<? extends IBaseResource> type : EMITTED_RESOURCE_TYPES) {
+            ctx.getResourceDefinition(type);
+        }
+        return ctx;
+    }
+
+    /**
+     * Validation support shared by every validation: the base FHIR definitions,
+     * the NRCES profiles from the package.tgz the build downloads, snapshot
+     * generation for profiles shipped as differentials, and in-memory
+     * terminology. Code systems we have no content for (SNOMED CT, LOINC) only
+     * produce warnings. The chain is built once and cached, so its loading cost
+     * is paid at startup rather than per call.
+     *
+     * <p>
+     * Generated profile snapshots are kept in {@code fhir.validation.snapshot-cache}
+     * (empty to disable) and reused by later starts with the same package.
+     */
+    @Bean
+    public IValidationSupport validationSupport(FhirContext ctx,
+            @Value("${fhir.validation.package:package.tgz}") String packagePath,
+            @Value("${fhir.validation.snapshot-cache:snapshot-cache}") String snapshotCacheDir) {
+        ValidationSupportChain chain = new ValidationSupportChain(new DefaultProfileValidationSupport(ctx));
+        ClassPathResource packageResource = new ClassPathResource(packagePath);
+        NpmPackageValidationSupport npmSupport = null;
+        String packageKey = null;
+        if (packageResource.exists()) {
+            npmSupport = new NpmPackageValidationSupport(ctx);
+            try {
+                npmSupport.loadPackageFromClasspath("classpath:" + packagePath);
+                packageKey = ProfileSnapshotCache.key(packageResource.getInputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load FHIR package " + packagePath, e);
+            }
+            chain.addValidationSupport(npmSupport);
+        } else {
+            log.warn("FHIR package {} not found on the classpath, validating against base FHIR R4 only",
+                    packagePath);
+        }
+        chain.addValidationSupport(new SnapshotGeneratingValidationSupport(ctx));
+        chain.addValidationSupport(new CommonCodeSystemsTerminologyService(ctx));
+        chain.addValidationSupport(new InMemoryTerminologyServerValidationSupport(ctx));
+        UnknownCodeSystemWarningValidationSupport unknownCodeSystems = new UnknownCodeSystemWarningValidationSupport(
+                ctx);
+        unknownCodeSystems.setNonExistentCodeSystemSeverity(IValidationSupport.IssueSeverity.WARNING);
+        chain.addValidationSupport(unknownCodeSystems);
+
+        if (npmSupport != null && !snapshotCacheDir.isEmpty()) {
+            ProfileSnapshotCache cache = new ProfileSnapshotCache(ctx, Path.of(snapshotCacheDir));
+            List<StructureDefinition> snapshots = cache.load(packageKey);
+            if (snapshots == null) {
+                snapshots = ProfileSnapshotCache.generate(npmSupport.fetchAllStructureDefinitions(), chain);
+                try {
+                    cache.store(packageKey, snapshots);
+                } catch (IOException e) {
+                    log.warn("Cannot write profile snapshot cache to {}", snapshotCacheDir, e);
+                }
+            }
+            // Same URLs, so these replace the differential-only definitions
+            for (StructureDefinition snapshot : snapshots) {
+                npmSupport.addStructureDefinition(snapshot);
+            }
+        }
+        return new CachingValidationSupport(chain);
+    }
+
+    /**
+     * The first validation against each profile loads its definitions and
+     * generates its snapshot, which takes seconds. A throwaway document with
+     * one entry per emitted type and per resource profile in the package does
+     * that during startup so requests only see the cached steady state.
+     */
+    @Bean
+    public FhirValidator fhirValidator(FhirContext ctx, IValidationSupport validationSupport) {
+        FhirValidator validator = ctx.newValidator();
+        validator.registerValidatorModule(new FhirInstanceValidator(validationSupport));
+
+        Bundle warmUp = new Bundle();
+        warmUp.setType(Bundle.BundleType.DOCUMENT);
+        warmUp.getMeta().addProfile(FhirConstants.PROFILE_DOC_BUNDLE);
+        for (Class<? extends IBaseResource> type : EMITTED_RESOURCE_TYPES) {
+            if (type != Bundle.class) {
+                warmUp.addEntry().setResource((Resource) ctx.getResourceDefinition(type).newInstance());
+            }
+        }
+        List<StructureDefinition> profiles = validationSupport.fetchAllNonBaseStructureDefinitions();
+        if (profiles != null) {
+            for (StructureDefinition profile : profiles) {
+                if (profile.getKind() == StructureDefinition.StructureDefinitionKind.RESOURCE
+                        && !"Bundle".equals(profile.getType())) {
+                    Resource resource = (Resource) ctx.getResourceDefinition(profile.getType()).newInstance();
+                    resource.getMeta().addProfile(profile.getUrl());
+                    warmUp.addEntry().setResource(resource);
+                }
+            }
+        }
+        validator.validateWithResult(warmUp);
+        return validator;
+    }
+
+    /**
+     * Background pool for sampled validation. When it falls behind, new
+     * samples are dropped rather than queued without bound.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService validationExecutor(
+            @Value("${fhir.validation.sampling.threads:1}") int threads,
+            @Value("${fhir.validation.sampling.queue-capacity:100}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("fhir-validate-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Pool validating the entries of large bundles concurrently in the
+     * {@code parallel} validation mode. Separate from the sampling executor,
+     * whose threads wait on it.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool entryValidationPool(@Value("${fhir.validation.parallel.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("fhir-validate-entry-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(threads, threadFactory, null, false);
     }
 
+    /**
+     * Resource id generator shared by all builders and fast-path writers.
+     * Inside a {@link DocumentScope} it hands out the scope's content-derived
+     * ids instead.
+     */
     @Bean
-    public FhirValidator fhirValidator(FhirContext ctx) {
-        // Base FHIR validation only (syntax + core rules)
-        return ctx.newValidator();
+    public IdGenerator idGenerator(@Value("${fhir.ids.generator:time-ordered}") String generator) {
+        switch (generator) {
+            case "time-ordered":
+                return DocumentScope.scoped(IdGenerator.timeOrdered());
+            case "random":
+                return DocumentScope.scoped(IdGenerator.random());
+            default:
+                throw new IllegalArgumentException("Unknown fhir.ids.generator: " + generator);
+        }
     }
 }
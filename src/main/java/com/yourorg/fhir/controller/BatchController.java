@@ -0,0 +1,56 @@
+package com.yourorg.fhir.controller;
+
+import com.yourorg.fhir.service.BatchConversionService;
+import com.yourorg.fhir.service.DocumentTypeRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Bulk document generation: POST newline-delimited DTO records, get back one
+ * compact Bundle (or OperationOutcome for a bad record) per line, in input
+ * order.
+ *
+ * <ul>
+ * <li>{@code POST /fhir/batch/{documentType}}: every record is of that type,
+ * e.g. /fhir/batch/prescription.</li>
+ * <li>{@code POST /fhir/batch}: each record names its type in a
+ * {@code documentType} field.</li>
+ * </ul>
+ *
+ * The response is written synchronously while the request is still being
+ * read, so it is not subject to the async request timeout.
+ */
+@RestController
+@RequestMapping("/fhir/batch")
+public class BatchController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final BatchConversionService batchService;
+    private final DocumentTypeRegistry registry;
+
+    public BatchController(BatchConversionService batchService, DocumentTypeRegistry registry) {
+        this.batchService = batchService;
+        this.registry = registry;
+    }
+
+    @PostMapping({ "", "/{documentType}" })
+    public void convert(@PathVariable(required = false) String documentType, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (documentType != null && registry.get(documentType) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Unknown document type '" + documentType + "', expected one of " + registry.names());
+        }
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        batchService.convert(request.getInputStream(), response.getOutputStream(), documentType);
+    }
+}
@@ -0,0 +1,165 @@
+package com.yourorg.fhir.controller;
+
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.service.BulkJob;
+import com.yourorg.fhir.service.BulkJobService;
+import com.yourorg.fhir.service.DocumentTypeRegistry;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asynchronous bulk conversion following the FHIR Bulk Data request flow:
+ * <ol>
+ * <li>{@code POST /fhir/bulk/{documentType}} (or {@code /fhir/bulk} for mixed
+ * records) with an NDJSON body: 202 Accepted, Content-Location points at the
+ * job status URL.</li>
+ * <li>{@code GET /fhir/bulk/jobs/{id}}: 202 with X-Progress and counters while
+ * running, 200 with the output manifest when done, 500 with an
+ * OperationOutcome if the job failed.</li>
+ * <li>{@code GET /fhir/bulk/jobs/{id}/files/{name}}: download one NDJSON
+ * file listed in the manifest.</li>
+ * <li>{@code DELETE /fhir/bulk/jobs/{id}}: cancel and remove the job.</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/fhir/bulk")
+public class BulkJobController {
+
+    private static final String RETRY_AFTER_SECONDS = "2";
+
+    private final BulkJobService bulkJobService;
+    private final DocumentTypeRegistry registry;
+    private final FhirSerializer serializer;
+
+    public BulkJobController(BulkJobService bulkJobService, DocumentTypeRegistry registry,
+            FhirSerializer serializer) {
+        this.bulkJobService = bulkJobService;
+        this.registry = registry;
+        this.serializer = serializer;
+    }
+
+    @PostMapping({ "", "/{documentType}" })
+    public ResponseEntity<Void> kickOff(@PathVariable(required = false) String documentType,
+            HttpServletRequest request) throws IOException {
+        if (documentType != null && registry.get(documentType) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Unknown document type '" + documentType + "', expected one of " + registry.names());
+        }
+        String requestUrl = ServletUriComponentsBuilder.fromCurrentRequest().toUriString();
+        BulkJob job = bulkJobService.submit(request.getInputStream(), documentType, requestUrl);
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.CONTENT_LOCATION, jobUrl(job.getId()))
+                .build();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        BulkJob job = requireJob(id);
+        switch (job.getStatus()) {
+            case COMPLETED:
+                return ResponseEntity.ok(manifest(job));
+            case FAILED:
+                OperationOutcome outcome = new OperationOutcome();
+                outcome.addIssue()
+                        .setSeverity(OperationOutcome.IssueSeverity.FATAL)
+                        .setCode(OperationOutcome.IssueType.EXCEPTION)
+                        .setDiagnostics(job.getError());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(serializer.encodeToString(outcome));
+            default:
+                // Read each counter once, the job thread keeps updating them
+                long converted = job.getConverted();
+                long failed = job.getFailed();
+                long processed = converted + failed;
+                int percent = job.getTotal() > 0 ? (int) (processed * 100 / job.getTotal()) : 0;
+                return ResponseEntity.accepted()
+                        .header("X-Progress", processed + "/" + job.getTotal() + " records (" + percent + "%)")
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .body(progress(job, converted, failed, percent));
+        }
+    }
+
+    @GetMapping("/jobs/{id}/files/{name}")
+    public ResponseEntity<Resource> download(@PathVariable String id, @PathVariable String name) {
+        BulkJob job = requireJob(id);
+        Path file = job.getStatus() == BulkJob.Status.COMPLETED ? bulkJobService.outputFile(job, name) : null;
+        if (file == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No output file '" + name + "'");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(BatchController.NDJSON))
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) throws IOException {
+        if (!bulkJobService.delete(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No bulk job '" + id + "'");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    private BulkJob requireJob(String id) {
+        BulkJob job = bulkJobService.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No bulk job '" + id + "'");
+        }
+        return job;
+    }
+
+    private Map<String, Object> progress(BulkJob job, long converted, long failed, int percent) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", job.getStatus());
+        body.put("total", job.getTotal());
+        body.put("processed", converted + failed);
+        body.put("converted", converted);
+        body.put("failed", failed);
+        body.put("percentComplete", percent);
+        body.put("recordsPerSecond", Math.round(bulkJobService.throughput(job) * 10) / 10.0);
+        body.put("startedAt", job.getStartedAt());
+        return body;
+    }
+
+    private Map<String, Object> manifest(BulkJob job) {
+        List<Map<String, Object>> output = new ArrayList<>();
+        List<Map<String, Object>> error = new ArrayList<>();
+        for (BulkJob.OutputFile file : job.getFiles()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", file.getType());
+            entry.put("url", jobUrl(job.getId()) + "/files/" + file.getName());
+            entry.put("count", file.getCount());
+            (BulkJobService.ERROR_TYPE.equals(file.getType()) ? error : output).add(entry);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transactionTime", job.getCreatedAt());
+        body.put("request", job.getRequest());
+        body.put("requiresAccessToken", false);
+        body.put("output", output);
+        body.put("error", error);
+        return body;
+    }
+
+    private static String jobUrl(String id) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/fhir/bulk/jobs/{id}")
+                .buildAndExpand(id)
+                .toUriString();
+    }
+}
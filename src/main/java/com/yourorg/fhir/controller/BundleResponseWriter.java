@@ -0,0 +1,291 @@
+package com.yourorg.fhir.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourorg.fhir.serializer.DirectBundle;
+import com.yourorg.fhir.serializer.DirectBundleWriter;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.serializer.WireFormat;
+import com.yourorg.fhir.util.DocumentScope;
+import com.yourorg.fhir.validator.ValidationSampler;
+import org.hl7.fhir.r4.model.Bundle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Turns a generated Bundle into an HTTP response whose body is encoded
+ * directly onto the servlet OutputStream, so peak heap per request is bounded
+ * by the write buffer rather than by the size of the bundle.
+ *
+ * <p>
+ * The JSON layout is negotiated per request, in this order:
+ * <ol>
+ * <li>the {@code _pretty=true|false} query parameter,</li>
+ * <li>a {@code pretty=true|false} parameter on an Accept media type, e.g.
+ * {@code Accept: application/fhir+json; pretty=true},</li>
+ * <li>the server default {@code fhir.output.pretty} (compact unless
+ * configured).</li>
+ * </ol>
+ *
+ * <p>
+ * Internal consumers that only re-parse the bundle can ask for a binary
+ * encoding of the same structure with {@code Accept: application/cbor} or
+ * {@code Accept: application/x-jackson-smile}. The first acceptable type in
+ * quality order wins; anything else gets JSON. Every response carries
+ * {@code Vary: Accept}.
+ *
+ * <p>
+ * Once the body is written, the bundle is offered to the
+ * {@link ValidationSampler} for background validation.
+ *
+ * <p>
+ * With {@code fhir.ids.content-derived}, bundles built from a payload are
+ * built inside a {@link DocumentScope}, so the same payload gives the same
+ * bytes. The body is then encoded up front and sent with a strong ETag (a hash
+ * of the wire format, the JSON layout and the bytes, so no two representations
+ * share one); a request whose If-None-Match names that ETag gets no body:
+ * 304 for GET/HEAD and, as RFC 9110 requires for other methods, 412 for POST.
+ */
+@Component
+public class BundleResponseWriter {
+
+    private static final String PRETTY_PARAM = "_pretty";
+    private static final String PRETTY_MEDIA_TYPE_PARAM = "pretty";
+
+    private static final MediaType CBOR = MediaType.parseMediaType(WireFormat.CBOR.getMediaType());
+    private static final MediaType SMILE = MediaType.parseMediaType(WireFormat.SMILE.getMediaType());
+
+    private final FhirSerializer serializer;
+    private final ValidationSampler validationSampler;
+    private final HttpServletRequest request;
+    private final ObjectWriter payloadWriter;
+    private final boolean contentDerivedIds;
+
+    public BundleResponseWriter(FhirSerializer serializer, ValidationSampler validationSampler,
+            HttpServletRequest request, ObjectMapper objectMapper,
+            @Value("${fhir.ids.content-derived:false}") boolean contentDerivedIds) {
+        this.serializer = serializer;
+        this.validationSampler = validationSampler;
+        this.request = request;
+        this.payloadWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.contentDerivedIds = contentDerivedIds;
+    }
+
+    /**
+     * Builds the bundle for a request payload and a 200 OK response that
+     * streams it.
+     *
+     * @param dto   Request payload
+     * @param build Service method building the bundle
+     * @return Streaming response entity
+     */
+    public <T> ResponseEntity<StreamingResponseBody> ok(T dto, Function<T, Bundle> build) {
+        return ok(inScope(dto, () -> build.apply(dto)));
+    }
+
+    /**
+     * Builds a 200 OK response that streams the bundle as JSON.
+     *
+     * @param bundle Fully built document bundle
+     * @return Streaming response entity
+     */
+    public ResponseEntity<StreamingResponseBody> ok(Bundle bundle) {
+        return ok((out, format, mode) -> {
+            if (format.isBinary()) {
+                serializer.encodeToStream(bundle, out, format);
+            } else {
+                serializer.encodeToStream(bundle, out, mode);
+            }
+            validationSampler.sample(bundle);
+        });
+    }
+
+    /**
+     * Builds a 200 OK response that streams a bundle generated by a fast-path
+     * writer. The bundle is prepared here, on the request thread, so bad input
+     * fails the request before the response is committed.
+     *
+     * @param writer Fast-path writer for the document type
+     * @param dto    Request payload
+     * @return Streaming response entity
+     */
+    public <T> ResponseEntity<StreamingResponseBody> ok(DirectBundleWriter<T> writer, T dto) {
+        DirectBundle bundle = inScope(dto, () -> writer.prepare(dto));
+        return ok((out, format, mode) -> {
+            writer.encodeToStream(bundle, out, format, mode);
+            validationSampler.sample(writer.getCompositionProfile(), () -> {
+                ByteArrayOutputStream json = new ByteArrayOutputStream(16 * 1024);
+                writer.encodeToStream(bundle, json, OutputMode.COMPACT);
+                return serializer.parseResource(Bundle.class, new ByteArrayInputStream(json.toByteArray()),
+                        WireFormat.JSON);
+            });
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> ok(BodyEncoder encoder) {
+        List<MediaType> accepted = acceptedMediaTypes();
+        WireFormat format = resolveWireFormat(accepted);
+        OutputMode mode = resolveOutputMode(accepted);
+        MediaType contentType = format.isBinary() ? MediaType.parseMediaType(format.getMediaType())
+                : MediaType.APPLICATION_JSON;
+        if (!contentDerivedIds) {
+            StreamingResponseBody body = out -> encoder.encode(out, format, mode);
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(body);
+        }
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(16 * 1024);
+        try {
+            encoder.encode(encoded, format, mode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String etag = etag(format, mode, encoded);
+        if (matchesIfNoneMatch(etag)) {
+            String method = request.getMethod();
+            HttpStatus status = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                    ? HttpStatus.NOT_MODIFIED
+                    : HttpStatus.PRECONDITION_FAILED;
+            return ResponseEntity.status(status).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        StreamingResponseBody body = encoded::writeTo;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Runs {@code build} in a {@link DocumentScope} over the payload when ids
+     * are content-derived, otherwise just runs it.
+     */
+    private <R> R inScope(Object dto, Supplier<R> build) {
+        if (!contentDerivedIds) {
+            return build.get();
+        }
+        byte[] payload;
+        try {
+            payload = payloadWriter.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize request payload", e);
+        }
+        try (DocumentScope scope = DocumentScope.open(request.getRequestURI(), payload)) {
+            return build.get();
+        }
+    }
+
+    private static String etag(WireFormat format, OutputMode mode, ByteArrayOutputStream encoded) {
+        // mode only changes JSON
+        String representation = format.isBinary() ? format.name() : format.name() + '/' + mode.name();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(representation.getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(encoded.toByteArray());
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * If-None-Match uses the weak comparison: W/ prefixes are ignored.
+     */
+    private boolean matchesIfNoneMatch(String etag) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String candidate : headers.nextElement().split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<MediaType> acceptedMediaTypes() {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return Collections.emptyList();
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+            return mediaTypes;
+        } catch (IllegalArgumentException e) {
+            // Unparseable Accept header: fall back to the server defaults
+            return Collections.emptyList();
+        }
+    }
+
+    private static WireFormat resolveWireFormat(List<MediaType> accepted) {
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (CBOR.equalsTypeAndSubtype(mediaType)) {
+                return WireFormat.CBOR;
+            }
+            if (SMILE.equalsTypeAndSubtype(mediaType)) {
+                return WireFormat.SMILE;
+            }
+            // JSON, fhir+json or a wildcard: keep the default encoding
+            return WireFormat.JSON;
+        }
+        return WireFormat.JSON;
+    }
+
+    private OutputMode resolveOutputMode(List<MediaType> accepted) {
+        String pretty = request.getParameter(PRETTY_PARAM);
+        if (pretty != null) {
+            return OutputMode.of(Boolean.parseBoolean(pretty));
+        }
+
+        for (MediaType mediaType : accepted) {
+            String value = mediaType.getParameter(PRETTY_MEDIA_TYPE_PARAM);
+            if (value != null) {
+                return OutputMode.of(Boolean.parseBoolean(value));
+            }
+        }
+
+        return serializer.getDefaultMode();
+    }
+
+    @FunctionalInterface
+    private interface BodyEncoder {
+        void encode(OutputStream out, WireFormat format, OutputMode mode) throws IOException;
+    }
+}
@@ -7,22 +7,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/composite")
 public class CompositeController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
 
-    public CompositeController(AbdmService abdmService) {
+    public CompositeController(AbdmService abdmService, BundleResponseWriter responseWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping("/op-consult")
-    public ResponseEntity<String> createCompositeOpConsult(@RequestBody CompositeRequestDTO requestDTO) {
-        String bundleJson = abdmService.createCompositeBundle(requestDTO);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/json")
-                .body(bundleJson);
+    public ResponseEntity<StreamingResponseBody> createCompositeOpConsult(@RequestBody CompositeRequestDTO requestDTO) {
+        return responseWriter.ok(requestDTO, abdmService::buildCompositeBundle);
     }
 }
@@ -1,23 +1,33 @@
 package com.yourorg.fhir.controller;
 
 import com.yourorg.fhir.dto.LabReportDTO;
+import com.yourorg.fhir.serializer.LabReportBundleWriter;
 import com.yourorg.fhir.service.LabReportService;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir")
 public class DiagnosticReportController {
 
     private final LabReportService labService;
+    private final BundleResponseWriter responseWriter;
+    private final LabReportBundleWriter fastPathWriter;
 
-    public DiagnosticReportController(LabReportService labService) {
+    public DiagnosticReportController(LabReportService labService, BundleResponseWriter responseWriter,
+            LabReportBundleWriter fastPathWriter) {
         this.labService = labService;
+        this.responseWriter = responseWriter;
+        this.fastPathWriter = fastPathWriter;
     }
 
     @PostMapping("/diagnostic-report/lab")
-    public ResponseEntity<String> createLabReport(@RequestBody LabReportDTO dto) {
-        return ResponseEntity.ok(labService.createLabReport(dto));
+    public ResponseEntity<StreamingResponseBody> createLabReport(@RequestBody LabReportDTO dto) {
+        if (fastPathWriter.isEnabled()) {
+            return responseWriter.ok(fastPathWriter, dto);
+        }
+        return responseWriter.ok(dto, labService::buildLabReportBundle);
     }
 }
@@ -4,20 +4,22 @@ import com.yourorg.fhir.dto.DischargeSummaryDTO;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/discharge-summary")
 public class DischargeSummaryController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
 
-    public DischargeSummaryController(AbdmService abdmService) {
+    public DischargeSummaryController(AbdmService abdmService, BundleResponseWriter responseWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createDischargeSummary(@RequestBody DischargeSummaryDTO dto) {
-        String json = abdmService.createDischargeSummary(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createDischargeSummary(@RequestBody DischargeSummaryDTO dto) {
+        return responseWriter.ok(dto, abdmService::buildDischargeSummaryBundle);
     }
 }
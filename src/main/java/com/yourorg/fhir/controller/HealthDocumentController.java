@@ -4,20 +4,22 @@ import com.yourorg.fhir.dto.HealthDocumentRecordDTO;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/health-document")
 public class HealthDocumentController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
 
-    public HealthDocumentController(AbdmService abdmService) {
+    public HealthDocumentController(AbdmService abdmService, BundleResponseWriter responseWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createHealthDocument(@RequestBody HealthDocumentRecordDTO dto) {
-        String json = abdmService.createHealthDocumentRecord(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createHealthDocument(@RequestBody HealthDocumentRecordDTO dto) {
+        return responseWriter.ok(dto, abdmService::buildHealthDocumentBundle);
     }
 }
@@ -7,22 +7,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/ip-discharge-summary")
 public class IPDischargeSummaryController {
 
     private final IPDischargeSummaryService service;
+    private final BundleResponseWriter responseWriter;
 
-    public IPDischargeSummaryController(IPDischargeSummaryService service) {
+    public IPDischargeSummaryController(IPDischargeSummaryService service, BundleResponseWriter responseWriter) {
         this.service = service;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createIPDischargeSummary(@RequestBody IPDischargeSummaryDTO dto) {
-        String json = service.generateIPDischargeSummary(dto);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/json")
-                .body(json);
+    public ResponseEntity<StreamingResponseBody> createIPDischargeSummary(@RequestBody IPDischargeSummaryDTO dto) {
+        return responseWriter.ok(dto, service::buildIPDischargeSummaryBundle);
     }
 }
@@ -4,20 +4,22 @@ import com.yourorg.fhir.dto.ImmunizationRecordDTO;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/immunization")
 public class ImmunizationController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
 
-    public ImmunizationController(AbdmService abdmService) {
+    public ImmunizationController(AbdmService abdmService, BundleResponseWriter responseWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createImmunization(@RequestBody ImmunizationRecordDTO dto) {
-        String json = abdmService.createImmunizationRecord(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createImmunization(@RequestBody ImmunizationRecordDTO dto) {
+        return responseWriter.ok(dto, abdmService::buildImmunizationBundle);
     }
 }
@@ -8,23 +8,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/invoice")
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final BundleResponseWriter responseWriter;
 
     @Autowired
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, BundleResponseWriter responseWriter) {
         this.invoiceService = invoiceService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createInvoice(@RequestBody InvoiceDTO invoiceDTO) {
-        String bundleJson = invoiceService.generateInvoiceBundle(invoiceDTO);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/json")
-                .body(bundleJson);
+    public ResponseEntity<StreamingResponseBody> createInvoice(@RequestBody InvoiceDTO invoiceDTO) {
+        return responseWriter.ok(invoiceDTO, invoiceService::buildInvoiceBundle);
     }
 }
@@ -4,20 +4,22 @@ import com.yourorg.fhir.dto.OpConsultDTO;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/op-consult")
 public class OpConsultController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
 
-    public OpConsultController(AbdmService abdmService) {
+    public OpConsultController(AbdmService abdmService, BundleResponseWriter responseWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createOpConsultNote(@RequestBody OpConsultDTO dto) {
-        String json = abdmService.createOpConsultNote(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createOpConsultNote(@RequestBody OpConsultDTO dto) {
+        return responseWriter.ok(dto, abdmService::buildOpConsultBundle);
     }
 }
@@ -1,23 +1,32 @@
 package com.yourorg.fhir.controller;
 
 import com.yourorg.fhir.dto.PrescriptionDTO;
+import com.yourorg.fhir.serializer.PrescriptionBundleWriter;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/prescription")
 public class PrescriptionController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
+    private final PrescriptionBundleWriter fastPathWriter;
 
-    public PrescriptionController(AbdmService abdmService) {
+    public PrescriptionController(AbdmService abdmService, BundleResponseWriter responseWriter,
+            PrescriptionBundleWriter fastPathWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
+        this.fastPathWriter = fastPathWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createPrescription(@RequestBody PrescriptionDTO dto) {
-        String json = abdmService.createPrescription(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createPrescription(@RequestBody PrescriptionDTO dto) {
+        if (fastPathWriter.isEnabled()) {
+            return responseWriter.ok(fastPathWriter, dto);
+        }
+        return responseWriter.ok(dto, abdmService::buildPrescriptionBundle);
     }
 }
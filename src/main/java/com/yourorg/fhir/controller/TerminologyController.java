@@ -0,0 +1,42 @@
+package com.yourorg.fhir.controller;
+
+import com.yourorg.fhir.terminology.TerminologyIndex;
+import com.yourorg.fhir.terminology.TerminologyService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * {@code GET /fhir/terminology/autocomplete?q=parac[&system=...][&count=10]}:
+ * type-ahead lookup of diagnosis and medication codes for the entry screens,
+ * answered from the in-memory {@link com.yourorg.fhir.terminology.AutocompleteIndex}
+ * (SNOMED CT unless {@code system} says otherwise). Returns a JSON array of
+ * {@code {system, code, display, active}}, best match first.
+ */
+@RestController
+@RequestMapping("/fhir/terminology")
+public class TerminologyController {
+
+    private static final String SNOMED = "http://snomed.info/sct";
+
+    private final TerminologyService terminologyService;
+
+    public TerminologyController(TerminologyService terminologyService) {
+        this.terminologyService = terminologyService;
+    }
+
+    @GetMapping("/autocomplete")
+    public List<TerminologyIndex.Concept> autocomplete(@RequestParam("q") String query,
+            @RequestParam(defaultValue = SNOMED) String system,
+            @RequestParam(defaultValue = "10") int count) {
+        if (count < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be at least 1");
+        }
+        return terminologyService.autocomplete(system, query, count);
+    }
+}
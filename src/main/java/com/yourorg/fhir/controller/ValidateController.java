@@ -0,0 +1,92 @@
+package com.yourorg.fhir.controller;
+
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.validation.ValidationResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OperationOutcomeWriter;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.serializer.WireFormat;
+import com.yourorg.fhir.validator.FhirValidatorService;
+import org.hl7.fhir.r4.model.Bundle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@code POST /fhir/$validate}: validates a Bundle produced elsewhere against
+ * the same rules as the generated documents ({@link FhirValidatorService},
+ * including its {@code fhir.validation.mode}) and returns the issues as an
+ * OperationOutcome.
+ *
+ * <p>
+ * The bundle is parsed straight from the request stream (JSON, or CBOR/Smile
+ * by Content-Type) and the outcome is written issue by issue onto the
+ * response stream. The response is 200 whatever the outcome; only a body that
+ * is not a parseable Bundle gets 400. {@code _pretty=true} pretty-prints the
+ * outcome.
+ */
+@RestController
+@RequestMapping("/fhir")
+public class ValidateController {
+
+    private static final String PRETTY_PARAM = "_pretty";
+
+    private final FhirValidatorService validatorService;
+    private final FhirSerializer serializer;
+
+    public ValidateController(FhirValidatorService validatorService, FhirSerializer serializer) {
+        this.validatorService = validatorService;
+        this.serializer = serializer;
+    }
+
+    @PostMapping("/$validate")
+    public ResponseEntity<StreamingResponseBody> validate(HttpServletRequest request) throws IOException {
+        Bundle bundle = parse(request.getInputStream(), wireFormat(request.getContentType()));
+        // Validated here, on the request thread, so the async timeout only covers writing.
+        // Not a bundle we generated, so never answered from the outcome cache
+        ValidationResult result = validatorService.validateWithResult(bundle, false);
+
+        String pretty = request.getParameter(PRETTY_PARAM);
+        OutputMode mode = pretty != null ? OutputMode.of(Boolean.parseBoolean(pretty)) : serializer.getDefaultMode();
+        StreamingResponseBody body = out -> OperationOutcomeWriter.write(result, out, mode);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private Bundle parse(InputStream in, WireFormat format) throws IOException {
+        try {
+            return serializer.parseResource(Bundle.class, in, format);
+        } catch (DataFormatException | JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not parse Bundle: " + e.getMessage());
+        }
+    }
+
+    private static WireFormat wireFormat(String contentType) {
+        if (contentType != null) {
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                for (WireFormat format : WireFormat.values()) {
+                    if (format.isBinary() && MediaType.parseMediaType(format.getMediaType())
+                            .equalsTypeAndSubtype(mediaType)) {
+                        return format;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Unparseable Content-Type: treat the body as JSON
+            }
+        }
+        return WireFormat.JSON;
+    }
+}
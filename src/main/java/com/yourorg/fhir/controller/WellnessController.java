@@ -1,23 +1,32 @@
 package com.yourorg.fhir.controller;
 
 import com.yourorg.fhir.dto.WellnessRecordDTO;
+import com.yourorg.fhir.serializer.WellnessBundleWriter;
 import com.yourorg.fhir.service.AbdmService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/fhir/wellness")
 public class WellnessController {
 
     private final AbdmService abdmService;
+    private final BundleResponseWriter responseWriter;
+    private final WellnessBundleWriter fastPathWriter;
 
-    public WellnessController(AbdmService abdmService) {
+    public WellnessController(AbdmService abdmService, BundleResponseWriter responseWriter,
+            WellnessBundleWriter fastPathWriter) {
         this.abdmService = abdmService;
+        this.responseWriter = responseWriter;
+        this.fastPathWriter = fastPathWriter;
     }
 
     @PostMapping
-    public ResponseEntity<String> createWellnessRecord(@RequestBody WellnessRecordDTO dto) {
-        String json = abdmService.createWellnessRecord(dto);
-        return ResponseEntity.ok(json);
+    public ResponseEntity<StreamingResponseBody> createWellnessRecord(@RequestBody WellnessRecordDTO dto) {
+        if (fastPathWriter.isEnabled()) {
+            return responseWriter.ok(fastPathWriter, dto);
+        }
+        return responseWriter.ok(dto, abdmService::buildWellnessBundle);
     }
 }
@@ -0,0 +1,19 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * A document bundle prepared by a {@link DirectBundleWriter}: ids are assigned
+ * and every input value is already parsed, so writing it cannot fail on bad
+ * input halfway through a response.
+ */
+@FunctionalInterface
+public interface DirectBundle {
+
+    /**
+     * Writes the complete Bundle JSON object.
+     */
+    void writeTo(JsonGenerator gen) throws IOException;
+}
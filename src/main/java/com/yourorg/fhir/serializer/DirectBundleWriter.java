@@ -0,0 +1,277 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.IdGenerator;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.InstantType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Base class for the fast-path generators that write an ABDM document bundle
+ * straight from its DTO with a streaming JSON generator, skipping the HAPI
+ * object graph and the reflection-driven encoder.
+ *
+ * <p>
+ * Each subclass mirrors exactly one service method (e.g.
+ * AbdmService.buildPrescriptionBundle) and must produce JSON that is
+ * semantically identical to encoding that method's Bundle with HAPI: same
+ * elements, same values, empty elements omitted. Only fixed-shape document
+ * types are worth a fast path; anything else goes through HAPI.
+ *
+ * <p>
+ * Disabled unless {@code fhir.output.fast-path} is true.
+ *
+ * @param <T> Input DTO type
+ */
+public abstract class DirectBundleWriter<T> {
+
+    private final boolean enabled;
+    private final IdGenerator ids;
+
+    protected DirectBundleWriter(boolean enabled, IdGenerator ids) {
+        this.enabled = enabled;
+        this.ids = ids;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns ids and parses every input value. Throws for the same malformed
+     * input the HAPI path rejects, before anything has been written.
+     *
+     * @param dto Request payload
+     * @return Bundle ready to be written
+     */
+    public abstract DirectBundle prepare(T dto);
+
+    /**
+     * Profile URL of the Composition this writer emits, which names the
+     * document type.
+     */
+    public abstract String getCompositionProfile();
+
+    /**
+     * Writes a prepared bundle as UTF-8 JSON into the given stream. The stream
+     * is flushed but not closed.
+     */
+    public void encodeToStream(DirectBundle bundle, OutputStream out, OutputMode mode) throws IOException {
+        encodeToStream(bundle, out, WireFormat.JSON, mode);
+    }
+
+    /**
+     * Writes a prepared bundle in the given wire format; {@code mode} only
+     * applies to JSON. The stream is flushed but not closed.
+     */
+    public void encodeToStream(DirectBundle bundle, OutputStream out, WireFormat format, OutputMode mode)
+            throws IOException {
+        JsonGenerator gen = format.createGenerator(out);
+        if (format == WireFormat.JSON && mode == OutputMode.PRETTY) {
+            gen.useDefaultPrettyPrinter();
+        }
+        bundle.writeTo(gen);
+        gen.close();
+    }
+
+    // --- Shared element writers (field order follows the FHIR R4 definitions) ---
+
+    protected String newId() {
+        return ids.newId();
+    }
+
+    protected static String dateTime(Date date) {
+        return new DateTimeType(date).getValueAsString();
+    }
+
+    protected static String instant(Date date) {
+        return new InstantType(date).getValueAsString();
+    }
+
+    /**
+     * HAPI omits blank primitives, so the fast path does too.
+     */
+    protected static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    protected static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+        if (!isBlank(value)) {
+            gen.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Writes Bundle.resourceType through Bundle.timestamp and opens the entry
+     * array. Close it with {@link #endBundle}.
+     */
+    protected static void startDocumentBundle(JsonGenerator gen, String bundleId, String identifierSystem,
+            String identifierValue, Date timestamp) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("resourceType", "Bundle");
+        gen.writeStringField("id", bundleId);
+        writeMeta(gen, "1", FhirConstants.PROFILE_DOC_BUNDLE);
+        gen.writeObjectFieldStart("identifier");
+        gen.writeStringField("system", identifierSystem);
+        gen.writeStringField("value", identifierValue);
+        gen.writeEndObject();
+        gen.writeStringField("type", "document");
+        gen.writeStringField("timestamp", instant(timestamp));
+        gen.writeArrayFieldStart("entry");
+    }
+
+    protected static void endBundle(JsonGenerator gen) throws IOException {
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Opens a Bundle.entry and its resource. Close both with {@link #endEntry}.
+     */
+    protected static void startEntry(JsonGenerator gen, String resourceType, String id) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("fullUrl", "urn:uuid:" + id);
+        gen.writeObjectFieldStart("resource");
+        gen.writeStringField("resourceType", resourceType);
+        gen.writeStringField("id", id);
+    }
+
+    protected static void endEntry(JsonGenerator gen) throws IOException {
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    protected static void writeMeta(JsonGenerator gen, String versionId, String... profiles) throws IOException {
+        gen.writeObjectFieldStart("meta");
+        writeString(gen, "versionId", versionId);
+        gen.writeArrayFieldStart("profile");
+        for (String profile : profiles) {
+            gen.writeString(profile);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    protected static void writeCoding(JsonGenerator gen, String system, String code, String display)
+            throws IOException {
+        gen.writeStartObject();
+        writeString(gen, "system", system);
+        writeString(gen, "code", code);
+        writeString(gen, "display", display);
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes a single-coding CodeableConcept; {@code text} may be null.
+     */
+    protected static void writeCodeableConcept(JsonGenerator gen, String name, String system, String code,
+            String display, String text) throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeArrayFieldStart("coding");
+        writeCoding(gen, system, code, display);
+        gen.writeEndArray();
+        writeString(gen, "text", text);
+        gen.writeEndObject();
+    }
+
+    protected static void writeReferenceValue(JsonGenerator gen, String id, String type, String display)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("reference", "urn:uuid:" + id);
+        writeString(gen, "type", type);
+        writeString(gen, "display", display);
+        gen.writeEndObject();
+    }
+
+    protected static void writeReference(JsonGenerator gen, String name, String id, String type) throws IOException {
+        gen.writeFieldName(name);
+        writeReferenceValue(gen, id, type, null);
+    }
+
+    protected static void writeReferenceList(JsonGenerator gen, String name, String id, String type)
+            throws IOException {
+        gen.writeArrayFieldStart(name);
+        writeReferenceValue(gen, id, type, null);
+        gen.writeEndArray();
+    }
+
+    /**
+     * Writes a one-element identifier array with a v2-0203 type coding.
+     */
+    protected static void writeTypedIdentifier(JsonGenerator gen, String typeCode, String typeDisplay, String system,
+            String value) throws IOException {
+        gen.writeArrayFieldStart("identifier");
+        gen.writeStartObject();
+        writeCodeableConcept(gen, "type", FhirConstants.SYSTEM_ID_TYPE, typeCode, typeDisplay, null);
+        gen.writeStringField("system", system);
+        writeString(gen, "value", value);
+        gen.writeEndObject();
+        gen.writeEndArray();
+    }
+
+    /**
+     * Writes {@code name: [{"text": ...}]}, omitted entirely when blank.
+     */
+    protected static void writeNameText(JsonGenerator gen, String text) throws IOException {
+        if (isBlank(text)) {
+            return;
+        }
+        gen.writeArrayFieldStart("name");
+        gen.writeStartObject();
+        gen.writeStringField("text", text);
+        gen.writeEndObject();
+        gen.writeEndArray();
+    }
+
+    /**
+     * Writes the Patient entry produced by
+     * AbdmResourceBuilder.buildPatient(name, id, null, null).
+     */
+    protected static void writeAbdmPatientEntry(JsonGenerator gen, String patientId, String name, String healthId)
+            throws IOException {
+        startEntry(gen, "Patient", patientId);
+        writeMeta(gen, "1", FhirConstants.PROFILE_PATIENT);
+        writeTypedIdentifier(gen, "MR", "Medical record number", FhirConstants.SYSTEM_PATIENT_ID,
+                healthId != null ? healthId : "22-7225-4829-5255");
+        writeNameText(gen, name != null ? name : "Anonymous Patient");
+        gen.writeStringField("gender", "unknown");
+        endEntry(gen);
+    }
+
+    /**
+     * Writes the Practitioner entry produced by
+     * AbdmResourceBuilder.buildPractitioner(name, null).
+     */
+    protected static void writeAbdmPractitionerEntry(JsonGenerator gen, String practitionerId, String name)
+            throws IOException {
+        startEntry(gen, "Practitioner", practitionerId);
+        writeMeta(gen, "1", FhirConstants.PROFILE_PRACTITIONER);
+        writeTypedIdentifier(gen, "MD", "Medical License number", FhirConstants.SYSTEM_DOCTOR_LICENSE, "LIC-99999");
+        writeNameText(gen, name != null ? name : "Doctor ABDM");
+        endEntry(gen);
+    }
+
+    /**
+     * Writes a valueQuantity; the value is a pre-formatted FHIR decimal. Binary
+     * formats get a real decimal number, as the HAPI encoder would write.
+     */
+    protected static void writeQuantity(JsonGenerator gen, String name, String decimal, String unit, String system,
+            String code) throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeFieldName("value");
+        if (gen.canWriteFormattedNumbers()) {
+            gen.writeNumber(decimal);
+        } else {
+            gen.writeNumber(new BigDecimal(decimal));
+        }
+        writeString(gen, "unit", unit);
+        writeString(gen, "system", system);
+        writeString(gen, "code", code);
+        gen.writeEndObject();
+    }
+}
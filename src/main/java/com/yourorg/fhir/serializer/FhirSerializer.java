@@ -0,0 +1,165 @@
+package com.yourorg.fhir.serializer;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IJsonLikeParser;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.parser.json.jackson.JacksonStructure;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared serialization component used by every bundle service.
+ * Wraps the application-wide FhirContext (see FhirConfig) and hands out
+ * configured JSON parsers that are reused across requests instead of being
+ * recreated per call. Compact JSON bundles take their Patient, Practitioner
+ * and Organization entries from the {@link JsonFragmentCache}.
+ */
+@Component
+public class FhirSerializer {
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private final FhirContext fhirContext;
+    private final JsonFragmentCache fragments;
+    private final OutputMode defaultMode;
+
+    // HAPI parsers hold mutable configuration, so each worker thread keeps its own
+    private final ThreadLocal<IParser> compactJsonParser;
+    private final ThreadLocal<IParser> prettyJsonParser;
+
+    public FhirSerializer(FhirContext fhirContext, JsonFragmentCache fragments,
+            @Value("${fhir.output.pretty:false}") boolean prettyByDefault) {
+        this.fhirContext = fhirContext;
+        this.fragments = fragments;
+        this.defaultMode = OutputMode.of(prettyByDefault);
+        this.compactJsonParser = ThreadLocal.withInitial(() -> fhirContext.newJsonParser().setPrettyPrint(false));
+        this.prettyJsonParser = ThreadLocal.withInitial(() -> fhirContext.newJsonParser().setPrettyPrint(true));
+    }
+
+    public FhirContext getFhirContext() {
+        return fhirContext;
+    }
+
+    /**
+     * Output mode used when the caller does not ask for one
+     * ({@code fhir.output.pretty} in application.yml).
+     */
+    public OutputMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    /**
+     * Encodes a resource (usually a document Bundle) to JSON in the server
+     * default output mode.
+     *
+     * @param resource Resource to encode
+     * @return Serialized JSON String
+     */
+    public String encodeToString(IBaseResource resource) {
+        return encodeToString(resource, defaultMode);
+    }
+
+    /**
+     * Encodes a resource to JSON in the given output mode.
+     */
+    public String encodeToString(IBaseResource resource, OutputMode mode) {
+        if (mode == OutputMode.PRETTY || !spliced(resource)) {
+            return jsonParser(mode).encodeResourceToString(resource);
+        }
+        StringWriter writer = new StringWriter(WRITE_BUFFER_SIZE);
+        try {
+            fragments.writeBundle((Bundle) resource, compactJsonParser.get(), writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Encodes a resource as UTF-8 JSON straight into the given stream. Only the
+     * write buffer is held in memory, so large bundles (e.g. with PDF
+     * attachments) are never materialized as a String. The stream is flushed but
+     * not closed.
+     *
+     * @param resource Resource to encode
+     * @param out      Destination stream (typically the servlet response)
+     * @param mode     Compact or pretty JSON
+     */
+    public void encodeToStream(IBaseResource resource, OutputStream out, OutputMode mode) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        if (mode == OutputMode.PRETTY || !spliced(resource)) {
+            jsonParser(mode).encodeResourceToWriter(resource, writer);
+        } else {
+            fragments.writeBundle((Bundle) resource, compactJsonParser.get(), writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Encodes a resource straight into the given stream in a binary format
+     * (CBOR or Smile). HAPI's JSON encoder drives the binary generator directly,
+     * so the output carries exactly the FHIR JSON structure without ever being
+     * rendered as text. The stream is flushed but not closed.
+     *
+     * @param resource Resource to encode
+     * @param out      Destination stream
+     * @param format   Binary wire format
+     */
+    public void encodeToStream(IBaseResource resource, OutputStream out, WireFormat format) throws IOException {
+        if (!format.isBinary()) {
+            encodeToStream(resource, out, defaultMode);
+            return;
+        }
+        JsonGenerator gen = format.createGenerator(out);
+        ((IJsonLikeParser) compactJsonParser.get()).encodeResourceToJsonLikeWriter(resource,
+                new JacksonGeneratorWriter(gen));
+        gen.close();
+    }
+
+    /**
+     * Parses a resource encoded as JSON, CBOR or Smile, e.g. to read back a
+     * bundle produced by {@link #encodeToStream(IBaseResource, OutputStream, WireFormat)}.
+     *
+     * @param type   Expected resource type
+     * @param in     Encoded resource
+     * @param format Encoding of {@code in}
+     * @return Parsed resource
+     */
+    public <T extends IBaseResource> T parseResource(Class<T> type, InputStream in, WireFormat format)
+            throws IOException {
+        if (!format.isBinary()) {
+            return compactJsonParser.get().parseResource(type, in);
+        }
+        JsonNode root = format.mapper().readTree(in);
+        if (!(root instanceof ObjectNode)) {
+            throw new IOException("Expected a " + format + " encoded object");
+        }
+        JacksonStructure structure = new JacksonStructure();
+        structure.setNativeObject((ObjectNode) root);
+        return ((IJsonLikeParser) compactJsonParser.get()).parseResource(type, structure);
+    }
+
+    private boolean spliced(IBaseResource resource) {
+        return resource instanceof Bundle && fragments.canSplice((Bundle) resource);
+    }
+
+    private IParser jsonParser(OutputMode mode) {
+        return mode == OutputMode.PRETTY ? prettyJsonParser.get() : compactJsonParser.get();
+    }
+}
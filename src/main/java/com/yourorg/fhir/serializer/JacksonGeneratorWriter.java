@@ -0,0 +1,164 @@
+package com.yourorg.fhir.serializer;
+
+import ca.uhn.fhir.parser.json.BaseJsonLikeWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Lets the HAPI JSON encoder write into any Jackson generator. HAPI's own
+ * JacksonWriter only accepts a character Writer, which rules out binary
+ * formats such as CBOR and Smile.
+ */
+final class JacksonGeneratorWriter extends BaseJsonLikeWriter {
+
+    private final JsonGenerator gen;
+
+    JacksonGeneratorWriter(JsonGenerator gen) {
+        this.gen = gen;
+    }
+
+    @Override
+    public BaseJsonLikeWriter init() {
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter flush() {
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        gen.close();
+    }
+
+    @Override
+    public BaseJsonLikeWriter beginObject() throws IOException {
+        gen.writeStartObject();
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter beginObject(String name) throws IOException {
+        gen.writeObjectFieldStart(name);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter beginArray(String name) throws IOException {
+        gen.writeArrayFieldStart(name);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String value) throws IOException {
+        gen.writeString(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(BigInteger value) throws IOException {
+        gen.writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(BigDecimal value) throws IOException {
+        gen.writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(long value) throws IOException {
+        gen.writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(double value) throws IOException {
+        gen.writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(Boolean value) throws IOException {
+        gen.writeBoolean(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(boolean value) throws IOException {
+        gen.writeBoolean(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter writeNull() throws IOException {
+        gen.writeNull();
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, String value) throws IOException {
+        gen.writeStringField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, BigInteger value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, BigDecimal value) throws IOException {
+        gen.writeNumberField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, long value) throws IOException {
+        gen.writeNumberField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, double value) throws IOException {
+        gen.writeNumberField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, Boolean value) throws IOException {
+        gen.writeBooleanField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter write(String name, boolean value) throws IOException {
+        gen.writeBooleanField(name, value);
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter endObject() throws IOException {
+        gen.writeEndObject();
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter endArray() throws IOException {
+        gen.writeEndArray();
+        return this;
+    }
+
+    @Override
+    public BaseJsonLikeWriter endBlock() throws IOException {
+        gen.writeEndObject();
+        return this;
+    }
+}
@@ -0,0 +1,238 @@
+package com.yourorg.fhir.serializer;
+
+import ca.uhn.fhir.parser.IParser;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourorg.fhir.util.FragmentKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hl7.fhir.r4.model.Base;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Narrative;
+import org.hl7.fhir.r4.model.Property;
+import org.hl7.fhir.r4.model.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact JSON of the resources marked with a {@link FragmentKey} (Patient,
+ * Practitioner and Organization), kept without their id. The same doctor,
+ * facility and patient appear in many bundles and encode to the same bytes
+ * apart from the id, so after the first encoding of a key its JSON is copied
+ * into the output with the new id spliced in, and HAPI only encodes the rest
+ * of the bundle.
+ *
+ * <p>
+ * A hit is only used if the resource still equals, apart from its id, the one
+ * the fragment was encoded from; a marked resource that was changed after it
+ * was built is encoded by HAPI and replaces the fragment. Comparing the
+ * elements is much cheaper than encoding them.
+ *
+ * <p>
+ * The spliced output is byte-for-byte the HAPI encoding. Only compact JSON is
+ * spliced: pretty output indents a resource by its depth, and the binary
+ * formats are written by the generator directly. Bundles whose entries carry
+ * anything besides fullUrl and resource, or that are signed, are left to HAPI.
+ *
+ * <p>
+ * Enabled by {@code fhir.output.fragment-cache.enabled}; bounded by
+ * {@code fhir.output.fragment-cache.max-size} and
+ * {@code fhir.output.fragment-cache.ttl} (since last use). Hits, misses and
+ * evictions are reported as the {@code cache.*} metrics with
+ * {@code cache=fhirJsonFragments}.
+ */
+@Component
+public class JsonFragmentCache {
+
+    static final String CACHE_NAME = "fhirJsonFragments";
+
+    private static final JsonStringEncoder STRINGS = JsonStringEncoder.getInstance();
+
+    /**
+     * The JSON of {@code source} split around its id: {@code head} ends with
+     * the opening quote of the id value, {@code tail} starts with its closing
+     * quote. {@code source} is a private copy and never modified.
+     */
+    private record Fragment(Resource source, String head, String tail) {
+    }
+
+    private final boolean enabled;
+    private final Cache<Object, Fragment> fragments;
+
+    public JsonFragmentCache(MeterRegistry meterRegistry,
+            @Value("${fhir.output.fragment-cache.enabled:true}") boolean enabled,
+            @Value("${fhir.output.fragment-cache.max-size:1000}") long maxSize,
+            @Value("${fhir.output.fragment-cache.ttl:1h}") Duration ttl) {
+        this.enabled = enabled;
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, fragments, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Whether {@link #writeBundle} can write this bundle, i.e. it has
+     *         a marked entry and nothing HAPI would encode differently
+     */
+    boolean canSplice(Bundle bundle) {
+        if (!enabled || !bundle.hasEntry() || bundle.hasSignature()) {
+            return false;
+        }
+        boolean marked = false;
+        for (Bundle.BundleEntryComponent entry : bundle.getEntry()) {
+            if (!entry.hasFullUrl() || !entry.hasResource() || entry.hasLink() || entry.hasSearch()
+                    || entry.hasRequest() || entry.hasResponse() || entry.hasId() || entry.hasExtension()
+                    || entry.hasModifierExtension()) {
+                return false;
+            }
+            marked |= FragmentKey.of(entry.getResource()) != null;
+        }
+        return marked;
+    }
+
+    /**
+     * Writes a bundle accepted by {@link #canSplice} as compact JSON: HAPI
+     * encodes the bundle's own elements and each unmarked resource, marked
+     * resources come from the cache.
+     */
+    void writeBundle(Bundle bundle, IParser parser, Writer writer) throws IOException {
+        String envelope = parser.encodeResourceToString(envelope(bundle));
+        // Entry is the last element of an unsigned Bundle
+        writer.write(envelope, 0, envelope.length() - 1);
+        writer.write(",\"entry\":[");
+        List<Bundle.BundleEntryComponent> entries = bundle.getEntry();
+        for (int i = 0; i < entries.size(); i++) {
+            Bundle.BundleEntryComponent entry = entries.get(i);
+            writer.write(i == 0 ? "{\"fullUrl\":\"" : ",{\"fullUrl\":\"");
+            writer.write(STRINGS.quoteAsString(entry.getFullUrl()));
+            writer.write("\",\"resource\":");
+            writeResource(entry.getResource(), parser, writer);
+            writer.write('}');
+        }
+        writer.write("]}");
+    }
+
+    private void writeResource(Resource resource, IParser parser, Writer writer) throws IOException {
+        Object key = FragmentKey.of(resource);
+        String id = resource.getIdElement().getIdPart();
+        if (key == null || id == null || id.isEmpty()) {
+            parser.encodeResourceToWriter(resource, writer);
+            return;
+        }
+        char[] quotedId = STRINGS.quoteAsString(id);
+        Fragment fragment = fragments.getIfPresent(key);
+        if (fragment != null && sameContent(resource, fragment.source())) {
+            writer.write(fragment.head());
+            writer.write(quotedId);
+            writer.write(fragment.tail());
+            return;
+        }
+
+        String json = parser.encodeResourceToString(resource);
+        String head = "{\"resourceType\":\"" + resource.fhirType() + "\",\"id\":\"";
+        String start = head + new String(quotedId) + '"';
+        if (json.startsWith(start)) {
+            fragments.put(key, new Fragment(resource.copy(), head, json.substring(start.length() - 1)));
+        }
+        writer.write(json);
+    }
+
+    /**
+     * @return Whether both resources have the same elements apart from their id
+     */
+    private static boolean sameContent(Resource resource, Resource source) {
+        return resource.getClass() == source.getClass() && sameChildren(resource, source, true);
+    }
+
+    /**
+     * Compares primitives by their JSON form, unlike {@link Base#equalsDeep},
+     * which takes "1990" and "1990-01-01" for the same date.
+     */
+    private static boolean sameElement(Base element, Base other) {
+        if (element.getClass() != other.getClass()) {
+            return false;
+        }
+        if (element.isPrimitive() && !Objects.equals(element.primitiveValue(), other.primitiveValue())) {
+            return false;
+        }
+        if (element instanceof Narrative) {
+            // The div is not one of the Narrative's children
+            Narrative narrative = (Narrative) element;
+            Narrative otherNarrative = (Narrative) other;
+            if (narrative.hasDiv() != otherNarrative.hasDiv()
+                    || narrative.hasDiv() && !narrative.getDiv().equalsDeep(otherNarrative.getDiv())) {
+                return false;
+            }
+        }
+        return sameChildren(element, other, false);
+    }
+
+    private static boolean sameChildren(Base element, Base other, boolean skipId) {
+        List<Property> children = element.children();
+        List<Property> otherChildren = other.children();
+        for (int i = 0; i < children.size(); i++) {
+            if (skipId && "id".equals(children.get(i).getName())) {
+                continue;
+            }
+            List<Base> values = children.get(i).getValues();
+            List<Base> otherValues = otherChildren.get(i).getValues();
+            if (values.size() != otherValues.size()) {
+                return false;
+            }
+            for (int v = 0; v < values.size(); v++) {
+                if (!sameElement(values.get(v), otherValues.get(v))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The bundle without its entries; element objects are shared, not copied.
+     */
+    private static Bundle envelope(Bundle bundle) {
+        Bundle envelope = new Bundle();
+        if (bundle.hasIdElement()) {
+            envelope.setIdElement(bundle.getIdElement());
+        }
+        if (bundle.hasMeta()) {
+            envelope.setMeta(bundle.getMeta());
+        }
+        if (bundle.hasImplicitRulesElement()) {
+            envelope.setImplicitRulesElement(bundle.getImplicitRulesElement());
+        }
+        if (bundle.hasLanguageElement()) {
+            envelope.setLanguageElement(bundle.getLanguageElement());
+        }
+        if (bundle.hasIdentifier()) {
+            envelope.setIdentifier(bundle.getIdentifier());
+        }
+        if (bundle.hasTypeElement()) {
+            envelope.setTypeElement(bundle.getTypeElement());
+        }
+        if (bundle.hasTimestampElement()) {
+            envelope.setTimestampElement(bundle.getTimestampElement());
+        }
+        if (bundle.hasTotalElement()) {
+            envelope.setTotalElement(bundle.getTotalElement());
+        }
+        if (bundle.hasLink()) {
+            envelope.setLink(bundle.getLink());
+        }
+        return envelope;
+    }
+}
@@ -0,0 +1,212 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yourorg.fhir.dto.LabReportDTO;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.FhirUtil;
+import com.yourorg.fhir.util.IdGenerator;
+import com.yourorg.fhir.util.InputCoercion;
+import org.hl7.fhir.r4.model.DecimalType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fast-path writer for the Lab Report bundle. Mirrors
+ * LabReportService.buildLabReportBundle (FhirUtil patient/practitioner,
+ * ObservationBuilder, DiagnosticReportBuilder and
+ * DiagnosticReportBundleBuilder).
+ */
+@Component
+public class LabReportBundleWriter extends DirectBundleWriter<LabReportDTO> {
+
+    // Fixed values of FhirUtil.buildPractitioner()
+    private static final String MOCK_PRACTITIONER_ID = "1f332c6b-568b-45e9-bf9e-70bf32302cb6";
+
+    private static final String COMPOSITION_PROFILE = "https://nrces.in/ndhm/fhir/r4/StructureDefinition/DiagnosticReportRecord";
+
+    private static final String NARRATIVE_DIV = "<div xmlns=\"http://www.w3.org/1999/xhtml\">Diagnostic Report</div>";
+
+    private final TerminologyService terminology;
+
+    public LabReportBundleWriter(TerminologyService terminology, IdGenerator ids,
+            @Value("${fhir.output.fast-path:false}") boolean enabled) {
+        super(enabled, ids);
+        this.terminology = terminology;
+    }
+
+    private static final class Result {
+        final String id;
+        String code;
+        String display;
+        String value;
+        String unit;
+
+        Result(String id) {
+            this.id = id;
+        }
+    }
+
+    @Override
+    public String getCompositionProfile() {
+        return COMPOSITION_PROFILE;
+    }
+
+    @Override
+    public DirectBundle prepare(LabReportDTO dto) {
+        Date visitDate = FhirUtil.parseDate(dto.getVisitDate());
+        String date = dateTime(visitDate);
+        String issued = instant(visitDate);
+
+        String bundleId = newId();
+        String bundleIdentifier = newId();
+        String compositionId = newId();
+        String patientId = newId();
+        String reportId = newId();
+
+        // Use first test details for the main DiagnosticReport code if entries exist
+        String mainCode = "11502-2";
+        String mainDisplay = "Laboratory report";
+        if (dto.getTest_list() != null && !dto.getTest_list().isEmpty()) {
+            mainCode = dto.getTest_list().get(0).getLoincCode();
+            mainDisplay = dto.getTest_list().get(0).getTestName();
+        }
+        String reportCode = mainCode != null ? mainCode : "11502-2";
+        String reportDisplay = mainDisplay != null ? mainDisplay : "Laboratory report";
+
+        List<Result> results = new ArrayList<>();
+        if (dto.getTest_list() != null) {
+            for (LabReportDTO.TestEntry entry : dto.getTest_list()) {
+                results.add(result(entry));
+            }
+        }
+
+        return gen -> {
+            startDocumentBundle(gen, bundleId, FhirConstants.SYSTEM_BUNDLE_ID, bundleIdentifier, visitDate);
+
+            // Composition
+            startEntry(gen, "Composition", compositionId);
+            writeMeta(gen, null, COMPOSITION_PROFILE);
+            gen.writeStringField("status", "final");
+            writeCodeableConcept(gen, "type", FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_DIAGNOSTIC_REPORT,
+                    "Diagnostic studies report", null);
+            writeReference(gen, "subject", patientId, "Patient");
+            gen.writeStringField("date", date);
+            writeReferenceList(gen, "author", MOCK_PRACTITIONER_ID, "Practitioner");
+            gen.writeStringField("title", "Diagnostic studies report");
+            gen.writeArrayFieldStart("section");
+            gen.writeStartObject();
+            gen.writeStringField("title", "Diagnostic studies report");
+            writeReferenceList(gen, "entry", reportId, "DiagnosticReport");
+            gen.writeEndObject();
+            gen.writeEndArray();
+            endEntry(gen);
+
+            // Patient (FhirUtil.buildPatient)
+            startEntry(gen, "Patient", patientId);
+            writeMeta(gen, null, FhirConstants.PROFILE_PATIENT);
+            writeTypedIdentifier(gen, "MR", "Medical record number", "https://www.xyz-hospital.com/patient-id",
+                    dto.getPatientId() != null ? dto.getPatientId() : "12345");
+            writeNameText(gen, dto.getPatientName());
+            endEntry(gen);
+
+            for (Result result : results) {
+                writeObservation(gen, result, patientId, date, issued);
+            }
+
+            writeMockPractitioner(gen);
+
+            // DiagnosticReport
+            startEntry(gen, "DiagnosticReport", reportId);
+            writeMeta(gen, null, FhirConstants.PROFILE_DIAGNOSTIC_REPORT_LAB);
+            gen.writeObjectFieldStart("text");
+            gen.writeStringField("status", "generated");
+            gen.writeStringField("div", NARRATIVE_DIV);
+            gen.writeEndObject();
+            gen.writeStringField("status", "final");
+            writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_LOINC, reportCode, reportDisplay, null);
+            gen.writeFieldName("subject");
+            writeReferenceValue(gen, patientId, "Patient", dto.getPatientName());
+            gen.writeStringField("effectiveDateTime", date);
+            gen.writeStringField("issued", issued);
+            writeReferenceList(gen, "resultsInterpreter", MOCK_PRACTITIONER_ID, "Practitioner");
+            if (!results.isEmpty()) {
+                gen.writeArrayFieldStart("result");
+                for (Result result : results) {
+                    writeReferenceValue(gen, result.id, null, null);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeStringField("conclusion", "Laboratory Results");
+            endEntry(gen);
+
+            endBundle(gen);
+        };
+    }
+
+    /**
+     * Mirrors ObservationBuilder.buildLabObservation value handling.
+     */
+    private Result result(LabReportDTO.TestEntry entry) {
+        Result result = new Result(newId());
+        result.code = entry.getLoincCode();
+        result.display = terminology.display(FhirConstants.SYSTEM_LOINC, entry.getLoincCode(), entry.getTestName());
+
+        String value = entry.getResultValue();
+        if (value == null || value.isEmpty()) {
+            value = "0"; // Default
+        }
+        InputCoercion.Result<BigDecimal> parsed = InputCoercion.decimal(value);
+        if (parsed.isValid()) {
+            result.value = new DecimalType(parsed.get()).getValueAsString();
+            result.unit = entry.getUnit() != null ? entry.getUnit() : "unit";
+        } else {
+            // Fallback if parsing fails
+            result.value = new DecimalType(0).getValueAsString();
+            result.unit = null;
+        }
+        return result;
+    }
+
+    private static void writeObservation(JsonGenerator gen, Result result, String patientId, String date,
+            String issued) throws IOException {
+        startEntry(gen, "Observation", result.id);
+        gen.writeStringField("status", "final");
+        gen.writeArrayFieldStart("category");
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("coding");
+        writeCoding(gen, FhirConstants.SYSTEM_OBS_CATEGORY, "laboratory", "Laboratory");
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_LOINC, result.code, result.display, null);
+        writeReference(gen, "subject", patientId, null);
+        gen.writeStringField("effectiveDateTime", date);
+        gen.writeStringField("issued", issued);
+        writeReferenceList(gen, "performer", MOCK_PRACTITIONER_ID, null);
+        writeQuantity(gen, "valueQuantity", result.value, result.unit, FhirConstants.SYSTEM_UCUM, null);
+        endEntry(gen);
+    }
+
+    private static void writeMockPractitioner(JsonGenerator gen) throws IOException {
+        startEntry(gen, "Practitioner", MOCK_PRACTITIONER_ID);
+        writeMeta(gen, null, FhirConstants.PROFILE_PRACTITIONER);
+        writeTypedIdentifier(gen, "MD", "Medical License number", "https://doctor-license.com", "1231231");
+        gen.writeArrayFieldStart("name");
+        gen.writeStartObject();
+        gen.writeStringField("text", "Doctor ABDM");
+        gen.writeStringField("family", "Doctor");
+        gen.writeArrayFieldStart("given");
+        gen.writeString("ABDM");
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        endEntry(gen);
+    }
+}
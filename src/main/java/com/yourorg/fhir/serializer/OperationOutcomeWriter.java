@@ -0,0 +1,84 @@
+package com.yourorg.fhir.serializer;
+
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes a validation result as an OperationOutcome, one issue at a time,
+ * straight into a stream. The JSON is the same as HAPI's
+ * {@link ValidationResult#toOperationOutcome()} encoded by its parser, but no
+ * OperationOutcome model or String of the whole outcome is built, which
+ * matters for results with thousands of issues.
+ */
+public final class OperationOutcomeWriter {
+
+    private static final String MESSAGE_ID_SYSTEM = "http://hl7.org/fhir/java-core-messageId";
+
+    private OperationOutcomeWriter() {
+    }
+
+    /**
+     * The stream is flushed but not closed.
+     */
+    public static void write(ValidationResult result, OutputStream out, OutputMode mode) throws IOException {
+        JsonGenerator gen = WireFormat.JSON.createGenerator(out);
+        if (mode == OutputMode.PRETTY) {
+            gen.useDefaultPrettyPrinter();
+        }
+        gen.writeStartObject();
+        gen.writeStringField("resourceType", "OperationOutcome");
+        gen.writeArrayFieldStart("issue");
+        List<SingleValidationMessage> messages = result.getMessages();
+        if (messages.isEmpty()) {
+            gen.writeStartObject();
+            gen.writeStringField("severity", "information");
+            gen.writeStringField("code", "informational");
+            gen.writeStringField("diagnostics", "No issues detected during validation");
+            gen.writeEndObject();
+        }
+        for (SingleValidationMessage message : messages) {
+            writeIssue(gen, message);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.close();
+    }
+
+    private static void writeIssue(JsonGenerator gen, SingleValidationMessage message) throws IOException {
+        gen.writeStartObject();
+        if (message.getSeverity() != null) {
+            gen.writeStringField("severity", message.getSeverity().getCode());
+        }
+        gen.writeStringField("code", "processing");
+        if (message.getMessageId() != null) {
+            gen.writeObjectFieldStart("details");
+            gen.writeArrayFieldStart("coding");
+            gen.writeStartObject();
+            gen.writeStringField("system", MESSAGE_ID_SYSTEM);
+            gen.writeStringField("code", message.getMessageId());
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        if (message.getMessage() != null) {
+            gen.writeStringField("diagnostics", message.getMessage());
+        }
+        boolean hasLine = message.getLocationLine() != null || message.getLocationCol() != null;
+        if (message.getLocationString() != null || hasLine) {
+            gen.writeArrayFieldStart("location");
+            if (message.getLocationString() != null) {
+                gen.writeString(message.getLocationString());
+            }
+            if (hasLine) {
+                gen.writeString("Line " + message.getLocationLine() + ", Col " + message.getLocationCol());
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,14 @@
+package com.yourorg.fhir.serializer;
+
+/**
+ * JSON layout of an encoded resource. Compact output is what downstream
+ * gateways consume; pretty output is meant for humans reading the response.
+ */
+public enum OutputMode {
+    COMPACT,
+    PRETTY;
+
+    public static OutputMode of(boolean pretty) {
+        return pretty ? PRETTY : COMPACT;
+    }
+}
@@ -0,0 +1,143 @@
+package com.yourorg.fhir.serializer;
+
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.dto.PrescriptionDTO;
+import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.FhirUtil;
+import com.yourorg.fhir.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fast-path writer for the Prescription Record bundle. Mirrors
+ * AbdmService.buildPrescriptionBundle.
+ */
+@Component
+public class PrescriptionBundleWriter extends DirectBundleWriter<PrescriptionDTO> {
+
+    private final AbdmResourceBuilder builder;
+
+    public PrescriptionBundleWriter(AbdmResourceBuilder builder, IdGenerator ids,
+            @Value("${fhir.output.fast-path:false}") boolean enabled) {
+        super(enabled, ids);
+        this.builder = builder;
+    }
+
+    private static final class Medication {
+        final String id;
+        String code;
+        String display;
+        String text;
+        String dosage;
+
+        Medication(String id) {
+            this.id = id;
+        }
+    }
+
+    @Override
+    public String getCompositionProfile() {
+        return FhirConstants.PROFILE_PRESCRIPTION_RECORD;
+    }
+
+    @Override
+    public DirectBundle prepare(PrescriptionDTO dto) {
+        Date visitDate = FhirUtil.parseDate(dto.getVisitDate());
+        String date = dateTime(visitDate);
+
+        String bundleId = newId();
+        String bundleIdentifier = newId();
+        String compositionId = newId();
+        String patientId = newId();
+        String practitionerId = newId();
+        String conditionId = newId();
+
+        // Use provided diagnosis or fallback to generic
+        String diagCode = dto.getDiagnosisCode() != null ? dto.getDiagnosisCode() : "297142003";
+        String diagText = dto.getDiagnosis() != null ? dto.getDiagnosis() : "Patient presents with symptoms";
+        String diagDisplay = builder.standardDisplay(FhirConstants.SYSTEM_SNOMED, diagCode, diagText);
+
+        List<Medication> meds = new ArrayList<>();
+        if (dto.getMedication_list() != null) {
+            for (PrescriptionDTO.MedicationEntry entry : dto.getMedication_list()) {
+                Medication med = new Medication(newId());
+                med.code = entry.getMedicationCode() != null ? entry.getMedicationCode()
+                        : FhirConstants.CODE_FALLBACK_MEDICATION;
+                med.text = entry.getMedicationName() != null ? entry.getMedicationName() : "Unspecified Medication";
+                med.display = builder.standardDisplay(FhirConstants.SYSTEM_SNOMED, med.code, med.text);
+                med.dosage = entry.getDosageInstruction() != null ? entry.getDosageInstruction()
+                        : "As directed by physician";
+                meds.add(med);
+            }
+        }
+
+        return gen -> {
+            startDocumentBundle(gen, bundleId, FhirConstants.SYSTEM_BUNDLE_ID, bundleIdentifier, visitDate);
+
+            // Composition
+            startEntry(gen, "Composition", compositionId);
+            writeMeta(gen, null, FhirConstants.PROFILE_PRESCRIPTION_RECORD);
+            gen.writeStringField("status", "final");
+            writeCodeableConcept(gen, "type", FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD,
+                    "Prescription record", null);
+            writeReference(gen, "subject", patientId, "Patient");
+            gen.writeStringField("date", date);
+            writeReferenceList(gen, "author", practitionerId, "Practitioner");
+            gen.writeStringField("title", "Prescription Record");
+            gen.writeArrayFieldStart("section");
+            gen.writeStartObject();
+            gen.writeStringField("title", "Prescription record (record artifact)");
+            writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_PRESCRIPTION_RECORD,
+                    "Prescription record", null);
+            if (!meds.isEmpty()) {
+                gen.writeArrayFieldStart("entry");
+                for (Medication med : meds) {
+                    writeReferenceValue(gen, med.id, "MedicationRequest", null);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            gen.writeEndArray();
+            endEntry(gen);
+
+            writeAbdmPatientEntry(gen, patientId, dto.getPatientName(), dto.getPatientId());
+            writeAbdmPractitionerEntry(gen, practitionerId, dto.getDoctorName());
+
+            // Condition
+            startEntry(gen, "Condition", conditionId);
+            writeMeta(gen, null, FhirConstants.PROFILE_CONDITION);
+            writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_SNOMED, diagCode, diagDisplay, diagText);
+            writeReference(gen, "subject", patientId, "Patient");
+            gen.writeStringField("recordedDate", date);
+            endEntry(gen);
+
+            // MedicationRequests
+            for (Medication med : meds) {
+                startEntry(gen, "MedicationRequest", med.id);
+                writeMeta(gen, null, "https://nrces.in/ndhm/fhir/r4/StructureDefinition/MedicationRequest");
+                gen.writeStringField("status", "active");
+                gen.writeStringField("intent", "order");
+                writeCodeableConcept(gen, "medicationCodeableConcept", FhirConstants.SYSTEM_SNOMED, med.code,
+                        med.display, med.text);
+                writeReference(gen, "subject", patientId, "Patient");
+                gen.writeStringField("authoredOn", date);
+                writeReference(gen, "requester", practitionerId, "Practitioner");
+                writeReferenceList(gen, "reasonReference", conditionId, "Condition");
+                if (!isBlank(med.dosage)) {
+                    gen.writeArrayFieldStart("dosageInstruction");
+                    gen.writeStartObject();
+                    gen.writeStringField("text", med.dosage);
+                    gen.writeEndObject();
+                    gen.writeEndArray();
+                }
+                endEntry(gen);
+            }
+
+            endBundle(gen);
+        };
+    }
+}
@@ -0,0 +1,239 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.dto.WellnessRecordDTO;
+import com.yourorg.fhir.util.FhirConstants;
+import com.yourorg.fhir.util.FhirUtil;
+import com.yourorg.fhir.util.IdGenerator;
+import com.yourorg.fhir.util.InputCoercion;
+import org.hl7.fhir.r4.model.DecimalType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fast-path writer for the Wellness Record (Vital Signs) bundle. Mirrors
+ * AbdmService.buildWellnessBundle, including the folding of systolic and
+ * diastolic entries into one blood pressure panel.
+ */
+@Component
+public class WellnessBundleWriter extends DirectBundleWriter<WellnessRecordDTO> {
+
+    private static final String PROFILE_VITAL_SIGNS = "https://nrces.in/ndhm/fhir/r4/StructureDefinition/ObservationVitalSigns";
+    private static final String BP_UNIT = "mm[Hg]";
+
+    private final AbdmResourceBuilder builder;
+
+    public WellnessBundleWriter(AbdmResourceBuilder builder, IdGenerator ids,
+            @Value("${fhir.output.fast-path:false}") boolean enabled) {
+        super(enabled, ids);
+        this.builder = builder;
+    }
+
+    private static final class VitalSign {
+        final String id;
+        String[] profiles;
+        String code;
+        String display;
+        String text;
+        String value;
+        String unit;
+
+        VitalSign(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final class BloodPressure {
+        final String id;
+        String systolic;
+        String diastolic;
+
+        BloodPressure(String id) {
+            this.id = id;
+        }
+    }
+
+    @Override
+    public String getCompositionProfile() {
+        return FhirConstants.PROFILE_WELLNESS_RECORD;
+    }
+
+    @Override
+    public DirectBundle prepare(WellnessRecordDTO dto) {
+        Date visitDate = FhirUtil.parseDate(dto.getVisitDate());
+        String date = dateTime(visitDate);
+
+        String bundleId = newId();
+        String bundleIdentifier = newId();
+        String compositionId = newId();
+        String patientId = newId();
+        String practitionerId = newId();
+
+        BloodPressure bp = null;
+        List<VitalSign> vitals = new ArrayList<>();
+        if (dto.getObservation_list() != null) {
+            String sysVal = null;
+            String diaVal = null;
+
+            // First pass: find BP
+            for (WellnessRecordDTO.ObservationEntry entry : dto.getObservation_list()) {
+                if (FhirConstants.LOINC_SYSTOLIC.equals(entry.getObservationCode())) {
+                    sysVal = entry.getValue();
+                } else if (FhirConstants.LOINC_DIASTOLIC.equals(entry.getObservationCode())) {
+                    diaVal = entry.getValue();
+                }
+            }
+
+            if (sysVal != null || diaVal != null) {
+                bp = new BloodPressure(newId());
+                // Same strict parsing as buildBloodPressureObservation: bad values fail the request
+                bp.systolic = sysVal != null ? strictDecimal(sysVal, "systolic") : null;
+                bp.diastolic = diaVal != null ? strictDecimal(diaVal, "diastolic") : null;
+            }
+
+            // Second pass: add others
+            for (WellnessRecordDTO.ObservationEntry entry : dto.getObservation_list()) {
+                if (!FhirConstants.LOINC_SYSTOLIC.equals(entry.getObservationCode()) &&
+                        !FhirConstants.LOINC_DIASTOLIC.equals(entry.getObservationCode())) {
+                    vitals.add(vitalSign(entry));
+                }
+            }
+        }
+
+        BloodPressure bloodPressure = bp;
+        return gen -> {
+            startDocumentBundle(gen, bundleId, FhirConstants.SYSTEM_BUNDLE_ID, bundleIdentifier, visitDate);
+
+            // Composition
+            startEntry(gen, "Composition", compositionId);
+            writeMeta(gen, null, FhirConstants.PROFILE_WELLNESS_RECORD);
+            gen.writeStringField("status", "final");
+            writeCodeableConcept(gen, "type", FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_DIAGNOSTIC_REPORT,
+                    "Diagnostic studies report", null);
+            writeReference(gen, "subject", patientId, "Patient");
+            gen.writeStringField("date", date);
+            writeReferenceList(gen, "author", practitionerId, "Practitioner");
+            gen.writeStringField("title", "Wellness Record");
+            gen.writeArrayFieldStart("section");
+            gen.writeStartObject();
+            gen.writeStringField("title", "Vital Signs");
+            if (bloodPressure != null || !vitals.isEmpty()) {
+                gen.writeArrayFieldStart("entry");
+                if (bloodPressure != null) {
+                    writeReferenceValue(gen, bloodPressure.id, "Observation", null);
+                }
+                for (VitalSign vital : vitals) {
+                    writeReferenceValue(gen, vital.id, "Observation", null);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            gen.writeEndArray();
+            endEntry(gen);
+
+            writeAbdmPatientEntry(gen, patientId, dto.getPatientName(), dto.getPatientId());
+            writeAbdmPractitionerEntry(gen, practitionerId, dto.getDoctorName());
+
+            if (bloodPressure != null) {
+                writeBloodPressure(gen, bloodPressure, patientId, date);
+            }
+            for (VitalSign vital : vitals) {
+                writeVitalSign(gen, vital, patientId, date);
+            }
+
+            endBundle(gen);
+        };
+    }
+
+    /**
+     * Mirrors AbdmResourceBuilder.buildVitalSignObservation.
+     */
+    private VitalSign vitalSign(WellnessRecordDTO.ObservationEntry entry) {
+        VitalSign vital = new VitalSign(newId());
+        vital.code = entry.getObservationCode() != null ? entry.getObservationCode() : "29463-7";
+        vital.text = entry.getObservationType() != null ? entry.getObservationType() : "Body Weight";
+        vital.display = builder.standardDisplay(FhirConstants.SYSTEM_LOINC, vital.code, vital.text);
+        vital.unit = entry.getUnit();
+
+        if ("29463-7".equals(vital.code)) {
+            vital.profiles = new String[] { FhirConstants.PROFILE_OBSERVATION, PROFILE_VITAL_SIGNS,
+                    "http://hl7.org/fhir/StructureDefinition/bodyweight" };
+        } else if ("8302-2".equals(vital.code)) {
+            vital.profiles = new String[] { FhirConstants.PROFILE_OBSERVATION, PROFILE_VITAL_SIGNS,
+                    "http://hl7.org/fhir/StructureDefinition/bodyheight" };
+        } else if ("85354-9".equals(vital.code) || "55284-4".equals(vital.code)) {
+            vital.profiles = new String[] { FhirConstants.PROFILE_OBSERVATION, PROFILE_VITAL_SIGNS,
+                    "http://hl7.org/fhir/StructureDefinition/bp" };
+        } else {
+            vital.profiles = new String[] { FhirConstants.PROFILE_OBSERVATION, PROFILE_VITAL_SIGNS };
+        }
+
+        vital.value = new DecimalType(InputCoercion.decimal(entry.getValue(), 0)).getValueAsString();
+        return vital;
+    }
+
+    private static String strictDecimal(String value, String field) {
+        return new DecimalType(InputCoercion.decimal(value).orElseThrow(field).doubleValue()).getValueAsString();
+    }
+
+    private static void writeVitalSignHeader(JsonGenerator gen, String id, String... profiles) throws IOException {
+        startEntry(gen, "Observation", id);
+        writeMeta(gen, null, profiles);
+        gen.writeStringField("status", "final");
+        gen.writeArrayFieldStart("category");
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("coding");
+        writeCoding(gen, FhirConstants.SYSTEM_OBS_CATEGORY, "vital-signs", "Vital Signs");
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+    }
+
+    private static void writeVitalSign(JsonGenerator gen, VitalSign vital, String patientId, String date)
+            throws IOException {
+        writeVitalSignHeader(gen, vital.id, vital.profiles);
+        writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_LOINC, vital.code, vital.display, vital.text);
+        writeReference(gen, "subject", patientId, "Patient");
+        gen.writeStringField("effectiveDateTime", date);
+        writeReferenceList(gen, "performer", patientId, "Patient");
+        writeQuantity(gen, "valueQuantity", vital.value, vital.unit, FhirConstants.SYSTEM_UCUM, vital.unit);
+        endEntry(gen);
+    }
+
+    private static void writeBloodPressure(JsonGenerator gen, BloodPressure bp, String patientId, String date)
+            throws IOException {
+        writeVitalSignHeader(gen, bp.id, FhirConstants.PROFILE_OBSERVATION, PROFILE_VITAL_SIGNS,
+                "http://hl7.org/fhir/StructureDefinition/bp");
+        writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_BP_PANEL,
+                "Blood pressure panel with all children optional", null);
+        writeReference(gen, "subject", patientId, "Patient");
+        gen.writeStringField("effectiveDateTime", date);
+        writeReferenceList(gen, "performer", patientId, "Patient");
+        if (bp.systolic != null || bp.diastolic != null) {
+            gen.writeArrayFieldStart("component");
+            if (bp.systolic != null) {
+                writeBloodPressureComponent(gen, FhirConstants.LOINC_SYSTOLIC, "Systolic blood pressure", bp.systolic);
+            }
+            if (bp.diastolic != null) {
+                writeBloodPressureComponent(gen, FhirConstants.LOINC_DIASTOLIC, "Diastolic blood pressure",
+                        bp.diastolic);
+            }
+            gen.writeEndArray();
+        }
+        endEntry(gen);
+    }
+
+    private static void writeBloodPressureComponent(JsonGenerator gen, String code, String display, String value)
+            throws IOException {
+        gen.writeStartObject();
+        writeCodeableConcept(gen, "code", FhirConstants.SYSTEM_LOINC, code, display, null);
+        writeQuantity(gen, "valueQuantity", value, BP_UNIT, FhirConstants.SYSTEM_UCUM, BP_UNIT);
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,55 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encoding of a response body. JSON is the default; CBOR and Smile carry the
+ * same FHIR JSON structure (same property names, same values) in a binary
+ * form for internal consumers that only re-parse the bundle.
+ */
+public enum WireFormat {
+    JSON("application/json", new JsonFactory()),
+    CBOR("application/cbor", new CBORFactory()),
+    SMILE("application/x-jackson-smile", new SmileFactory());
+
+    private final String mediaType;
+    private final JsonFactory factory;
+    private final ObjectMapper mapper;
+
+    WireFormat(String mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+        // Keep decimal scale (70.0 stays 70.0), as HAPI's own JSON reader does
+        this.mapper = new ObjectMapper(factory).setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * Creates a generator over the given stream that leaves the stream open
+     * when closed.
+     */
+    JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator gen = factory.createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return gen;
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+}
@@ -1,13 +1,19 @@
 package com.yourorg.fhir.service;
 
-import ca.uhn.fhir.context.FhirContext;
 import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.CompositionRegistry;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.util.DocumentScope;
 import com.yourorg.fhir.util.FhirConstants;
 import org.hl7.fhir.r4.model.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
-import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Service responsible for orchestrating the creation of ABDM-compliant FHIR
@@ -19,18 +25,33 @@ import java.util.UUID;
 @Service
 public class AbdmService {
 
-    private final FhirContext fhirContext;
+    private final FhirSerializer serializer;
     private final AbdmResourceBuilder builder;
+    private final ResourceTemplateCache templates;
     private final com.yourorg.fhir.builder.DiagnosticReportBuilder diagnosticReportBuilder;
     private final com.yourorg.fhir.builder.ObservationBuilder observationBuilder;
+    private final ForkJoinPool sectionPool;
+    private final int parallelThreshold;
 
-    public AbdmService(FhirContext fhirContext, AbdmResourceBuilder builder,
+    /**
+     * @param sectionPool       Pool the composite bundle sections are built on
+     * @param parallelThreshold Minimum number of section entries (diagnoses,
+     *                          medications, vitals, lab tests, allergies,
+     *                          invoice lines) before a composite bundle is
+     *                          built in parallel; smaller ones stay sequential
+     */
+    public AbdmService(FhirSerializer serializer, AbdmResourceBuilder builder, ResourceTemplateCache templates,
             com.yourorg.fhir.builder.DiagnosticReportBuilder diagnosticReportBuilder,
-            com.yourorg.fhir.builder.ObservationBuilder observationBuilder) {
-        this.fhirContext = fhirContext;
+            com.yourorg.fhir.builder.ObservationBuilder observationBuilder,
+            @Qualifier("compositeSectionPool") ForkJoinPool sectionPool,
+            @Value("${fhir.composite.parallel-threshold:64}") int parallelThreshold) {
+        this.serializer = serializer;
         this.builder = builder;
+        this.templates = templates;
         this.diagnosticReportBuilder = diagnosticReportBuilder;
         this.observationBuilder = observationBuilder;
+        this.sectionPool = sectionPool;
+        this.parallelThreshold = parallelThreshold;
     }
 
     /**
@@ -43,14 +64,14 @@ public class AbdmService {
      */
     private Bundle wrapInBundle(Composition composition, java.util.List<? extends Resource> resources, Date date) {
         Bundle bundle = new Bundle();
-        bundle.setId(UUID.randomUUID().toString());
+        bundle.setId(builder.newId());
         bundle.setType(Bundle.BundleType.DOCUMENT);
         bundle.setTimestamp(date != null ? date : new Date());
         bundle.getMeta().setVersionId("1")
                 .addProfile(FhirConstants.PROFILE_DOC_BUNDLE);
 
         bundle.setIdentifier(new Identifier().setSystem(FhirConstants.SYSTEM_BUNDLE_ID)
-                .setValue(UUID.randomUUID().toString()));
+                .setValue(builder.newId()));
 
         // Add Composition first
         bundle.addEntry().setFullUrl("urn:uuid:" + composition.getId()).setResource(composition);
@@ -64,16 +85,23 @@ public class AbdmService {
     }
 
     private String serialize(Bundle bundle) {
-        return fhirContext.newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle);
+        return serializer.encodeToString(bundle);
     }
 
     /**
      * Creates an ABDM Prescription Record bundle.
      */
     public String createPrescription(com.yourorg.fhir.dto.PrescriptionDTO dto) {
+        return serialize(buildPrescriptionBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createPrescription} bundle without serializing it.
+     */
+    public Bundle buildPrescriptionBundle(com.yourorg.fhir.dto.PrescriptionDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
 
         // Use provided diagnosis or fallback to generic
         String diagCode = dto.getDiagnosisCode() != null ? dto.getDiagnosisCode() : "297142003";
@@ -89,7 +117,8 @@ public class AbdmService {
             }
         }
 
-        Composition comp = builder.buildPrescriptionComposition(patient, doc, medsList, visitDate);
+        Composition comp = builder.buildComposition(CompositionRegistry.PRESCRIPTION, patient, doc, null, null,
+                visitDate, medsList);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
@@ -97,16 +126,23 @@ public class AbdmService {
         resources.add(condition);
         resources.addAll(medsList);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
      * Creates an ABDM Discharge Summary bundle.
      */
     public String createDischargeSummary(com.yourorg.fhir.dto.DischargeSummaryDTO dto) {
+        return serialize(buildDischargeSummaryBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createDischargeSummary} bundle without serializing it.
+     */
+    public Bundle buildDischargeSummaryBundle(com.yourorg.fhir.dto.DischargeSummaryDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
         Encounter enc = builder.buildEncounter(patient, doc, null, dto.getAdmissionDate(), visitDate);
 
         java.util.List<Condition> condList = new java.util.ArrayList<>();
@@ -117,7 +153,8 @@ public class AbdmService {
             }
         }
 
-        Composition comp = builder.buildDischargeSummaryComposition(patient, doc, enc, condList, visitDate);
+        Composition comp = builder.buildComposition(CompositionRegistry.DISCHARGE_SUMMARY, patient, doc, null, enc,
+                visitDate, condList);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
@@ -125,16 +162,23 @@ public class AbdmService {
         resources.add(enc);
         resources.addAll(condList);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
      * Creates an ABDM OP Consult Record bundle.
      */
     public String createOpConsultNote(com.yourorg.fhir.dto.OpConsultDTO dto) {
+        return serialize(buildOpConsultBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createOpConsultNote} bundle without serializing it.
+     */
+    public Bundle buildOpConsultBundle(com.yourorg.fhir.dto.OpConsultDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
         Encounter enc = builder.buildEncounter(patient, doc, null, dto.getVisitDate(), visitDate);
 
         java.util.List<Condition> condList = new java.util.ArrayList<>();
@@ -145,7 +189,8 @@ public class AbdmService {
             }
         }
 
-        Composition comp = builder.buildOPConsultComposition(patient, doc, enc, condList, visitDate);
+        Composition comp = builder.buildComposition(CompositionRegistry.OP_CONSULT, patient, doc, null, enc, visitDate,
+                condList);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
@@ -153,16 +198,23 @@ public class AbdmService {
         resources.add(enc);
         resources.addAll(condList);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
      * Creates an ABDM Immunization Record bundle.
      */
     public String createImmunizationRecord(com.yourorg.fhir.dto.ImmunizationRecordDTO dto) {
+        return serialize(buildImmunizationBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createImmunizationRecord} bundle without serializing it.
+     */
+    public Bundle buildImmunizationBundle(com.yourorg.fhir.dto.ImmunizationRecordDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
 
         java.util.List<Immunization> immList = new java.util.ArrayList<>();
         if (dto.getImmunization_list() != null) {
@@ -172,23 +224,31 @@ public class AbdmService {
             }
         }
 
-        Composition comp = builder.buildImmunizationComposition(patient, doc, immList, visitDate);
+        Composition comp = builder.buildComposition(CompositionRegistry.IMMUNIZATION, patient, doc, null, null,
+                visitDate, immList);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
         resources.add(doc);
         resources.addAll(immList);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
      * Creates an ABDM Wellness Record (Vital Signs) bundle.
      */
     public String createWellnessRecord(com.yourorg.fhir.dto.WellnessRecordDTO dto) {
+        return serialize(buildWellnessBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createWellnessRecord} bundle without serializing it.
+     */
+    public Bundle buildWellnessBundle(com.yourorg.fhir.dto.WellnessRecordDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
 
         java.util.List<Observation> obsList = new java.util.ArrayList<>();
         if (dto.getObservation_list() != null) {
@@ -222,23 +282,31 @@ public class AbdmService {
             }
         }
 
-        Composition comp = builder.buildWellnessComposition(patient, doc, obsList, visitDate);
+        Composition comp = builder.buildComposition(CompositionRegistry.WELLNESS, patient, doc, null, null, visitDate,
+                obsList);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
         resources.add(doc);
         resources.addAll(obsList);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
      * Creates an ABDM Health Document Record (Attachments) bundle.
      */
     public String createHealthDocumentRecord(com.yourorg.fhir.dto.HealthDocumentRecordDTO dto) {
+        return serialize(buildHealthDocumentBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createHealthDocumentRecord} bundle without serializing it.
+     */
+    public Bundle buildHealthDocumentBundle(com.yourorg.fhir.dto.HealthDocumentRecordDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), null, null);
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
 
         java.util.List<DocumentReference> docRefs = new java.util.ArrayList<>();
         if (dto.getAttachment_list() != null) {
@@ -248,28 +316,15 @@ public class AbdmService {
             }
         }
 
-        Composition comp = new Composition();
-        comp.setId(UUID.randomUUID().toString());
-        comp.getMeta().addProfile(FhirConstants.PROFILE_HEALTH_DOCUMENT_RECORD);
-        comp.setStatus(Composition.CompositionStatus.FINAL);
-        comp.setDate(visitDate != null ? visitDate : new Date());
-        comp.setTitle("Health Document Record");
-        comp.setSubject(new Reference("urn:uuid:" + patient.getId()).setType("Patient"));
-        comp.addAuthor(new Reference("urn:uuid:" + doc.getId()).setType("Practitioner"));
-        comp.setType(new CodeableConcept(
-                new Coding(FhirConstants.SYSTEM_SNOMED, FhirConstants.CODE_HEALTH_DOCUMENT, "Record artifact")));
-
-        Composition.SectionComponent section = comp.addSection();
-        for (DocumentReference docRef : docRefs) {
-            section.addEntry(new Reference("urn:uuid:" + docRef.getId()));
-        }
+        Composition comp = builder.buildComposition(CompositionRegistry.HEALTH_DOCUMENT, patient, doc, null, null,
+                visitDate, docRefs);
 
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
         resources.add(doc);
         resources.addAll(docRefs);
 
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return wrapInBundle(comp, resources, visitDate);
     }
 
     /**
@@ -277,51 +332,148 @@ public class AbdmService {
      * Diagnosis).
      */
     public String createCompositeBundle(com.yourorg.fhir.dto.CompositeRequestDTO dto) {
+        return serialize(buildCompositeBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #createCompositeBundle} bundle without serializing it.
+     */
+    public Bundle buildCompositeBundle(com.yourorg.fhir.dto.CompositeRequestDTO dto) {
         Date visitDate = com.yourorg.fhir.util.FhirUtil.parseDate(dto.getVisitDate());
         Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), dto.getPatientGender(),
                 dto.getPatientDob());
-        Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), null);
+        Practitioner doc = templates.practitioner(dto.getDoctorName(), null);
 
         Organization clinic = null;
         if (dto.getClinicName() != null && !dto.getClinicName().isEmpty()) {
-            clinic = builder.buildOrganization(dto.getClinicName());
+            clinic = templates.organization(dto.getClinicName());
         }
 
         Encounter enc = builder.buildEncounter(patient, doc, clinic, dto.getVisitDate(), visitDate);
 
+        // The sections only read Patient/Practitioner, so large visits build them
+        // concurrently. Diagnosis and medications stay together on the calling
+        // thread because medications reference the first condition.
+        boolean parallel = sectionEntryCount(dto) >= parallelThreshold;
+        ForkJoinTask<Section<Observation>> wellnessTask = section(parallel, "wellness",
+                () -> buildWellnessSection(dto, patient, visitDate));
+        ForkJoinTask<Section<DiagnosticReport>> labTask = section(parallel, "lab",
+                () -> buildLabSection(dto, patient, doc, visitDate));
+        ForkJoinTask<Section<AllergyIntolerance>> allergyTask = section(parallel, "allergies",
+                () -> buildAllergySection(dto, patient, doc, visitDate));
+        ForkJoinTask<Section<Invoice>> invoiceTask = section(parallel, "invoice",
+                () -> buildInvoiceSection(dto, patient, visitDate));
+        Section<Condition> conditions = buildDiagnosisSection(dto, patient, visitDate);
+        Section<MedicationRequest> medications = buildMedicationSection(dto, patient, doc,
+                conditions.referenced.isEmpty() ? null : conditions.referenced.get(0), visitDate);
+        Section<Observation> wellness = wellnessTask.join();
+        Section<DiagnosticReport> lab = labTask.join();
+        Section<AllergyIntolerance> allergies = allergyTask.join();
+        Section<Invoice> invoice = invoiceTask.join();
+
+        // Entries go in a fixed section order, whichever task finished first
         java.util.List<Resource> resources = new java.util.ArrayList<>();
         resources.add(patient);
         resources.add(doc);
         resources.add(enc);
         if (clinic != null)
             resources.add(clinic);
+        resources.addAll(conditions.entries);
+        resources.addAll(medications.entries);
+        resources.addAll(wellness.entries);
+        resources.addAll(lab.entries);
+        resources.addAll(allergies.entries);
+        resources.addAll(invoice.entries);
+
+        Composition comp = builder.buildComposition(CompositionRegistry.COMPOSITE_OP_CONSULT, patient, doc, clinic,
+                enc, visitDate, conditions.referenced, medications.referenced, allergies.referenced,
+                lab.referenced, invoice.referenced, wellness.referenced);
+
+        return wrapInBundle(comp, resources, visitDate);
+    }
 
-        // 1. Process OpConsult (Diagnosis)
-        java.util.List<Condition> condList = new java.util.ArrayList<>();
+    /**
+     * Resources of one composite section: those the Composition section
+     * references, and everything the section adds to the Bundle, in entry order.
+     */
+    private static final class Section<T extends Resource> {
+        final java.util.List<T> referenced = new java.util.ArrayList<>();
+        final java.util.List<Resource> entries = new java.util.ArrayList<>();
+
+        void add(T resource) {
+            referenced.add(resource);
+            entries.add(resource);
+        }
+    }
+
+    /**
+     * Runs {@code work} on the section pool when {@code parallel}, otherwise
+     * right away on the calling thread. Either way its ids come from the
+     * section's own {@link DocumentScope} child, if a scope is open, so they
+     * do not depend on scheduling.
+     */
+    private <T> ForkJoinTask<T> section(boolean parallel, String name, java.util.concurrent.Callable<T> work) {
+        ForkJoinTask<T> task = ForkJoinTask.adapt(DocumentScope.forked(name, work));
+        if (parallel) {
+            sectionPool.execute(task);
+        } else {
+            task.invoke();
+        }
+        return task;
+    }
+
+    private static int sectionEntryCount(com.yourorg.fhir.dto.CompositeRequestDTO dto) {
+        int count = 0;
+        if (dto.getOpConsult() != null) {
+            count += size(dto.getOpConsult().getDiagnosis_list()) + size(dto.getOpConsult().getAllergy_list());
+        }
+        if (dto.getPrescription() != null) {
+            count += size(dto.getPrescription().getMedication_list());
+        }
+        if (dto.getWellnessRecord() != null) {
+            count += size(dto.getWellnessRecord().getObservation_list());
+        }
+        if (dto.getLabReport() != null) {
+            count += size(dto.getLabReport().getTest_list());
+        }
+        if (dto.getInvoice() != null) {
+            count += size(dto.getInvoice().getLineItems());
+        }
+        return count;
+    }
+
+    private static int size(java.util.List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private Section<Condition> buildDiagnosisSection(com.yourorg.fhir.dto.CompositeRequestDTO dto, Patient patient,
+            Date visitDate) {
+        Section<Condition> section = new Section<>();
         if (dto.getOpConsult() != null && dto.getOpConsult().getDiagnosis_list() != null) {
             for (com.yourorg.fhir.dto.OpConsultDTO.DiagnosisEntry entry : dto.getOpConsult().getDiagnosis_list()) {
-                Condition cond = builder.buildCondition(patient, entry.getCode(), entry.getDisplay(), entry.getText(),
-                        visitDate);
-                condList.add(cond);
-                resources.add(cond);
+                section.add(builder.buildCondition(patient, entry.getCode(), entry.getDisplay(), entry.getText(),
+                        visitDate));
             }
         }
+        return section;
+    }
 
-        // 2. Process Prescription (Medications)
-        java.util.List<MedicationRequest> medList = new java.util.ArrayList<>();
+    private Section<MedicationRequest> buildMedicationSection(com.yourorg.fhir.dto.CompositeRequestDTO dto,
+            Patient patient, Practitioner doc, Condition contextCond, Date visitDate) {
+        Section<MedicationRequest> section = new Section<>();
         if (dto.getPrescription() != null && dto.getPrescription().getMedication_list() != null) {
-            Condition contextCond = !condList.isEmpty() ? condList.get(0) : null;
             for (com.yourorg.fhir.dto.PrescriptionDTO.MedicationEntry entry : dto.getPrescription()
                     .getMedication_list()) {
-                MedicationRequest mr = builder.buildMedicationRequest(patient, doc, contextCond,
-                        entry.getMedicationName(), entry.getMedicationCode(), entry.getDosageInstruction(), visitDate);
-                medList.add(mr);
-                resources.add(mr);
+                section.add(builder.buildMedicationRequest(patient, doc, contextCond,
+                        entry.getMedicationName(), entry.getMedicationCode(), entry.getDosageInstruction(), visitDate));
             }
         }
+        return section;
+    }
 
-        // 3. Process Wellness (Vitals)
-        java.util.List<Observation> wellnessList = new java.util.ArrayList<>();
+    private Section<Observation> buildWellnessSection(com.yourorg.fhir.dto.CompositeRequestDTO dto, Patient patient,
+            Date visitDate) {
+        Section<Observation> section = new Section<>();
         if (dto.getWellnessRecord() != null && dto.getWellnessRecord().getObservation_list() != null) {
             String sysVal = null;
             String diaVal = null;
@@ -339,9 +491,7 @@ public class AbdmService {
 
             // Create BP Obs if found
             if (sysVal != null || diaVal != null) {
-                Observation bpObs = builder.buildBloodPressureObservation(patient, sysVal, diaVal, bpUnit, visitDate);
-                wellnessList.add(bpObs);
-                resources.add(bpObs);
+                section.add(builder.buildBloodPressureObservation(patient, sysVal, diaVal, bpUnit, visitDate));
             }
 
             // Second pass: add others
@@ -350,16 +500,17 @@ public class AbdmService {
                 if (!FhirConstants.LOINC_SYSTOLIC.equals(entry.getObservationCode()) &&
                         !FhirConstants.LOINC_DIASTOLIC.equals(entry.getObservationCode())) {
 
-                    Observation obs = builder.buildVitalSignObservation(patient, entry.getObservationType(),
-                            entry.getObservationCode(), entry.getValue(), entry.getUnit(), visitDate);
-                    wellnessList.add(obs);
-                    resources.add(obs);
+                    section.add(builder.buildVitalSignObservation(patient, entry.getObservationType(),
+                            entry.getObservationCode(), entry.getValue(), entry.getUnit(), visitDate));
                 }
             }
         }
+        return section;
+    }
 
-        // 4. Process Lab Reports
-        java.util.List<DiagnosticReport> reports = new java.util.ArrayList<>();
+    private Section<DiagnosticReport> buildLabSection(com.yourorg.fhir.dto.CompositeRequestDTO dto, Patient patient,
+            Practitioner doc, Date visitDate) {
+        Section<DiagnosticReport> section = new Section<>();
         if (dto.getLabReport() != null && dto.getLabReport().getTest_list() != null
                 && !dto.getLabReport().getTest_list().isEmpty()) {
             // Create one master DiagnosticReport for this session
@@ -381,26 +532,29 @@ public class AbdmService {
 
                 Observation obs = observationBuilder.buildLabObservation(mappedEntry, patient.getId(), doc, visitDate);
                 diagnosticReportBuilder.linkResult(report, obs);
-                resources.add(obs);
+                section.entries.add(obs);
             }
 
-            reports.add(report);
-            resources.add(report);
+            section.add(report);
         }
+        return section;
+    }
 
-        // 5. Process Allergies (from OpConsultDTO)
-        java.util.List<AllergyIntolerance> allergyList = new java.util.ArrayList<>();
+    private Section<AllergyIntolerance> buildAllergySection(com.yourorg.fhir.dto.CompositeRequestDTO dto,
+            Patient patient, Practitioner doc, Date visitDate) {
+        Section<AllergyIntolerance> section = new Section<>();
         if (dto.getOpConsult() != null && dto.getOpConsult().getAllergy_list() != null) {
             for (com.yourorg.fhir.dto.OpConsultDTO.AllergyEntry entry : dto.getOpConsult().getAllergy_list()) {
-                AllergyIntolerance allergy = builder.buildAllergyIntolerance(patient, doc,
-                        entry.getCode(), entry.getDisplay(), entry.getClinicalStatus(), visitDate);
-                allergyList.add(allergy);
-                resources.add(allergy);
+                section.add(builder.buildAllergyIntolerance(patient, doc,
+                        entry.getCode(), entry.getDisplay(), entry.getClinicalStatus(), visitDate));
             }
         }
+        return section;
+    }
 
-        // 6. Process Invoice (New)
-        Invoice invoice = null;
+    private Section<Invoice> buildInvoiceSection(com.yourorg.fhir.dto.CompositeRequestDTO dto, Patient patient,
+            Date visitDate) {
+        Section<Invoice> section = new Section<>();
         if (dto.getInvoice() != null && dto.getInvoice().getLineItems() != null) {
             java.util.List<ChargeItem> chargeItems = new java.util.ArrayList<>();
             java.util.List<Double> unitPrices = new java.util.ArrayList<>();
@@ -410,20 +564,15 @@ public class AbdmService {
                 unitPrices.add(item.getUnitPrice());
             }
 
-            invoice = builder.buildInvoice(patient, chargeItems, unitPrices, dto.getInvoice().getTotalAmount(),
+            Invoice invoice = builder.buildInvoice(patient, chargeItems, unitPrices, dto.getInvoice().getTotalAmount(),
                     dto.getInvoice().getCurrency());
 
             // Add Date (Identifier is added in builder)
             invoice.setDate(visitDate != null ? visitDate : new Date());
 
-            resources.add(invoice);
-            resources.addAll(chargeItems);
+            section.add(invoice);
+            section.entries.addAll(chargeItems);
         }
-
-        Composition comp = builder.buildCompositeOPConsultComposition(patient, doc, clinic, enc, condList, medList,
-                allergyList, null,
-                wellnessList, reports, invoice, visitDate);
-
-        return serialize(wrapInBundle(comp, resources, visitDate));
+        return section;
     }
 }
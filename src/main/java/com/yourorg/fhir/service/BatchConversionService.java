@@ -0,0 +1,241 @@
+package com.yourorg.fhir.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.validator.ValidationSampler;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Converts newline-delimited DTO records into newline-delimited document
+ * Bundles.
+ *
+ * <p>
+ * Records are converted concurrently on the shared batch pool, but at most
+ * {@code fhir.batch.max-in-flight} per request are pending at a time, so a
+ * large upload never holds more than that many bundles in memory. Output
+ * lines are written in input order. A record that cannot be converted yields
+ * an OperationOutcome line in its place instead of failing the batch; blank
+ * input lines are skipped.
+ */
+@Service
+public class BatchConversionService {
+
+    /**
+     * Optional per-record field naming the document type, for batches that
+     * mix types.
+     */
+    public static final String DOCUMENT_TYPE_FIELD = "documentType";
+
+    private static final byte NEWLINE = '\n';
+
+    private final DocumentTypeRegistry registry;
+    private final FhirSerializer serializer;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final ValidationSampler validationSampler;
+    private final int maxInFlight;
+
+    public BatchConversionService(DocumentTypeRegistry registry, FhirSerializer serializer,
+            ObjectMapper objectMapper, @Qualifier("batchExecutor") ExecutorService executor,
+            ValidationSampler validationSampler,
+            @Value("${fhir.batch.max-in-flight:64}") int maxInFlight) {
+        this.registry = registry;
+        this.serializer = serializer;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.validationSampler = validationSampler;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Result counts of one batch.
+     */
+    public static final class Summary {
+        private int converted;
+        private int failed;
+
+        public int getConverted() {
+            return converted;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * Receives converted records in input order.
+     */
+    @FunctionalInterface
+    public interface RecordSink {
+
+        /**
+         * @param lineNumber 1-based input line the record came from
+         * @param json       Compact Bundle, or OperationOutcome when {@code failed}
+         * @param failed     Whether the record could not be converted
+         */
+        void accept(int lineNumber, byte[] json, boolean failed) throws IOException;
+    }
+
+    /**
+     * Reads NDJSON records from {@code in} and writes one compact JSON line per
+     * record to {@code out}.
+     *
+     * @param in          UTF-8 NDJSON input
+     * @param out         Destination for the NDJSON output (not closed)
+     * @param defaultType Document type for records without a
+     *                    {@value #DOCUMENT_TYPE_FIELD} field, may be null
+     * @return Converted and failed record counts
+     */
+    public Summary convert(InputStream in, OutputStream out, String defaultType) throws IOException {
+        Summary summary = convert(in, defaultType, 0, (lineNumber, json, failed) -> {
+            out.write(json);
+            out.write(NEWLINE);
+        });
+        out.flush();
+        return summary;
+    }
+
+    /**
+     * Converts NDJSON records and hands each result to {@code sink} in input
+     * order. Throwing from the sink aborts the batch.
+     *
+     * @param in          UTF-8 NDJSON input
+     * @param defaultType Document type for records without a
+     *                    {@value #DOCUMENT_TYPE_FIELD} field, may be null
+     * @param skipLines   Number of leading input lines to skip, e.g. to resume
+     *                    after a checkpoint
+     * @param sink        Receives the converted records
+     * @return Converted and failed record counts
+     */
+    public Summary convert(InputStream in, String defaultType, int skipLines, RecordSink sink) throws IOException {
+        Summary summary = new Summary();
+        Deque<Future<LineResult>> window = new ArrayDeque<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= skipLines || line.isBlank()) {
+                    continue;
+                }
+                if (window.size() >= maxInFlight) {
+                    deliver(window.removeFirst(), sink, summary);
+                }
+                int number = lineNumber;
+                String record = line;
+                window.addLast(executor.submit(() -> convertLine(number, record, defaultType)));
+            }
+            while (!window.isEmpty()) {
+                deliver(window.removeFirst(), sink, summary);
+            }
+        } finally {
+            // Client went away, sink gave up or we were interrupted: drop the queued work
+            for (Future<LineResult> pending : window) {
+                pending.cancel(true);
+            }
+        }
+        return summary;
+    }
+
+    private static final class LineResult {
+        final int lineNumber;
+        final byte[] json;
+        final boolean failed;
+
+        LineResult(int lineNumber, byte[] json, boolean failed) {
+            this.lineNumber = lineNumber;
+            this.json = json;
+            this.failed = failed;
+        }
+    }
+
+    private void deliver(Future<LineResult> pending, RecordSink sink, Summary summary) throws IOException {
+        LineResult result;
+        try {
+            result = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch conversion interrupted", e);
+        } catch (ExecutionException e) {
+            // convertLine reports its own failures; this is only reached on errors such as OOM
+            throw new IOException("Batch conversion failed", e.getCause());
+        }
+        sink.accept(result.lineNumber, result.json, result.failed);
+        if (result.failed) {
+            summary.failed++;
+        } else {
+            summary.converted++;
+        }
+    }
+
+    private LineResult convertLine(int lineNumber, String record, String defaultType) {
+        try {
+            JsonNode node = objectMapper.readTree(record);
+            String typeName = node.hasNonNull(DOCUMENT_TYPE_FIELD) ? node.get(DOCUMENT_TYPE_FIELD).asText()
+                    : defaultType;
+            DocumentTypeRegistry.DocumentType type = registry.get(typeName);
+            if (type == null) {
+                return failure(lineNumber, OperationOutcome.IssueType.NOTSUPPORTED,
+                        typeName == null ? "No " + DOCUMENT_TYPE_FIELD + " given"
+                                : "Unknown " + DOCUMENT_TYPE_FIELD + " '" + typeName + "'");
+            }
+            Bundle bundle = type.build(objectMapper.treeToValue(node, type.getDtoType()));
+            ByteArrayOutputStream json = new ByteArrayOutputStream(8192);
+            serializer.encodeToStream(bundle, json, OutputMode.COMPACT);
+            validationSampler.sample(bundle);
+            return new LineResult(lineNumber, json.toByteArray(), false);
+        } catch (JsonProcessingException e) {
+            return failure(lineNumber, OperationOutcome.IssueType.STRUCTURE, e.getOriginalMessage());
+        } catch (IOException | RuntimeException e) {
+            return failure(lineNumber, OperationOutcome.IssueType.EXCEPTION, describe(e));
+        }
+    }
+
+    private LineResult failure(int lineNumber, OperationOutcome.IssueType code, String message) {
+        OperationOutcome outcome = new OperationOutcome();
+        outcome.addIssue()
+                .setSeverity(OperationOutcome.IssueSeverity.ERROR)
+                .setCode(code)
+                .setDiagnostics(message)
+                .addLocation("Line " + lineNumber);
+        String json = serializer.encodeToString(outcome, OutputMode.COMPACT);
+        return new LineResult(lineNumber, json.getBytes(StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * The services wrap failures as "Error generating X Bundle"; keep both that
+     * and the underlying reason.
+     */
+    private static String describe(Exception e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        if (root == e || root.getMessage() == null) {
+            return String.valueOf(e.getMessage());
+        }
+        return e.getMessage() + ": " + root.getMessage();
+    }
+}
@@ -0,0 +1,226 @@
+package com.yourorg.fhir.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of one bulk conversion job, persisted as job.json in the job
+ * directory. The counters and {@link #getFiles()} form the checkpoint: they
+ * describe exactly the output that is durable on disk, up to and including
+ * input line {@link #getCheckpointLine()}.
+ */
+public class BulkJob {
+
+    public enum Status {
+        ACCEPTED,
+        IN_PROGRESS,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * One NDJSON output file. {@code bytes} is the checkpointed length; anything
+     * past it was written after the last checkpoint and is discarded on resume.
+     */
+    public static class OutputFile {
+        private String type;
+        private String name;
+        private long count;
+        private long bytes;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private String id;
+    private String documentType;
+    private String request;
+    private volatile Status status;
+    private String error;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private long total;
+    private volatile long converted;
+    private volatile long failed;
+    private int checkpointLine;
+    private List<OutputFile> files = new ArrayList<>();
+
+    // Progress of the current run (since start or resume); not persisted
+    @JsonIgnore
+    private volatile long runStartNanos;
+    @JsonIgnore
+    private volatile long runProcessed;
+    @JsonIgnore
+    private volatile boolean cancelled;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Document type for every record, or null when records carry their own
+     * documentType field.
+     */
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    /**
+     * Kick-off URL, echoed in the completion manifest.
+     */
+    public String getRequest() {
+        return request;
+    }
+
+    public void setRequest(String request) {
+        this.request = request;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Number of non-blank input records.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getConverted() {
+        return converted;
+    }
+
+    public void setConverted(long converted) {
+        this.converted = converted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public int getCheckpointLine() {
+        return checkpointLine;
+    }
+
+    public void setCheckpointLine(int checkpointLine) {
+        this.checkpointLine = checkpointLine;
+    }
+
+    public List<OutputFile> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<OutputFile> files) {
+        this.files = files;
+    }
+
+    long getRunStartNanos() {
+        return runStartNanos;
+    }
+
+    void setRunStartNanos(long runStartNanos) {
+        this.runStartNanos = runStartNanos;
+    }
+
+    long getRunProcessed() {
+        return runProcessed;
+    }
+
+    void setRunProcessed(long runProcessed) {
+        this.runProcessed = runProcessed;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+}
@@ -0,0 +1,460 @@
+package com.yourorg.fhir.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous bulk conversion, modelled on the FHIR Bulk Data kick-off /
+ * status / download pattern.
+ *
+ * <p>
+ * A submitted NDJSON file is stored under {@code fhir.bulk.dir/<jobId>/} and
+ * converted in the background through {@link BatchConversionService}. Bundles
+ * go to {@code Bundle-0001.ndjson}, {@code Bundle-0002.ndjson}, ... and failed
+ * records to {@code OperationOutcome-0001.ndjson}, ..., each file holding at
+ * most {@code fhir.bulk.chunk-size} records.
+ *
+ * <p>
+ * Every {@code fhir.bulk.checkpoint-interval} records the output files are
+ * synced and job.json is rewritten atomically with the current counters, file
+ * lengths and input line. Unfinished jobs are picked up again at startup:
+ * output past the last checkpoint is truncated and conversion resumes after
+ * the checkpointed input line, so no record is lost or written twice.
+ */
+@Service
+public class BulkJobService {
+
+    public static final String BUNDLE_TYPE = "Bundle";
+    public static final String ERROR_TYPE = "OperationOutcome";
+
+    private static final String INPUT_FILE = "input.ndjson";
+    private static final String JOB_FILE = "job.json";
+    private static final String NDJSON_SUFFIX = ".ndjson";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final BatchConversionService batchService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService jobExecutor;
+    private final Path baseDir;
+    private final int chunkSize;
+    private final int checkpointInterval;
+
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    public BulkJobService(BatchConversionService batchService, ObjectMapper objectMapper,
+            @Qualifier("bulkJobExecutor") ExecutorService jobExecutor,
+            @Value("${fhir.bulk.dir:bulk-jobs}") String baseDir,
+            @Value("${fhir.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${fhir.bulk.checkpoint-interval:250}") int checkpointInterval) {
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
+        this.jobExecutor = jobExecutor;
+        this.baseDir = Paths.get(baseDir);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * Stores the input and queues the job.
+     *
+     * @param in           NDJSON records
+     * @param documentType Document type for all records, or null for per-record
+     *                     documentType fields
+     * @param request      Kick-off URL, echoed in the manifest
+     * @return The accepted job
+     */
+    public BulkJob submit(InputStream in, String documentType, String request) throws IOException {
+        BulkJob job = new BulkJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setDocumentType(documentType);
+        job.setRequest(request);
+        job.setStatus(BulkJob.Status.ACCEPTED);
+        job.setCreatedAt(Instant.now());
+
+        Path dir = jobDir(job);
+        Files.createDirectories(dir);
+        job.setTotal(copyCountingRecords(in, dir.resolve(INPUT_FILE)));
+        persist(job);
+
+        jobs.put(job.getId(), job);
+        jobExecutor.submit(() -> run(job));
+        return job;
+    }
+
+    public BulkJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Records processed per second since the job was started or last resumed.
+     */
+    public double throughput(BulkJob job) {
+        long elapsed = System.nanoTime() - job.getRunStartNanos();
+        if (job.getRunStartNanos() == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return job.getRunProcessed() / (elapsed / 1e9);
+    }
+
+    /**
+     * @return Path of a completed job's output file, or null if the job has no
+     *         such file
+     */
+    public Path outputFile(BulkJob job, String name) {
+        for (BulkJob.OutputFile file : job.getFiles()) {
+            if (file.getName().equals(name)) {
+                return jobDir(job).resolve(name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancels a job if it is still running and deletes its files.
+     *
+     * @return false if there is no such job
+     */
+    public boolean delete(String id) throws IOException {
+        BulkJob job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        BulkJob.Status status = job.getStatus();
+        if (status == BulkJob.Status.COMPLETED || status == BulkJob.Status.FAILED) {
+            deleteDir(jobDir(job));
+        }
+        // Otherwise the runner notices the cancellation and cleans up
+        return true;
+    }
+
+    /**
+     * Reloads every job on disk and resumes the unfinished ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() throws IOException {
+        if (!Files.isDirectory(baseDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(baseDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path jobFile = dir.resolve(JOB_FILE);
+                if (!Files.exists(jobFile)) {
+                    continue;
+                }
+                BulkJob job = objectMapper.readValue(jobFile.toFile(), BulkJob.class);
+                jobs.put(job.getId(), job);
+                if (job.getStatus() == BulkJob.Status.ACCEPTED || job.getStatus() == BulkJob.Status.IN_PROGRESS) {
+                    jobExecutor.submit(() -> run(job));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Running jobs stop at the next record and keep their last checkpoint
+        shuttingDown = true;
+        jobExecutor.shutdownNow();
+        jobExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run(BulkJob job) {
+        Path dir = jobDir(job);
+        try {
+            if (job.isCancelled()) {
+                deleteDir(dir);
+                return;
+            }
+            restoreCheckpoint(job, dir);
+            job.setStatus(BulkJob.Status.IN_PROGRESS);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(Instant.now());
+            }
+            job.setRunProcessed(0);
+            job.setRunStartNanos(System.nanoTime());
+            persist(job);
+
+            try (JobOutput output = new JobOutput(job, dir);
+                    InputStream in = Files.newInputStream(dir.resolve(INPUT_FILE))) {
+                batchService.convert(in, job.getDocumentType(), job.getCheckpointLine(), output);
+                output.checkpoint();
+            }
+            job.setStatus(BulkJob.Status.COMPLETED);
+            job.setCompletedAt(Instant.now());
+            persist(job);
+        } catch (CancellationException e) {
+            // Deleted while running, cleaned up below
+        } catch (Exception e) {
+            if (shuttingDown) {
+                // Resumed from the last checkpoint on the next start
+                return;
+            }
+            job.setStatus(BulkJob.Status.FAILED);
+            job.setError(e.getMessage());
+            try {
+                persist(job);
+            } catch (IOException ignored) {
+                // The in-memory status still reports the failure
+            }
+        }
+        if (job.isCancelled()) {
+            try {
+                deleteDir(dir);
+            } catch (IOException ignored) {
+                // Leftovers are not listed anywhere once the job is removed
+            }
+        }
+    }
+
+    /**
+     * Truncates output written after the last checkpoint and removes files the
+     * checkpoint does not know about.
+     */
+    private void restoreCheckpoint(BulkJob job, Path dir) throws IOException {
+        List<Path> known = new ArrayList<>();
+        for (BulkJob.OutputFile file : job.getFiles()) {
+            Path path = dir.resolve(file.getName());
+            known.add(path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(file.getBytes());
+            }
+        }
+        try (DirectoryStream<Path> outputs = Files.newDirectoryStream(dir, "*" + NDJSON_SUFFIX)) {
+            for (Path path : outputs) {
+                if (!path.getFileName().toString().equals(INPUT_FILE) && !known.contains(path)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rolling chunk files for both output types, plus the checkpoint logic.
+     * Receives converted records in input order from the batch service.
+     */
+    private final class JobOutput implements BatchConversionService.RecordSink, Closeable {
+
+        private final BulkJob job;
+        private final Path dir;
+        private final List<BulkJob.OutputFile> files = new ArrayList<>();
+        private final Map<String, ChunkWriter> writers = new LinkedHashMap<>();
+        private int lastLine;
+        private int sinceCheckpoint;
+
+        JobOutput(BulkJob job, Path dir) {
+            this.job = job;
+            this.dir = dir;
+            this.lastLine = job.getCheckpointLine();
+            for (BulkJob.OutputFile file : job.getFiles()) {
+                files.add(copy(file));
+            }
+            writers.put(BUNDLE_TYPE, new ChunkWriter(BUNDLE_TYPE));
+            writers.put(ERROR_TYPE, new ChunkWriter(ERROR_TYPE));
+        }
+
+        @Override
+        public void accept(int lineNumber, byte[] json, boolean failed) throws IOException {
+            if (job.isCancelled()) {
+                throw new CancellationException();
+            }
+            if (shuttingDown) {
+                throw new IOException("Shutting down");
+            }
+            writers.get(failed ? ERROR_TYPE : BUNDLE_TYPE).write(json);
+            if (failed) {
+                job.setFailed(job.getFailed() + 1);
+            } else {
+                job.setConverted(job.getConverted() + 1);
+            }
+            job.setRunProcessed(job.getRunProcessed() + 1);
+            lastLine = lineNumber;
+            if (++sinceCheckpoint >= checkpointInterval) {
+                checkpoint();
+            }
+        }
+
+        /**
+         * Makes everything written so far durable, then records it in job.json.
+         */
+        void checkpoint() throws IOException {
+            for (ChunkWriter writer : writers.values()) {
+                writer.sync();
+            }
+            List<BulkJob.OutputFile> snapshot = new ArrayList<>();
+            for (BulkJob.OutputFile file : files) {
+                snapshot.add(copy(file));
+            }
+            job.setFiles(snapshot);
+            job.setCheckpointLine(lastLine);
+            persist(job);
+            sinceCheckpoint = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (ChunkWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+
+        private final class ChunkWriter {
+            private final String type;
+            private BulkJob.OutputFile current;
+            private FileChannel channel;
+            private OutputStream out;
+
+            ChunkWriter(String type) {
+                this.type = type;
+                // Continue the last file of this type after a resume
+                for (BulkJob.OutputFile file : files) {
+                    if (file.getType().equals(type)) {
+                        current = file;
+                    }
+                }
+            }
+
+            void write(byte[] json) throws IOException {
+                if (current == null || current.getCount() >= chunkSize) {
+                    roll();
+                } else if (out == null) {
+                    open();
+                }
+                out.write(json);
+                out.write('\n');
+                current.setCount(current.getCount() + 1);
+                current.setBytes(current.getBytes() + json.length + 1);
+            }
+
+            private void roll() throws IOException {
+                close();
+                int index = 1;
+                for (BulkJob.OutputFile file : files) {
+                    if (file.getType().equals(type)) {
+                        index++;
+                    }
+                }
+                current = new BulkJob.OutputFile();
+                current.setType(type);
+                current.setName(String.format("%s-%04d%s", type, index, NDJSON_SUFFIX));
+                files.add(current);
+                open();
+            }
+
+            private void open() throws IOException {
+                channel = FileChannel.open(dir.resolve(current.getName()), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+            }
+
+            void sync() throws IOException {
+                if (out != null) {
+                    out.flush();
+                    channel.force(false);
+                }
+            }
+
+            void close() throws IOException {
+                if (out != null) {
+                    sync();
+                    out.close();
+                    out = null;
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    private static BulkJob.OutputFile copy(BulkJob.OutputFile file) {
+        BulkJob.OutputFile copy = new BulkJob.OutputFile();
+        copy.setType(file.getType());
+        copy.setName(file.getName());
+        copy.setCount(file.getCount());
+        copy.setBytes(file.getBytes());
+        return copy;
+    }
+
+    private Path jobDir(BulkJob job) {
+        return baseDir.resolve(job.getId());
+    }
+
+    /**
+     * Writes job.json via a temp file so a crash never leaves a torn checkpoint.
+     */
+    private void persist(BulkJob job) throws IOException {
+        Path dir = jobDir(job);
+        Path tmp = dir.resolve(JOB_FILE + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), job);
+        Files.move(tmp, dir.resolve(JOB_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Copies the upload to disk and counts its non-blank lines on the way.
+     */
+    private static long copyCountingRecords(InputStream in, Path target) throws IOException {
+        long records = 0;
+        boolean content = false;
+        byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+                for (int i = 0; i < n; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        if (content) {
+                            records++;
+                        }
+                        content = false;
+                    } else if (b != ' ' && b != '\t' && b != '\r') {
+                        content = true;
+                    }
+                }
+            }
+        }
+        return content ? records + 1 : records;
+    }
+
+    private static void deleteDir(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.yourorg.fhir.service;
+
+import com.yourorg.fhir.dto.*;
+import org.hl7.fhir.r4.model.Bundle;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Every document type the service can generate, keyed by a name that follows
+ * its endpoint (e.g. "prescription", "lab-report", "composite-op-consult").
+ * Used by the batch endpoints to pick the DTO and the build method for each
+ * record.
+ */
+@Component
+public class DocumentTypeRegistry {
+
+    /**
+     * One document type: the request DTO it binds and the method that builds
+     * its Bundle.
+     */
+    public static final class DocumentType {
+        private final String name;
+        private final Class<?> dtoType;
+        private final Function<Object, Bundle> builder;
+
+        @SuppressWarnings("unchecked")
+        private <T> DocumentType(String name, Class<T> dtoType, Function<T, Bundle> builder) {
+            this.name = name;
+            this.dtoType = dtoType;
+            this.builder = (Function<Object, Bundle>) builder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<?> getDtoType() {
+            return dtoType;
+        }
+
+        /**
+         * Builds the document Bundle for a DTO of {@link #getDtoType()}.
+         */
+        public Bundle build(Object dto) {
+            return builder.apply(dtoType.cast(dto));
+        }
+    }
+
+    private final Map<String, DocumentType> types = new LinkedHashMap<>();
+
+    public DocumentTypeRegistry(AbdmService abdmService, LabReportService labReportService,
+            InvoiceService invoiceService, IPDischargeSummaryService ipDischargeSummaryService) {
+        register(new DocumentType("prescription", PrescriptionDTO.class, abdmService::buildPrescriptionBundle));
+        register(new DocumentType("op-consult", OpConsultDTO.class, abdmService::buildOpConsultBundle));
+        register(new DocumentType("wellness", WellnessRecordDTO.class, abdmService::buildWellnessBundle));
+        register(new DocumentType("immunization", ImmunizationRecordDTO.class,
+                abdmService::buildImmunizationBundle));
+        register(new DocumentType("health-document", HealthDocumentRecordDTO.class,
+                abdmService::buildHealthDocumentBundle));
+        register(new DocumentType("discharge-summary", DischargeSummaryDTO.class,
+                abdmService::buildDischargeSummaryBundle));
+        register(new DocumentType("lab-report", LabReportDTO.class, labReportService::buildLabReportBundle));
+        register(new DocumentType("composite-op-consult", CompositeRequestDTO.class,
+                abdmService::buildCompositeBundle));
+        register(new DocumentType("invoice", InvoiceDTO.class, invoiceService::buildInvoiceBundle));
+        register(new DocumentType("ip-discharge-summary", IPDischargeSummaryDTO.class,
+                ipDischargeSummaryService::buildIPDischargeSummaryBundle));
+    }
+
+    private void register(DocumentType type) {
+        types.put(type.getName(), type);
+    }
+
+    /**
+     * @param name Document type name, e.g. "prescription"
+     * @return The document type, or null if there is none with that name
+     */
+    public DocumentType get(String name) {
+        return name != null ? types.get(name) : null;
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(types.keySet());
+    }
+}
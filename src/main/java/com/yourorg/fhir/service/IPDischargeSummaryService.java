@@ -1,7 +1,11 @@
 package com.yourorg.fhir.service;
 
 import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.CompositionRegistry;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
 import com.yourorg.fhir.dto.IPDischargeSummaryDTO;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.util.DocumentScope;
 import com.yourorg.fhir.util.FhirUtil;
 import org.hl7.fhir.r4.model.*;
 import org.springframework.stereotype.Service;
@@ -9,18 +13,37 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class IPDischargeSummaryService {
 
     private final AbdmResourceBuilder builder;
+    private final ResourceTemplateCache templates;
+    private final FhirSerializer serializer;
 
-    public IPDischargeSummaryService(AbdmResourceBuilder builder) {
+    public IPDischargeSummaryService(AbdmResourceBuilder builder, ResourceTemplateCache templates,
+            FhirSerializer serializer) {
         this.builder = builder;
+        this.templates = templates;
+        this.serializer = serializer;
     }
 
     public String generateIPDischargeSummary(IPDischargeSummaryDTO dto) {
+        try {
+            // Use the shared HAPI FHIR serializer
+            return serializer.encodeToString(buildIPDischargeSummaryBundle(dto));
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            cause.printStackTrace();
+            return "{\"error\": \"" + cause.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * Builds the {@link #generateIPDischargeSummary} bundle without serializing
+     * it. Failures are rethrown instead of being turned into an error body.
+     */
+    public Bundle buildIPDischargeSummaryBundle(IPDischargeSummaryDTO dto) {
         try {
             Date visitDate = FhirUtil.parseDate(dto.getAdmissionDate()); // Use admission date as base or discharge date
             Date dischargeDate = FhirUtil.parseDate(dto.getDischargeDate());
@@ -29,8 +52,8 @@ public class IPDischargeSummaryService {
             // 1. Patient & Practitioner & Organization
             Patient patient = builder.buildPatient(dto.getPatientName(), dto.getPatientId(), dto.getPatientGender(),
                     dto.getPatientDob());
-            Practitioner doc = builder.buildPractitioner(dto.getDoctorName(), dto.getDoctorLicense());
-            Organization org = builder.buildOrganization(dto.getHospitalName());
+            Practitioner doc = templates.practitioner(dto.getDoctorName(), dto.getDoctorLicense());
+            Organization org = templates.organization(dto.getHospitalName());
 
             // 2. Encounter
             Encounter encounter = builder.buildEncounter(patient, doc, org, dto.getAdmissionDate(), visitDate);
@@ -130,19 +153,19 @@ public class IPDischargeSummaryService {
             }
 
             // 4. Composition
-            Composition composition = builder.buildIPDischargeSummaryComposition(patient, doc, org, encounter,
-                    chiefComplaints, medicalHistory, investigations, procedures, medications, carePlanList, documents,
-                    dischargeDate);
+            Composition composition = builder.buildComposition(CompositionRegistry.IP_DISCHARGE_SUMMARY, patient,
+                    doc, org, encounter, dischargeDate, chiefComplaints, medicalHistory, investigations, procedures,
+                    medications, carePlanList, documents);
 
             // 5. Bundle
             Bundle bundle = new Bundle();
-            bundle.setId(UUID.randomUUID().toString());
+            bundle.setId(builder.newId());
             bundle.setType(Bundle.BundleType.DOCUMENT);
-            bundle.setTimestamp(new Date());
-            bundle.getMeta().setVersionId("1").setLastUpdated(new Date())
+            bundle.setTimestamp(DocumentScope.generatedAt(dischargeDate));
+            bundle.getMeta().setVersionId("1").setLastUpdated(DocumentScope.generatedAt(dischargeDate))
                     .addProfile("https://nrces.in/ndhm/fhir/r4/StructureDefinition/DocumentBundle");
 
-            bundle.setIdentifier(new Identifier().setSystem("http://hip.in").setValue(UUID.randomUUID().toString()));
+            bundle.setIdentifier(new Identifier().setSystem("http://hip.in").setValue(builder.newId()));
 
             // Add entries
             addEntry(bundle, composition);
@@ -169,13 +192,10 @@ public class IPDischargeSummaryService {
             for (DocumentReference d : documents)
                 addEntry(bundle, d);
 
-            // Use HAPI FHIR Parser
-            ca.uhn.fhir.context.FhirContext ctx = ca.uhn.fhir.context.FhirContext.forR4();
-            return ctx.newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle);
+            return bundle;
 
         } catch (Exception e) {
-            e.printStackTrace();
-            return "{\"error\": \"" + e.getMessage() + "\"}";
+            throw new RuntimeException("Error generating IP Discharge Summary Bundle", e);
         }
     }
 
@@ -1,7 +1,11 @@
 package com.yourorg.fhir.service;
 
 import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.CompositionRegistry;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
 import com.yourorg.fhir.dto.InvoiceDTO;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.util.DocumentScope;
 import com.yourorg.fhir.util.FhirConstants;
 import com.yourorg.fhir.util.FhirUtil;
 import org.hl7.fhir.r4.model.*;
@@ -16,13 +20,25 @@ import java.util.List;
 public class InvoiceService {
 
     private final AbdmResourceBuilder resourceBuilder;
+    private final ResourceTemplateCache templates;
+    private final FhirSerializer serializer;
 
     @Autowired
-    public InvoiceService(AbdmResourceBuilder resourceBuilder) {
+    public InvoiceService(AbdmResourceBuilder resourceBuilder, ResourceTemplateCache templates,
+            FhirSerializer serializer) {
         this.resourceBuilder = resourceBuilder;
+        this.templates = templates;
+        this.serializer = serializer;
     }
 
     public String generateInvoiceBundle(InvoiceDTO dto) {
+        return serializer.encodeToString(buildInvoiceBundle(dto));
+    }
+
+    /**
+     * Builds the {@link #generateInvoiceBundle} bundle without serializing it.
+     */
+    public Bundle buildInvoiceBundle(InvoiceDTO dto) {
         try {
             // 1. Create Patient
             Patient patient = resourceBuilder.buildPatient(
@@ -32,7 +48,7 @@ public class InvoiceService {
                     dto.getPatientDob());
 
             // 2. Create Practitioner
-            Practitioner practitioner = resourceBuilder.buildPractitioner(
+            Practitioner practitioner = templates.practitioner(
                     dto.getPractitionerName(),
                     "Medical Practitioner");
 
@@ -60,22 +76,20 @@ public class InvoiceService {
 
             // 5. Create Composition
             Date visitDate = FhirUtil.parseDate(dto.getVisitDate());
-            Composition composition = resourceBuilder.buildInvoiceComposition(
-                    patient,
-                    practitioner,
-                    visitDate,
-                    invoice);
+            invoice.setDate(DocumentScope.generatedAt(visitDate));
+            Composition composition = resourceBuilder.buildComposition(CompositionRegistry.INVOICE, patient,
+                    practitioner, null, null, visitDate, List.of(invoice));
 
             // 6. Create Bundle
             Bundle bundle = new Bundle();
-            bundle.setId(java.util.UUID.randomUUID().toString());
+            bundle.setId(resourceBuilder.newId());
             bundle.setType(Bundle.BundleType.DOCUMENT);
-            bundle.setTimestamp(new Date());
+            bundle.setTimestamp(DocumentScope.generatedAt(visitDate));
 
             // Add Identifier (Required)
             bundle.setIdentifier(new Identifier()
                     .setSystem("https://www.xyz-hospital.com/bundles")
-                    .setValue(java.util.UUID.randomUUID().toString()));
+                    .setValue(resourceBuilder.newId()));
 
             // Set Meta with Profile and Version
             bundle.setMeta(new Meta()
@@ -92,9 +106,7 @@ public class InvoiceService {
                 bundle.addEntry().setFullUrl("urn:uuid:" + item.getId()).setResource(item);
             }
 
-            // Serialize
-            ca.uhn.fhir.context.FhirContext ctx = ca.uhn.fhir.context.FhirContext.forR4();
-            return ctx.newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle);
+            return bundle;
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating Invoice Bundle", e);
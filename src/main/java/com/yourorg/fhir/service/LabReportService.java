@@ -1,12 +1,13 @@
 package com.yourorg.fhir.service;
 
-import ca.uhn.fhir.context.FhirContext;
 import com.yourorg.fhir.builder.DiagnosticReportBuilder;
 import com.yourorg.fhir.builder.DiagnosticReportBundleBuilder;
 import com.yourorg.fhir.builder.ObservationBuilder;
 
 import com.yourorg.fhir.dto.LabReportDTO;
+import com.yourorg.fhir.serializer.FhirSerializer;
 import com.yourorg.fhir.util.FhirUtil;
+import com.yourorg.fhir.util.IdGenerator;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.DiagnosticReport;
@@ -19,20 +20,23 @@ import org.springframework.stereotype.Service;
 @Service
 public class LabReportService {
 
-    private final FhirContext fhirContext;
+    private final FhirSerializer serializer;
     private final DiagnosticReportBuilder diagnosticReportBuilder;
     private final DiagnosticReportBundleBuilder diagnosticReportBundleBuilder;
     private final ObservationBuilder observationBuilder;
+    private final IdGenerator ids;
 
     public LabReportService(
-            FhirContext fhirContext,
+            FhirSerializer serializer,
             DiagnosticReportBuilder diagnosticReportBuilder,
             DiagnosticReportBundleBuilder diagnosticReportBundleBuilder,
-            ObservationBuilder observationBuilder) {
-        this.fhirContext = fhirContext;
+            ObservationBuilder observationBuilder,
+            IdGenerator ids) {
+        this.serializer = serializer;
         this.diagnosticReportBuilder = diagnosticReportBuilder;
         this.diagnosticReportBundleBuilder = diagnosticReportBundleBuilder;
         this.observationBuilder = observationBuilder;
+        this.ids = ids;
     }
 
     /**
@@ -48,12 +52,18 @@ public class LabReportService {
      * @return Serialized JSON String of the FHIR Bundle
      */
     public String createLabReport(LabReportDTO dto) {
+        return serializer.encodeToString(buildLabReportBundle(dto));
+    }
 
+    /**
+     * Builds the {@link #createLabReport} bundle without serializing it.
+     */
+    public Bundle buildLabReportBundle(LabReportDTO dto) {
         // 1. Build Date
         java.util.Date visitDate = FhirUtil.parseDate(dto.getVisitDate());
 
         // 1a. Build Patient using ID from input
-        Patient patient = FhirUtil.buildPatient(dto.getPatientId(), dto.getPatientName());
+        Patient patient = FhirUtil.buildPatient(ids, dto.getPatientId(), dto.getPatientName());
 
         // 1b. Build Practitioner (mocked)
         Practitioner practitioner = FhirUtil.buildPractitioner();
@@ -84,17 +94,6 @@ public class LabReportService {
         }
 
         // 4. Wrap all resources into an ABDM-compliant Document Bundle
-        Bundle bundle = diagnosticReportBundleBuilder.build(patient, practitioner, report, observations, visitDate);
-
-        // Debug output
-        System.out.println(
-                fhirContext.newJsonParser()
-                        .setPrettyPrint(true)
-                        .encodeResourceToString(bundle));
-
-        // 5. Serialize to JSON
-        return fhirContext.newJsonParser()
-                .setPrettyPrint(true)
-                .encodeResourceToString(bundle);
+        return diagnosticReportBundleBuilder.build(patient, practitioner, report, observations, visitDate);
     }
 }
@@ -0,0 +1,377 @@
+package com.yourorg.fhir.terminology;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix search over the displays and codes of one code system, for
+ * type-ahead pickers: "parac" finds "Paracetamol 500 mg oral tablet", "diab"
+ * finds "Type 2 diabetes mellitus" (any word may start the match) and "4405"
+ * finds code 44054006.
+ *
+ * <p>
+ * Text is folded to lower-case letters and digits, accents removed, with
+ * single spaces between words ({@link #normalize}). Every word start of every
+ * display, and every code, is a key; the keys are sorted, which makes the array
+ * a flattened trie: the keys under any trie node, i.e. sharing a prefix, are
+ * one contiguous range found by two binary searches. Results are ranked
+ * matches on the first word, then shorter displays, then index order, one per
+ * concept. Near the
+ * root those ranges hold a large share of the dictionary, so the top results
+ * for every prefix of up to {@value #PRECOMPUTED_LENGTH} characters are
+ * computed at build time; longer prefixes scan their (short) range.
+ *
+ * <p>
+ * Keys are offsets into one shared char array, not strings, and results are
+ * decoded from the {@link TerminologyIndex} only when returned, so a full
+ * SNOMED CT extract costs a few tens of MB of heap. Immutable once built and
+ * safe for concurrent use.
+ */
+public final class AutocompleteIndex {
+
+    static final int PRECOMPUTED_LENGTH = 3;
+
+    private static final char END = '\0';
+
+    private final TerminologyIndex terminology;
+    private final int maxResults;
+    /** Normalized segments (display or code), each followed by {@link #END}. */
+    private final char[] text;
+    /** Start of each segment in {@link #text}, ascending. */
+    private final int[] segmentStart;
+    /** Terminology record of each segment. */
+    private final int[] segmentRecord;
+    /** Key positions in {@link #text}, sorted by the text from there. */
+    private final int[] keys;
+    /** Segment of each key. */
+    private final int[] keySegment;
+    /** Best segments for short prefixes, best first. */
+    private final Map<String, int[]> precomputed;
+
+    private AutocompleteIndex(TerminologyIndex terminology, int maxResults, char[] text, int[] segmentStart,
+            int[] segmentRecord, int[] keys) {
+        this.terminology = terminology;
+        this.maxResults = maxResults;
+        this.text = text;
+        this.segmentStart = segmentStart;
+        this.segmentRecord = segmentRecord;
+        this.keys = keys;
+        this.keySegment = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keySegment[i] = segmentOf(keys[i]);
+        }
+        this.precomputed = precompute();
+    }
+
+    /**
+     * Builds one index per code system over the active concepts of a
+     * terminology index.
+     *
+     * @param maxResults Most results a search can return
+     */
+    public static Map<String, AutocompleteIndex> build(TerminologyIndex terminology, int maxResults) {
+        Map<String, Builder> builders = new LinkedHashMap<>();
+        terminology.forEach((record, system, code, display, active) -> {
+            if (active) {
+                builders.computeIfAbsent(system, s -> new Builder()).add(record, code, display);
+            }
+        });
+        Map<String, AutocompleteIndex> indexes = new HashMap<>();
+        builders.forEach((system, builder) -> indexes.put(system, builder.build(terminology, maxResults)));
+        return indexes;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param query Typed prefix; normalized like the displays
+     * @param count Number of results wanted, capped at the build-time maximum
+     * @return Best matching concepts, best first
+     */
+    public List<TerminologyIndex.Concept> search(String query, int count) {
+        String prefix = normalize(query);
+        int limit = Math.min(count, maxResults);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] segments;
+        if (prefix.length() <= PRECOMPUTED_LENGTH) {
+            segments = precomputed.getOrDefault(prefix, new int[0]);
+        } else {
+            char[] chars = prefix.toCharArray();
+            segments = top(lowerBound(chars), upperBound(chars), limit);
+        }
+        List<TerminologyIndex.Concept> results = new ArrayList<>(Math.min(limit, segments.length));
+        for (int i = 0; i < segments.length && i < limit; i++) {
+            results.add(terminology.concept(segmentRecord[segments[i]]));
+        }
+        return results;
+    }
+
+    /**
+     * Lower case, accents removed, every run of other characters replaced by
+     * one space, trimmed.
+     */
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return out.toString();
+    }
+
+    // Ranking: first-word matches before later words, then shorter segments,
+    // then lower segment (index order). Lower is better.
+    private long score(int key) {
+        int segment = keySegment[key];
+        int start = segmentStart[segment];
+        long laterWord = keys[key] == start ? 0 : 1;
+        return laterWord << 62 | (long) segmentLength(segment) << 32 | segment;
+    }
+
+    private int segmentLength(int segment) {
+        int end = segment + 1 < segmentStart.length ? segmentStart[segment + 1] : text.length;
+        return end - segmentStart[segment] - 1;
+    }
+
+    /**
+     * Best segments among keys [from, to), one per terminology record.
+     */
+    private int[] top(int from, int to, int limit) {
+        int[] best = new int[limit];
+        long[] bestScore = new long[limit];
+        int size = 0;
+        for (int key = from; key < to; key++) {
+            long score = score(key);
+            if (size == limit && score >= bestScore[size - 1]) {
+                continue;
+            }
+            int record = segmentRecord[keySegment[key]];
+            int existing = -1;
+            for (int i = 0; i < size; i++) {
+                if (segmentRecord[best[i]] == record) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing >= 0) {
+                if (bestScore[existing] <= score) {
+                    continue;
+                }
+                // Same concept matched better (e.g. on its code): drop the old entry
+                System.arraycopy(best, existing + 1, best, existing, size - existing - 1);
+                System.arraycopy(bestScore, existing + 1, bestScore, existing, size - existing - 1);
+                size--;
+            }
+            int at = size < limit ? size : limit - 1;
+            while (at > 0 && bestScore[at - 1] > score) {
+                best[at] = best[at - 1];
+                bestScore[at] = bestScore[at - 1];
+                at--;
+            }
+            best[at] = keySegment[key];
+            bestScore[at] = score;
+            if (size < limit) {
+                size++;
+            }
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    private Map<String, int[]> precompute() {
+        Map<String, int[]> result = new HashMap<>();
+        for (int length = 1; length <= PRECOMPUTED_LENGTH; length++) {
+            int from = 0;
+            while (from < keys.length) {
+                if (!hasLength(keys[from], length)) {
+                    from++;
+                    continue;
+                }
+                char[] prefix = Arrays.copyOfRange(text, keys[from], keys[from] + length);
+                int to = upperBound(prefix);
+                result.put(new String(prefix), top(from, to, maxResults));
+                from = to;
+            }
+        }
+        return result;
+    }
+
+    private boolean hasLength(int position, int length) {
+        for (int i = 0; i < length; i++) {
+            if (text[position + i] == END) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(char[] prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(keys[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(char[] prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(keys[mid], prefix) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key text at a position, cut to the prefix length, with the
+     * prefix. {@link #END} sorts first and never occurs in a prefix, so the
+     * loop stops at the end of the segment.
+     */
+    private int comparePrefix(int position, char[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            int diff = text[position + i] - prefix[i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private int segmentOf(int position) {
+        int found = Arrays.binarySearch(segmentStart, position);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    private static final class Builder {
+        private final StringBuilder text = new StringBuilder();
+        private int[] segmentStart = new int[64];
+        private int[] segmentRecord = new int[64];
+        private int segments;
+        private int[] keys = new int[256];
+        private int keyCount;
+
+        void add(int record, String code, String display) {
+            String words = normalize(display);
+            if (!words.isEmpty()) {
+                int start = segment(record, words);
+                addKey(start);
+                for (int i = 0; i < words.length(); i++) {
+                    if (words.charAt(i) == ' ') {
+                        addKey(start + i + 1);
+                    }
+                }
+            }
+            String codeKey = normalize(code);
+            if (!codeKey.isEmpty()) {
+                addKey(segment(record, codeKey));
+            }
+        }
+
+        private int segment(int record, String value) {
+            if (segments == segmentStart.length) {
+                segmentStart = Arrays.copyOf(segmentStart, segments * 2);
+                segmentRecord = Arrays.copyOf(segmentRecord, segments * 2);
+            }
+            int start = text.length();
+            segmentStart[segments] = start;
+            segmentRecord[segments++] = record;
+            text.append(value).append(END);
+            return start;
+        }
+
+        private void addKey(int position) {
+            if (keyCount == keys.length) {
+                keys = Arrays.copyOf(keys, keyCount * 2);
+            }
+            keys[keyCount++] = position;
+        }
+
+        AutocompleteIndex build(TerminologyIndex terminology, int maxResults) {
+            char[] chars = new char[text.length()];
+            text.getChars(0, chars.length, chars, 0);
+            int[] sorted = Arrays.copyOf(keys, keyCount);
+            sortBySuffix(sorted, chars);
+            return new AutocompleteIndex(terminology, maxResults, chars, Arrays.copyOf(segmentStart, segments),
+                    Arrays.copyOf(segmentRecord, segments), sorted);
+        }
+
+        /**
+         * Bottom-up merge sort of positions by the text from each position to
+         * the end of its segment; ties keep position order, so the build is
+         * deterministic.
+         */
+        private static void sortBySuffix(int[] positions, char[] text) {
+            int[] from = positions;
+            int[] to = new int[positions.length];
+            for (int width = 1; width < positions.length; width *= 2) {
+                for (int low = 0; low < positions.length; low += 2 * width) {
+                    int mid = Math.min(low + width, positions.length);
+                    int high = Math.min(low + 2 * width, positions.length);
+                    int left = low;
+                    int right = mid;
+                    for (int out = low; out < high; out++) {
+                        if (left < mid && (right >= high || compareSuffix(text, from[left], from[right]) <= 0)) {
+                            to[out] = from[left++];
+                        } else {
+                            to[out] = from[right++];
+                        }
+                    }
+                }
+                int[] swap = from;
+                from = to;
+                to = swap;
+            }
+            if (from != positions) {
+                System.arraycopy(from, 0, positions, 0, positions.length);
+            }
+        }
+
+        private static int compareSuffix(char[] text, int a, int b) {
+            while (true) {
+                char ca = text[a++];
+                char cb = text[b++];
+                if (ca != cb) {
+                    return ca - cb;
+                }
+                if (ca == END) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.yourorg.fhir.terminology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a terminology index file written by
+ * {@link TerminologyIndexWriter}: code to preferred display and active flag,
+ * keyed by code system and code.
+ *
+ * <p>
+ * The file is an open-addressing hash table followed by the records, so a
+ * lookup is one hash, usually one probe and one key comparison, straight on
+ * the (memory-mapped) buffer. Nothing is loaded onto the heap up front, which
+ * keeps a full LOINC plus SNOMED CT index out of the old generation; only the
+ * display of a hit is decoded. Safe for concurrent use, as every read is
+ * absolute.
+ *
+ * <pre>
+ * header   int magic, int version, int slotCount (power of two), int entryCount
+ * slots    slotCount x (int keyHash, int recordOffset + 1; 0 = empty)
+ * records  short keyLength, key (ASCII "system|code"), byte flags,
+ *          short displayLength, display (UTF-8)
+ * </pre>
+ */
+public final class TerminologyIndex {
+
+    static final int MAGIC = 0x46544958; // "FTIX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SLOT_SIZE = 8;
+    static final byte FLAG_ACTIVE = 1;
+
+    /**
+     * One concept of the index.
+     */
+    public static final class Concept {
+        private final String system;
+        private final String code;
+        private final String display;
+        private final boolean active;
+
+        Concept(String system, String code, String display, boolean active) {
+            this.system = system;
+            this.code = code;
+            this.display = display;
+            this.active = active;
+        }
+
+        public String getSystem() {
+            return system;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getDisplay() {
+            return display;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    /**
+     * Receives each record of the index; see {@link #forEach}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param record Record handle for {@link #concept(int)}
+         */
+        void visit(int record, String system, String code, String display, boolean active);
+    }
+
+    private final ByteBuffer buffer;
+    private final int mask;
+    private final int entryCount;
+    private final int recordsStart;
+
+    /**
+     * @param buffer Index contents; only read with absolute gets
+     */
+    public TerminologyIndex(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a terminology index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported terminology index version " + buffer.getInt(4));
+        }
+        int slotCount = buffer.getInt(8);
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Corrupt terminology index: " + slotCount + " slots");
+        }
+        this.buffer = buffer;
+        this.mask = slotCount - 1;
+        this.entryCount = buffer.getInt(12);
+        this.recordsStart = HEADER_SIZE + slotCount * SLOT_SIZE;
+    }
+
+    /**
+     * Memory-maps an index file. The mapping stays valid after the channel is
+     * closed and is released when the index is garbage collected.
+     */
+    public static TerminologyIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TerminologyIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * @return Preferred display, or null if the code is not in the index
+     */
+    public String display(String system, String code) {
+        int record = find(system, code);
+        if (record < 0) {
+            return null;
+        }
+        int displayAt = record + 2 + (buffer.getShort(record) & 0xFFFF) + 1;
+        byte[] display = new byte[buffer.getShort(displayAt) & 0xFFFF];
+        buffer.get(displayAt + 2, display);
+        return new String(display, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Whether the code is in the index and flagged inactive
+     */
+    public boolean isInactive(String system, String code) {
+        int record = find(system, code);
+        return record >= 0 && (buffer.get(record + 2 + (buffer.getShort(record) & 0xFFFF)) & FLAG_ACTIVE) == 0;
+    }
+
+    /**
+     * Visits every record in file order, decoding each one. Meant for building
+     * secondary indexes at startup, not for lookups.
+     */
+    public void forEach(RecordVisitor visitor) {
+        for (int record = recordsStart; record < buffer.capacity();) {
+            Concept concept = concept(record);
+            visitor.visit(record, concept.system, concept.code, concept.display, concept.active);
+            int keyLength = buffer.getShort(record) & 0xFFFF;
+            int displayAt = record + 2 + keyLength + 1;
+            record = displayAt + 2 + (buffer.getShort(displayAt) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Decodes the record at a handle passed to a {@link RecordVisitor}.
+     */
+    public Concept concept(int record) {
+        int keyLength = buffer.getShort(record) & 0xFFFF;
+        byte[] key = new byte[keyLength];
+        buffer.get(record + 2, key);
+        String systemAndCode = new String(key, StandardCharsets.US_ASCII);
+        int separator = systemAndCode.lastIndexOf('|');
+        boolean active = (buffer.get(record + 2 + keyLength) & FLAG_ACTIVE) != 0;
+        int displayAt = record + 2 + keyLength + 1;
+        byte[] display = new byte[buffer.getShort(displayAt) & 0xFFFF];
+        buffer.get(displayAt + 2, display);
+        return new Concept(systemAndCode.substring(0, separator), systemAndCode.substring(separator + 1),
+                new String(display, StandardCharsets.UTF_8), active);
+    }
+
+    /**
+     * Same as {@code (system + "|" + code).hashCode()}, spread, without
+     * building the key. The writer uses it on the key string.
+     */
+    static int hash(String system, String code) {
+        int h = 0;
+        for (int i = 0; i < system.length(); i++) {
+            h = 31 * h + system.charAt(i);
+        }
+        h = 31 * h + '|';
+        for (int i = 0; i < code.length(); i++) {
+            h = 31 * h + code.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return Absolute offset of the record, or -1
+     */
+    private int find(String system, String code) {
+        if (system == null || code == null) {
+            return -1;
+        }
+        int hash = hash(system, code);
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int at = HEADER_SIZE + slot * SLOT_SIZE;
+            int offset = buffer.getInt(at + 4);
+            if (offset == 0) {
+                return -1;
+            }
+            if (buffer.getInt(at) == hash) {
+                int record = recordsStart + offset - 1;
+                if (keyEquals(record, system, code)) {
+                    return record;
+                }
+            }
+        }
+    }
+
+    private boolean keyEquals(int record, String system, String code) {
+        int length = buffer.getShort(record) & 0xFFFF;
+        if (length != system.length() + 1 + code.length()) {
+            return false;
+        }
+        int at = record + 2;
+        for (int i = 0; i < system.length(); i++) {
+            if (buffer.get(at++) != system.charAt(i)) {
+                return false;
+            }
+        }
+        if (buffer.get(at++) != '|') {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (buffer.get(at++) != code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
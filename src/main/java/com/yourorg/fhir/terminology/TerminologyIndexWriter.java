@@ -0,0 +1,165 @@
+package com.yourorg.fhir.terminology;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link TerminologyIndex} file from tab-separated lines
+ * {@code system<TAB>code<TAB>display[<TAB>active]}, where active is
+ * {@code 1}/{@code 0} or {@code true}/{@code false} (default active). Blank
+ * lines and lines starting with {@code #} are skipped; a code listed twice
+ * keeps its last display.
+ *
+ * <p>
+ * Run offline against extracts of the LOINC table and the SNOMED CT
+ * descriptions we use:
+ *
+ * <pre>
+ * java -cp fhir-service.jar -Dloader.main=com.yourorg.fhir.terminology.TerminologyIndexWriter \
+ *     org.springframework.boot.loader.PropertiesLauncher loinc.tsv snomed.tsv terminology.idx
+ * </pre>
+ */
+public final class TerminologyIndexWriter {
+
+    private static final class Concept {
+        final byte[] key;
+        final int hash;
+        final byte[] display;
+        final boolean active;
+
+        Concept(byte[] key, int hash, byte[] display, boolean active) {
+            this.key = key;
+            this.hash = hash;
+            this.display = display;
+            this.active = active;
+        }
+    }
+
+    private final Map<String, Concept> concepts = new LinkedHashMap<>();
+
+    public TerminologyIndexWriter add(String system, String code, String display, boolean active) {
+        String key = system + "|" + code;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) > 127) {
+                throw new IllegalArgumentException("Code system and code must be ASCII: " + key);
+            }
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+        byte[] displayBytes = display.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF || displayBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key or display too long: " + key);
+        }
+        concepts.put(key, new Concept(keyBytes, TerminologyIndex.hash(system, code), displayBytes, active));
+        return this;
+    }
+
+    /**
+     * Adds every concept of a TSV source (see the class comment).
+     */
+    public TerminologyIndexWriter addTsv(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 3) {
+                throw new IOException("Line " + lineNumber + ": expected system, code and display");
+            }
+            boolean active = fields.length < 4 || fields[3].equals("1") || fields[3].equalsIgnoreCase("true");
+            add(fields[0].trim(), fields[1].trim(), fields[2].trim(), active);
+        }
+        return this;
+    }
+
+    public int size() {
+        return concepts.size();
+    }
+
+    public void write(OutputStream out) throws IOException {
+        int slotCount = Integer.highestOneBit(Math.max(2, concepts.size() * 2 - 1)) << 1;
+        int[] slotHashes = new int[slotCount];
+        int[] slotOffsets = new int[slotCount];
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(concepts.size() * 64);
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        for (Concept concept : concepts.values()) {
+            int offset = records.size();
+            records.writeShort(concept.key.length);
+            records.write(concept.key);
+            records.writeByte(concept.active ? TerminologyIndex.FLAG_ACTIVE : 0);
+            records.writeShort(concept.display.length);
+            records.write(concept.display);
+
+            int slot = concept.hash & (slotCount - 1);
+            while (slotOffsets[slot] != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slotHashes[slot] = concept.hash;
+            slotOffsets[slot] = offset + 1;
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(TerminologyIndex.MAGIC);
+        data.writeInt(TerminologyIndex.VERSION);
+        data.writeInt(slotCount);
+        data.writeInt(concepts.size());
+        for (int slot = 0; slot < slotCount; slot++) {
+            data.writeInt(slotHashes[slot]);
+            data.writeInt(slotOffsets[slot]);
+        }
+        recordBytes.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * The index in a heap buffer, for small indexes built at startup.
+     */
+    public ByteBuffer toByteBuffer() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * {@code TerminologyIndexWriter source.tsv... index-file}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TerminologyIndexWriter <source.tsv>... <index-file>");
+            System.exit(2);
+        }
+        TerminologyIndexWriter writer = new TerminologyIndexWriter();
+        for (int i = 0; i < args.length - 1; i++) {
+            try (Reader source = Files.newBufferedReader(Path.of(args[i]), StandardCharsets.UTF_8)) {
+                writer.addTsv(source);
+            }
+        }
+        Path target = Path.of(args[args.length - 1]);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            writer.write(out);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Wrote " + writer.size() + " concepts to " + target);
+    }
+}
@@ -0,0 +1,113 @@
+package com.yourorg.fhir.terminology;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preferred displays for the LOINC and SNOMED CT codes we send, so codings
+ * carry the display a strict validator expects rather than whatever the caller
+ * typed.
+ *
+ * <p>
+ * Backed by the memory-mapped index file {@code fhir.terminology.index}, built
+ * with {@link TerminologyIndexWriter}. Without one, a small index of the
+ * vital-sign and medication displays in {@code terminology/seed-displays.tsv}
+ * is built on the heap at startup.
+ *
+ * <p>
+ * The same concepts back {@link #autocomplete}: an {@link AutocompleteIndex}
+ * per code system, built from the index at startup.
+ */
+@Component
+public class TerminologyService {
+
+    private static final Logger log = LoggerFactory.getLogger(TerminologyService.class);
+
+    static final String SEED_RESOURCE = "terminology/seed-displays.tsv";
+
+    private final TerminologyIndex index;
+    private final Map<String, AutocompleteIndex> autocomplete;
+
+    public TerminologyService(@Value("${fhir.terminology.index:}") String indexFile,
+            @Value("${fhir.terminology.autocomplete.max-results:20}") int autocompleteMaxResults) {
+        this.index = load(indexFile);
+        long start = System.nanoTime();
+        this.autocomplete = AutocompleteIndex.build(index, autocompleteMaxResults);
+        log.info("Built autocomplete for {} code systems in {} ms", autocomplete.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Service over the seed displays only.
+     */
+    public static TerminologyService seed() {
+        return new TerminologyService("", 20);
+    }
+
+    /**
+     * @param system   Code system URL, e.g. {@code http://loinc.org}
+     * @param code     Code in that system
+     * @param fallback Display to use when the code is not in the index
+     * @return The preferred display, or {@code fallback}
+     */
+    public String display(String system, String code, String fallback) {
+        String display = index.display(system, code);
+        return display != null ? display : fallback;
+    }
+
+    /**
+     * @return Whether the index knows the code as inactive (retired or
+     *         deprecated); unknown codes are not reported
+     */
+    public boolean isInactive(String system, String code) {
+        return index.isInactive(system, code);
+    }
+
+    /**
+     * @param system Code system URL
+     * @param query  What the user has typed so far
+     * @param count  Number of results wanted
+     * @return Active concepts of the system whose display (any word) or code
+     *         starts with the query, best first; empty for an unknown system
+     */
+    public List<TerminologyIndex.Concept> autocomplete(String system, String query, int count) {
+        AutocompleteIndex systemIndex = autocomplete.get(system);
+        return systemIndex != null ? systemIndex.search(query, count) : List.of();
+    }
+
+    private static TerminologyIndex load(String indexFile) {
+        if (!indexFile.isBlank()) {
+            Path path = Path.of(indexFile);
+            if (Files.isReadable(path)) {
+                try {
+                    TerminologyIndex index = TerminologyIndex.open(path);
+                    log.info("Loaded {} terminology displays from {}", index.size(), path);
+                    return index;
+                } catch (IOException | IllegalArgumentException e) {
+                    log.warn("Cannot read terminology index {}, using the seed displays: {}", path, e.getMessage());
+                }
+            } else {
+                log.warn("Terminology index {} not found, using the seed displays", path);
+            }
+        }
+        try (Reader seed = new InputStreamReader(new ClassPathResource(SEED_RESOURCE).getInputStream(),
+                StandardCharsets.UTF_8)) {
+            return new TerminologyIndex(new TerminologyIndexWriter().addTsv(seed).toByteBuffer());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.yourorg.fhir.util;
+
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+
+/**
+ * Fixed codings the builders put in every document (observation categories,
+ * blood pressure codes, identifier types, ...), declared once.
+ *
+ * <p>
+ * HAPI Codings are mutable, so every call returns a new instance that belongs
+ * to the resource it is put in.
+ */
+public enum CodingCatalog {
+
+    // --- Observation categories ---
+    VITAL_SIGNS_CATEGORY(FhirConstants.SYSTEM_OBS_CATEGORY, "vital-signs", "Vital Signs"),
+    LABORATORY_CATEGORY(FhirConstants.SYSTEM_OBS_CATEGORY, "laboratory", "Laboratory"),
+
+    // --- Blood pressure ---
+    BP_PANEL(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_BP_PANEL,
+            "Blood pressure panel with all children optional"),
+    SYSTOLIC_BP(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_SYSTOLIC, "Systolic blood pressure"),
+    DIASTOLIC_BP(FhirConstants.SYSTEM_LOINC, FhirConstants.LOINC_DIASTOLIC, "Diastolic blood pressure"),
+
+    // --- Identifier types (v2-0203) ---
+    MEDICAL_RECORD_NUMBER(FhirConstants.SYSTEM_ID_TYPE, "MR", "Medical record number"),
+    MEDICAL_LICENSE_NUMBER(FhirConstants.SYSTEM_ID_TYPE, "MD", "Medical License number"),
+    ORGANIZATION_IDENTIFIER(FhirConstants.SYSTEM_ID_TYPE, "XX", "Organization identifier"),
+
+    // --- Encounter class ---
+    INPATIENT_ENCOUNTER(FhirConstants.SYSTEM_ENCOUNTER_CLASS, FhirConstants.CODE_ENCOUNTER_INPATIENT,
+            "inpatient encounter"),
+
+    // --- Allergy status ---
+    ALLERGY_ACTIVE("http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "active", "Active"),
+    ALLERGY_INACTIVE("http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "inactive", "Inactive"),
+    ALLERGY_RESOLVED("http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "resolved", "Resolved"),
+    ALLERGY_CONFIRMED("http://terminology.hl7.org/CodeSystem/allergyintolerance-verification", "confirmed",
+            "Confirmed"),
+
+    // --- Document types ---
+    LABORATORY_REPORT(FhirConstants.SYSTEM_SNOMED, "4241000179101", "Laboratory report"),
+
+    // --- Billing ---
+    BILLING_MEDICINES("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-billing-codes", "05", "Medicines"),
+    BILLING_PHARMACY("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-billing-codes", "01", "Pharmacy"),
+    PRICE_RATE("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-price-components", "01", "Rate"),
+    PRICE_MRP("https://nrces.in/ndhm/fhir/r4/CodeSystem/ndhm-price-components", "00", "MRP");
+
+    private final Coding prototype;
+
+    CodingCatalog(String system, String code, String display) {
+        this.prototype = new Coding(system, code, display);
+    }
+
+    /**
+     * @return A new Coding
+     */
+    public Coding coding() {
+        return prototype.copy();
+    }
+
+    /**
+     * @return A new CodeableConcept holding a new Coding
+     */
+    public CodeableConcept concept() {
+        return new CodeableConcept(prototype.copy());
+    }
+}
@@ -0,0 +1,154 @@
+package com.yourorg.fhir.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Content-derived generation of one document (opt-in with
+ * {@code fhir.ids.content-derived}). While a scope is open on a thread, the
+ * {@link IdGenerator} bean hands out name-based UUIDs (version 5) derived from
+ * the document type, the input content and the position of the id in the
+ * build, and generation timestamps are the document's own date. The same input
+ * therefore yields the same bundle, byte for byte, which is what makes ETags
+ * and downstream deduplication work.
+ *
+ * <p>
+ * Ids are numbered in the order the build asks for them, so a build must ask
+ * in a fixed order. Work that runs concurrently takes its ids from a named
+ * child scope ({@link #forked}) with its own numbering.
+ *
+ * <p>
+ * A scope belongs to the thread that opened it; close it (try-with-resources)
+ * on that thread.
+ */
+public final class DocumentScope implements AutoCloseable {
+
+    private static final ThreadLocal<DocumentScope> CURRENT = new ThreadLocal<>();
+
+    /** Name space of the version 5 ids, so they cannot collide with other name-based UUIDs. */
+    private static final UUID NAMESPACE = UUID.fromString("5c1f52c4-0a4d-4a53-9e4f-6a1d3f0e2b17");
+
+    private final byte[] seed;
+    private final byte[] path;
+    private final MessageDigest sha1;
+    private final DocumentScope previous;
+    private int next;
+
+    private DocumentScope(byte[] seed, String path) {
+        this.seed = seed;
+        this.path = path.getBytes(StandardCharsets.UTF_8);
+        this.sha1 = digest("SHA-1");
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Opens a scope on the current thread.
+     *
+     * @param documentType Endpoint or document type, so equal payloads sent
+     *                     to different endpoints get different ids
+     * @param content      Canonical bytes of the input
+     */
+    public static DocumentScope open(String documentType, byte[] content) {
+        MessageDigest sha256 = digest("SHA-256");
+        sha256.update(documentType.getBytes(StandardCharsets.UTF_8));
+        sha256.update((byte) 0);
+        sha256.update(content);
+        return new DocumentScope(sha256.digest(), "");
+    }
+
+    /**
+     * @return The scope open on this thread, or null
+     */
+    public static DocumentScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds {@code work} to a child scope of the scope open on the calling
+     * thread, for running elsewhere. Without an open scope, returns
+     * {@code work} unchanged.
+     *
+     * @param name Unique among the children of that scope
+     */
+    public static <T> Callable<T> forked(String name, Callable<T> work) {
+        DocumentScope parent = CURRENT.get();
+        if (parent == null) {
+            return work;
+        }
+        byte[] seed = parent.seed;
+        String path = new String(parent.path, StandardCharsets.UTF_8) + "/" + name;
+        return () -> {
+            try (DocumentScope child = new DocumentScope(seed, path)) {
+                return work.call();
+            }
+        };
+    }
+
+    /**
+     * Time to stamp as the generation time of a document (Bundle.timestamp,
+     * meta.lastUpdated and the like): the document's own date inside a scope,
+     * otherwise now.
+     */
+    public static Date generatedAt(Date documentDate) {
+        return CURRENT.get() != null && documentDate != null ? documentDate : new Date();
+    }
+
+    /**
+     * Decorates a generator to use the open scope, if any.
+     */
+    public static IdGenerator scoped(IdGenerator fallback) {
+        return () -> {
+            DocumentScope scope = CURRENT.get();
+            return scope != null ? scope.nextId() : fallback.newId();
+        };
+    }
+
+    String nextId() {
+        sha1.update(toBytes(NAMESPACE.getMostSignificantBits()));
+        sha1.update(toBytes(NAMESPACE.getLeastSignificantBits()));
+        sha1.update(seed);
+        sha1.update(path);
+        sha1.update(toBytes(next++));
+        byte[] hash = sha1.digest();
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = msb << 8 | (hash[i] & 0xFF);
+            lsb = lsb << 8 | (hash[8 + i] & 0xFF);
+        }
+        msb = msb & ~0xF000L | 0x5000L;
+        lsb = lsb & 0x3FFF_FFFF_FFFF_FFFFL | Long.MIN_VALUE;
+        return new UUID(msb, lsb).toString();
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    private static byte[] toBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " not available", e);
+        }
+    }
+}
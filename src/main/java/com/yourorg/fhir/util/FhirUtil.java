@@ -1,6 +1,5 @@
 package com.yourorg.fhir.util;
 
-import java.util.UUID;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Reference;
 import org.hl7.fhir.r4.model.Patient;
@@ -12,19 +11,19 @@ public class FhirUtil {
                 return new Reference("urn:uuid:" + id);
         }
 
-        public static Identifier uuidIdentifier() {
+        public static Identifier uuidIdentifier(IdGenerator ids) {
                 return new Identifier()
                                 .setSystem("urn:ietf:rfc:3986")
-                                .setValue("urn:uuid:" + UUID.randomUUID());
+                                .setValue("urn:uuid:" + ids.newId());
         }
 
         /**
          * Helper to create a Patient resource compliant with ABDM profiles.
          * Including MR (Medical Record) identifier.
          */
-        public static Patient buildPatient(String id, String name) {
+        public static Patient buildPatient(IdGenerator ids, String id, String name) {
                 Patient patient = new Patient();
-                patient.setId(UUID.randomUUID().toString());
+                patient.setId(ids.newId());
 
                 // ABDM Patient Profile
                 patient.getMeta().addProfile(
@@ -34,13 +33,10 @@ public class FhirUtil {
                 patient.addIdentifier()
                                 .setSystem("https://www.xyz-hospital.com/patient-id")
                                 .setValue(id != null ? id : "12345")
-                                .getType().addCoding()
-                                .setSystem("http://terminology.hl7.org/CodeSystem/v2-0203")
-                                .setCode("MR")
-                                .setDisplay("Medical record number");
+                                .getType().addCoding(CodingCatalog.MEDICAL_RECORD_NUMBER.coding());
 
                 patient.addName().setText(name);
-                return patient;
+                return FragmentKey.tag(patient, "FhirUtil.buildPatient", id, name);
         }
 
         /**
@@ -61,32 +57,30 @@ public class FhirUtil {
                 practitioner.addIdentifier()
                                 .setSystem("https://doctor-license.com")
                                 .setValue("1231231")
-                                .getType().addCoding()
-                                .setSystem("http://terminology.hl7.org/CodeSystem/v2-0203")
-                                .setCode("MD")
-                                .setDisplay("Medical License number");
+                                .getType().addCoding(CodingCatalog.MEDICAL_LICENSE_NUMBER.coding());
 
                 practitioner.addName()
                                 .setText("Doctor ABDM")
                                 .setFamily("Doctor")
                                 .addGiven("ABDM");
 
-                return practitioner;
+                return FragmentKey.tag(practitioner, "FhirUtil.buildPractitioner");
         }
 
+        /**
+         * Parses a FHIR date or dateTime (see {@link InputCoercion#date}). Input
+         * that is neither but starts with {@code YYYY-MM-DD} gives that day, as
+         * the {@code SimpleDateFormat("yyyy-MM-dd")} parsing this replaced did;
+         * missing or malformed input gives the current time.
+         */
         public static java.util.Date parseDate(String dateStr) {
-                if (dateStr == null || dateStr.isEmpty()) {
-                        return new java.util.Date();
-                }
-                try {
-                        // Attempt standard ISO date format first
-                        return java.sql.Date.valueOf(dateStr);
-                } catch (Exception e) {
-                        try {
-                                return new java.text.SimpleDateFormat("yyyy-MM-dd").parse(dateStr);
-                        } catch (Exception ex) {
-                                return new java.util.Date();
+                InputCoercion.Result<InputCoercion.PartialDate> date = InputCoercion.date(dateStr);
+                if (!date.isValid() && dateStr != null) {
+                        String trimmed = dateStr.trim();
+                        if (trimmed.length() > 10) {
+                                date = InputCoercion.date(trimmed.substring(0, 10));
                         }
                 }
+                return date.isValid() ? date.get().getDate() : new java.util.Date();
         }
 }
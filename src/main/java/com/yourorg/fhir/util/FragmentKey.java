@@ -0,0 +1,50 @@
+package com.yourorg.fhir.util;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Marks a resource whose content, apart from its id, is fully determined by the
+ * method that built it and that method's inputs, e.g. the Patient of
+ * AbdmResourceBuilder.buildPatient for a given name, health id, gender and
+ * birth date. The serializer reuses the JSON encoded for one marked resource
+ * for every later resource with the same key (see JsonFragmentCache).
+ *
+ * <p>
+ * A marked resource should not be modified after it is built; anything that
+ * does should build its own unmarked resource instead. The serializer checks
+ * the content before reusing JSON, so a modified resource is still encoded
+ * correctly, just without the saving.
+ */
+public final class FragmentKey {
+
+    private static final String USER_DATA = FragmentKey.class.getName();
+
+    private FragmentKey() {
+    }
+
+    /**
+     * @param source Name of the building method
+     * @param inputs Every input of that method the content depends on; may
+     *               contain nulls
+     * @return The resource
+     */
+    public static <T extends Resource> T tag(T resource, String source, Object... inputs) {
+        List<Object> key = new ArrayList<>(inputs.length + 1);
+        key.add(source);
+        key.addAll(Arrays.asList(inputs));
+        resource.setUserData(USER_DATA, key);
+        return resource;
+    }
+
+    /**
+     * @return The key the resource was marked with, or null
+     */
+    public static Object of(IBaseResource resource) {
+        return resource instanceof Resource ? ((Resource) resource).getUserData(USER_DATA) : null;
+    }
+}
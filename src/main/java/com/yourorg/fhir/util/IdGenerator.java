@@ -0,0 +1,34 @@
+package com.yourorg.fhir.util;
+
+import java.util.UUID;
+
+/**
+ * Source of the logical ids (and {@code urn:uuid:} fullUrls) of the resources
+ * and bundles we build. Implementations must be thread-safe and return a
+ * lower-case UUID string.
+ *
+ * <p>
+ * The bean is chosen with {@code fhir.ids.generator}: {@code time-ordered}
+ * (default, {@link TimeOrderedIdGenerator}) or {@code random}
+ * ({@link UUID#randomUUID()}).
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    String newId();
+
+    /**
+     * UUIDv7 from a per-thread random source; no shared state.
+     */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.INSTANCE;
+    }
+
+    /**
+     * UUIDv4 from the shared SecureRandom, as before the generator was
+     * pluggable.
+     */
+    static IdGenerator random() {
+        return () -> UUID.randomUUID().toString();
+    }
+}
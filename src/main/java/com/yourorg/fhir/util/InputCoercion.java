@@ -0,0 +1,437 @@
+package com.yourorg.fhir.util;
+
+import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
+import org.hl7.fhir.r4.model.DateType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Turns request strings into dates and numbers without using exceptions for
+ * bad input. {@code Double.parseDouble}, {@code new BigDecimal} and
+ * {@code SimpleDateFormat} report malformed input by throwing, and the stack
+ * trace they fill in costs far more than the parse itself; a flood of
+ * malformed payloads then spends its CPU there. Here input is scanned once by
+ * hand and the outcome says why a value was rejected.
+ *
+ * <p>
+ * Dates follow the FHIR date and dateTime formats: {@code YYYY},
+ * {@code YYYY-MM}, {@code YYYY-MM-DD} and {@code YYYY-MM-DDThh:mm[:ss[.f+]]}
+ * with an optional {@code Z} or {@code ±hh:mm} offset (local time without
+ * one), plus unpadded {@code YYYY-M-D} as accepted before and a space instead
+ * of the {@code T} (the SQL/JDBC form). Dates without a time are midnight in
+ * the JVM's time zone, as before.
+ * Decimals are {@code [+-]digits[.digits][e[+-]digits]}; surrounding
+ * whitespace is ignored, and NaN, infinities and exponents beyond ±999 are
+ * rejected.
+ *
+ * <p>
+ * All methods are static and thread-safe.
+ */
+public final class InputCoercion {
+
+    static final String MISSING = "missing";
+    static final String NOT_A_NUMBER = "not a decimal number";
+    static final String NOT_A_DATE = "not a FHIR date or dateTime";
+    static final String OUT_OF_RANGE = "out of range";
+
+    private static final Result<?> MISSING_RESULT = new Result<>(null, MISSING, null);
+
+    /** Exactly representable powers of ten, for the double fast path. */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** Set in {@link #scanDecimal} results when the number has an exponent. */
+    private static final int EXPONENT = 1 << 30;
+    private static final int INVALID = -1;
+    private static final int TOO_LARGE = -2;
+
+    private InputCoercion() {
+    }
+
+    /**
+     * The coerced value, or why there is none.
+     */
+    public static final class Result<T> {
+
+        private final T value;
+        private final String error;
+        private final String input;
+
+        private Result(T value, String error, String input) {
+            this.value = value;
+            this.error = error;
+            this.input = input;
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        /**
+         * @return The value, or null if the input was invalid
+         */
+        public T get() {
+            return value;
+        }
+
+        public T orElse(T other) {
+            return error == null ? value : other;
+        }
+
+        /**
+         * @param field Name of the input, for the message
+         * @throws IllegalArgumentException If the input was invalid
+         */
+        public T orElseThrow(String field) {
+            if (error != null) {
+                throw new IllegalArgumentException(
+                        field + ": " + error + (input != null ? " ('" + input + "')" : ""));
+            }
+            return value;
+        }
+
+        /**
+         * @return Why the input was rejected, or null if it was valid
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * A FHIR date or dateTime with the precision it was given in.
+     */
+    public static final class PartialDate {
+
+        private final Date date;
+        private final TemporalPrecisionEnum precision;
+
+        PartialDate(Date date, TemporalPrecisionEnum precision) {
+            this.date = date;
+            this.precision = precision;
+        }
+
+        /**
+         * @return The first instant the value covers (1 January for a year)
+         */
+        public Date getDate() {
+            return date;
+        }
+
+        public TemporalPrecisionEnum getPrecision() {
+            return precision;
+        }
+
+        /**
+         * As a FHIR date (e.g. a birth date), keeping year and month precision
+         * and dropping any time.
+         */
+        public DateType toDateType() {
+            return new DateType(date, precision.ordinal() < TemporalPrecisionEnum.DAY.ordinal()
+                    ? precision
+                    : TemporalPrecisionEnum.DAY);
+        }
+    }
+
+    // --- Decimals ---
+
+    /**
+     * Exact decimal value of {@code text}, keeping its scale ("5.0" stays
+     * 5.0), as {@code new BigDecimal(text.trim())} would give it.
+     */
+    public static Result<BigDecimal> decimal(String text) {
+        if (text == null) {
+            return missing();
+        }
+        int start = start(text);
+        int end = end(text, start);
+        int shape = scanDecimal(text, start, end);
+        if (shape < 0) {
+            return invalid(shape == TOO_LARGE ? OUT_OF_RANGE : start == end ? MISSING : NOT_A_NUMBER, text);
+        }
+        if ((shape & EXPONENT) == 0 && shape <= 18) {
+            long unscaled = 0;
+            int scale = 0;
+            boolean fraction = false;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '.') {
+                    fraction = true;
+                } else if (c >= '0' && c <= '9') {
+                    unscaled = unscaled * 10 + (c - '0');
+                    scale += fraction ? 1 : 0;
+                }
+            }
+            return new Result<>(BigDecimal.valueOf(text.charAt(start) == '-' ? -unscaled : unscaled, scale), null,
+                    null);
+        }
+        // Already validated, so this cannot throw
+        return new Result<>(new BigDecimal(text.substring(start, end)), null, null);
+    }
+
+    /**
+     * Value of {@code text} as {@code Double.parseDouble} would give it, or
+     * {@code fallback} if it is not a finite decimal number. Does not allocate
+     * for plain numbers of up to 15 digits.
+     */
+    public static double decimal(String text, double fallback) {
+        if (text == null) {
+            return fallback;
+        }
+        int start = start(text);
+        int end = end(text, start);
+        int shape = scanDecimal(text, start, end);
+        if (shape < 0) {
+            return fallback;
+        }
+        if ((shape & EXPONENT) == 0 && shape <= 15) {
+            long unscaled = 0;
+            int scale = 0;
+            boolean fraction = false;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '.') {
+                    fraction = true;
+                } else if (c >= '0' && c <= '9') {
+                    unscaled = unscaled * 10 + (c - '0');
+                    scale += fraction ? 1 : 0;
+                }
+            }
+            // Both operands are exact doubles, so the quotient is correctly rounded
+            double value = unscaled / POWERS_OF_TEN[scale];
+            return text.charAt(start) == '-' ? -value : value;
+        }
+        double value = Double.parseDouble(text.substring(start, end));
+        return Double.isFinite(value) ? value : fallback;
+    }
+
+    /**
+     * Checks {@code text[start, end)} against the decimal grammar.
+     *
+     * @return The number of mantissa digits, with {@link #EXPONENT} set if
+     *         there is an exponent; {@link #INVALID} or {@link #TOO_LARGE}
+     */
+    private static int scanDecimal(String text, int start, int end) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return INVALID;
+        }
+        if (i == end) {
+            return digits;
+        }
+        char e = text.charAt(i++);
+        if (e != 'e' && e != 'E') {
+            return INVALID;
+        }
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+        }
+        int exponentDigits = 0;
+        int exponent = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            exponentDigits++;
+            // Leading zeros do not count; stop accumulating once out of range
+            exponent = Math.min(exponent * 10 + (c - '0'), 1000);
+        }
+        if (exponentDigits == 0) {
+            return INVALID;
+        }
+        return exponent > 999 ? TOO_LARGE : digits | EXPONENT;
+    }
+
+    // --- Dates ---
+
+    /**
+     * Parses a FHIR date or dateTime (see the class comment).
+     */
+    public static Result<PartialDate> date(String text) {
+        if (text == null) {
+            return missing();
+        }
+        int start = start(text);
+        int end = end(text, start);
+        int length = end - start;
+        if (length == 0) {
+            return missing();
+        }
+
+        int year = digits(text, start, 4, end);
+        if (year < 1) {
+            return invalid(NOT_A_DATE, text);
+        }
+        if (length == 4) {
+            return local(LocalDate.of(year, 1, 1).atStartOfDay(), TemporalPrecisionEnum.YEAR);
+        }
+        if (length == 8 || length == 9) {
+            return unpaddedDate(text, start, end, year);
+        }
+        int month = text.charAt(start + 4) == '-' ? digits(text, start + 5, 2, end) : -1;
+        if (month < 1 || month > 12) {
+            return invalid(NOT_A_DATE, text);
+        }
+        if (length == 7) {
+            return local(LocalDate.of(year, month, 1).atStartOfDay(), TemporalPrecisionEnum.MONTH);
+        }
+        int day = length >= 10 && text.charAt(start + 7) == '-' ? digits(text, start + 8, 2, end) : -1;
+        if (day < 1 || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return invalid(NOT_A_DATE, text);
+        }
+        if (length == 10) {
+            return local(LocalDate.of(year, month, day).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        }
+
+        int pos = start + 10;
+        char separator = text.charAt(pos);
+        if (separator != 'T' && separator != ' ' || pos + 6 > end || text.charAt(pos + 3) != ':') {
+            return invalid(NOT_A_DATE, text);
+        }
+        int hour = digits(text, pos + 1, 2, end);
+        int minute = digits(text, pos + 4, 2, end);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return invalid(NOT_A_DATE, text);
+        }
+        pos += 6;
+        int second = 0;
+        int nanos = 0;
+        TemporalPrecisionEnum precision = TemporalPrecisionEnum.MINUTE;
+        if (pos < end && text.charAt(pos) == ':') {
+            second = digits(text, pos + 1, 2, end);
+            if (second < 0 || second > 60) {
+                return invalid(NOT_A_DATE, text);
+            }
+            // A leap second is kept as the last second of the minute
+            second = Math.min(second, 59);
+            pos += 3;
+            precision = TemporalPrecisionEnum.SECOND;
+            if (pos < end && text.charAt(pos) == '.') {
+                int scale = 0;
+                for (pos++; pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9'; pos++) {
+                    if (scale++ < 9) {
+                        nanos = nanos * 10 + (text.charAt(pos) - '0');
+                    }
+                }
+                if (scale == 0) {
+                    return invalid(NOT_A_DATE, text);
+                }
+                for (; scale < 9; scale++) {
+                    nanos *= 10;
+                }
+                precision = TemporalPrecisionEnum.MILLI;
+            }
+        }
+        LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        if (pos == end) {
+            return local(dateTime, precision);
+        }
+
+        ZoneOffset offset;
+        char sign = text.charAt(pos);
+        if ((sign == 'Z' || sign == 'z') && pos + 1 == end) {
+            offset = ZoneOffset.UTC;
+        } else if ((sign == '+' || sign == '-') && pos + 6 == end && text.charAt(pos + 3) == ':') {
+            int hours = digits(text, pos + 1, 2, end);
+            int minutes = digits(text, pos + 4, 2, end);
+            if (hours < 0 || hours > 14 || minutes < 0 || minutes > 59) {
+                return invalid(NOT_A_DATE, text);
+            }
+            offset = sign == '-'
+                    ? ZoneOffset.ofHoursMinutes(-hours, -minutes)
+                    : ZoneOffset.ofHoursMinutes(hours, minutes);
+        } else {
+            return invalid(NOT_A_DATE, text);
+        }
+        return new Result<>(new PartialDate(Date.from(dateTime.toInstant(offset)), precision), null, null);
+    }
+
+    /**
+     * {@code YYYY-M-D}, {@code YYYY-MM-D} or {@code YYYY-M-DD}: not FHIR, but
+     * accepted by the {@code java.sql.Date.valueOf} parsing this replaced.
+     */
+    private static Result<PartialDate> unpaddedDate(String text, int start, int end, int year) {
+        int separator = text.indexOf('-', start + 5);
+        if (text.charAt(start + 4) != '-' || separator < 0 || separator >= end) {
+            return invalid(NOT_A_DATE, text);
+        }
+        int month = digits(text, start + 5, separator - start - 5, end);
+        int day = digits(text, separator + 1, end - separator - 1, end);
+        if (month < 1 || month > 12 || day < 1 || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return invalid(NOT_A_DATE, text);
+        }
+        return local(LocalDate.of(year, month, day).atStartOfDay(), TemporalPrecisionEnum.DAY);
+    }
+
+    private static Result<PartialDate> local(LocalDateTime dateTime, TemporalPrecisionEnum precision) {
+        Date date = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        return new Result<>(new PartialDate(date, precision), null, null);
+    }
+
+    /**
+     * @return The value of {@code count} ASCII digits at {@code from}, or -1
+     */
+    private static int digits(String text, int from, int count, int end) {
+        if (from + count > end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // --- Shared ---
+
+    private static int start(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Result<T> missing() {
+        return (Result<T>) MISSING_RESULT;
+    }
+
+    private static <T> Result<T> invalid(String error, String input) {
+        return new Result<>(null, error, input);
+    }
+}
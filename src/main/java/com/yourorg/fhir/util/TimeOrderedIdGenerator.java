@@ -0,0 +1,35 @@
+package com.yourorg.fhir.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs (RFC 9562): 48 bits of Unix epoch milliseconds followed by
+ * 74 random bits from {@link ThreadLocalRandom}.
+ *
+ * <p>
+ * {@link UUID#randomUUID()} draws from one SecureRandom shared by all threads,
+ * which serializes id generation under load; here each thread has its own
+ * source, so nothing is shared. Ids also sort roughly by creation time. The
+ * random part is not cryptographically strong: fine for resource ids, which
+ * are not secrets, but not for anything used as a capability (such as bulk
+ * job ids, which stay on {@code UUID.randomUUID()}).
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    static final TimeOrderedIdGenerator INSTANCE = new TimeOrderedIdGenerator();
+
+    private TimeOrderedIdGenerator() {
+    }
+
+    @Override
+    public String newId() {
+        return next(System.currentTimeMillis(), ThreadLocalRandom.current()).toString();
+    }
+
+    static UUID next(long epochMillis, ThreadLocalRandom random) {
+        long msb = epochMillis << 16 | 0x7000L | random.nextInt(1 << 12);
+        long lsb = random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL | Long.MIN_VALUE;
+        return new UUID(msb, lsb);
+    }
+}
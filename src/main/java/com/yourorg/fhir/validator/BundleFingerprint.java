@@ -0,0 +1,148 @@
+package com.yourorg.fhir.validator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content hash of a serialized bundle that is stable across regenerations of
+ * the same document.
+ *
+ * <p>
+ * Every bundle we build gets fresh UUIDs for its ids, fullUrls, references
+ * and generated identifiers (Bundle.identifier, Invoice.identifier, the
+ * {@code urn:uuid:} identifiers of lab reports), and a generation time in
+ * Bundle.timestamp and meta.lastUpdated. Before hashing, each distinct UUID in
+ * those elements is replaced by its order of first appearance, which keeps
+ * the reference structure, and those two date-times by a placeholder. Every
+ * other value, clinical dates included, is hashed as is. Two bundles with the
+ * same fingerprint therefore differ only in values that do not change their
+ * validation outcome.
+ *
+ * <p>
+ * Only meant for bundles we generated; see
+ * {@link FhirValidatorService#validateWithResult(org.hl7.fhir.r4.model.Bundle, boolean)}.
+ */
+public final class BundleFingerprint {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final Pattern UUID = Pattern
+            .compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private static final Pattern DATE_TIME = Pattern
+            .compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:\\d{2})");
+
+    private static final byte SEPARATOR = 0;
+
+    private BundleFingerprint() {
+    }
+
+    /**
+     * @param json Bundle serialized as JSON, in any layout
+     * @return Hex SHA-256 of the canonicalized content
+     */
+    public static String of(byte[] json) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Map<String, Integer> uuids = new HashMap<>();
+        try (JsonParser parser = JSON.createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                digest.update((byte) token.id());
+                if (token == JsonToken.VALUE_STRING) {
+                    JsonStreamContext context = parser.getParsingContext();
+                    if ("resourceType".equals(context.getCurrentName())) {
+                        context.setCurrentValue(parser.getText());
+                    }
+                    update(digest, canonical(context, parser.getText(), uuids));
+                } else if (token == JsonToken.FIELD_NAME || token.isScalarValue()) {
+                    update(digest, parser.getText());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String canonical(JsonStreamContext context, String value, Map<String, Integer> uuids) {
+        String name = context.inObject() ? context.getCurrentName() : null;
+        if (name == null) {
+            return value;
+        }
+        switch (name) {
+            case "timestamp":
+                return isBundle(context) ? timestamp(value) : value;
+            case "lastUpdated":
+                return "meta".equals(context.getParent().getCurrentName()) ? timestamp(value) : value;
+            case "id":
+            case "fullUrl":
+            case "reference":
+                return uuids(value, uuids);
+            case "value":
+                return isGeneratedIdentifier(context.getParent(), value) ? uuids(value, uuids) : value;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * @return Whether the context is the Bundle object itself
+     */
+    private static boolean isBundle(JsonStreamContext context) {
+        return context.inObject() && context.getParent() != null && context.getParent().inRoot();
+    }
+
+    /**
+     * @return Whether the context is an Identifier, alone or in a list, whose
+     *         value we generated: that of the Bundle or an Invoice, or a
+     *         {@code urn:uuid:}
+     */
+    private static boolean isGeneratedIdentifier(JsonStreamContext context, String value) {
+        JsonStreamContext owner = context.inArray() ? context.getParent() : context;
+        if (!"identifier".equals(owner.getCurrentName())) {
+            return false;
+        }
+        return isBundle(owner) || "Invoice".equals(owner.getCurrentValue()) || value.startsWith("urn:uuid:");
+    }
+
+    private static String timestamp(String value) {
+        return DATE_TIME.matcher(value).matches() ? "#timestamp" : value;
+    }
+
+    private static String uuids(String value, Map<String, Integer> uuids) {
+        Matcher matcher = UUID.matcher(value);
+        if (!matcher.find()) {
+            return value;
+        }
+        StringBuilder canonical = new StringBuilder(value.length());
+        do {
+            int ordinal = uuids.computeIfAbsent(matcher.group().toLowerCase(), k -> uuids.size());
+            matcher.appendReplacement(canonical, "#" + ordinal);
+        } while (matcher.find());
+        matcher.appendTail(canonical);
+        return canonical.toString();
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+    }
+}
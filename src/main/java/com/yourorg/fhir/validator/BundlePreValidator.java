@@ -0,0 +1,186 @@
+package com.yourorg.fhir.validator;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.util.FhirTerser;
+import ca.uhn.fhir.validation.ResultSeverityEnum;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Composition;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheap structural checks for the mistakes that make up most real validation
+ * failures, run before the profile validator:
+ * <ul>
+ * <li>every entry has a resource and a unique fullUrl,</li>
+ * <li>a document starts with a Composition that has a subject, and whose
+ * sections, nested ones included, each have text, entries or sub-sections
+ * (cmp-1) and no emptyReason next to entries (cmp-2),</li>
+ * <li>every {@code urn:uuid:} reference resolves to an entry, and every
+ * document entry is linked to the Composition through references in either
+ * direction,</li>
+ * <li>every Quantity value that is present is a number.</li>
+ * </ul>
+ * Each resource is visited once; references are resolved against the entry
+ * fullUrls as they are found. Issues use the message ids
+ * {@code PreValidation_*} and element locations like the FhirValidator's.
+ */
+@Component
+public class BundlePreValidator {
+
+    private static final String URN_UUID = "urn:uuid:";
+
+    private final FhirContext ctx;
+
+    public BundlePreValidator(FhirContext ctx) {
+        this.ctx = ctx;
+    }
+
+    public ValidationResult check(Bundle bundle) {
+        List<SingleValidationMessage> issues = new ArrayList<>();
+        List<Bundle.BundleEntryComponent> entries = bundle.getEntry();
+
+        Map<String, Integer> entryByFullUrl = new HashMap<>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            String fullUrl = entries.get(i).getFullUrl();
+            if (fullUrl == null || fullUrl.isEmpty()) {
+                issues.add(error("Bundle.entry[" + i + "]", "PreValidation_MissingFullUrl",
+                        "Entry has no fullUrl"));
+            } else if (entryByFullUrl.putIfAbsent(fullUrl, i) != null) {
+                issues.add(error("Bundle.entry[" + i + "]", "PreValidation_DuplicateFullUrl",
+                        "Duplicate fullUrl " + fullUrl));
+            }
+        }
+
+        boolean document = bundle.getType() == Bundle.BundleType.DOCUMENT;
+        if (document && (entries.isEmpty() || !(entries.get(0).getResource() instanceof Composition))) {
+            issues.add(error("Bundle.entry[0]", "PreValidation_CompositionFirst",
+                    "A document bundle must start with a Composition"));
+        }
+
+        // Entries linked by a reference in either direction share a component
+        int[] component = new int[entries.size()];
+        for (int i = 0; i < component.length; i++) {
+            component[i] = i;
+        }
+
+        FhirTerser terser = ctx.newTerser();
+        for (int i = 0; i < entries.size(); i++) {
+            int source = i;
+            Resource resource = entries.get(i).getResource();
+            String location = "Bundle.entry[" + i + "].resource";
+            if (resource == null) {
+                issues.add(error("Bundle.entry[" + i + "]", "PreValidation_MissingResource",
+                        "Entry has no resource"));
+                continue;
+            }
+            if (resource instanceof Composition) {
+                checkComposition((Composition) resource, location, issues);
+            }
+            terser.visit(resource, (theResource, element, path, childDefinition, definition) -> {
+                if (element instanceof Reference) {
+                    String reference = ((Reference) element).getReference();
+                    if (reference != null && reference.startsWith(URN_UUID)) {
+                        Integer target = entryByFullUrl.get(reference);
+                        if (target == null) {
+                            issues.add(error(location + pathOf(path), "PreValidation_UnresolvedReference",
+                                    "Reference " + reference + " does not match any entry fullUrl"));
+                        } else {
+                            union(component, source, target);
+                        }
+                    }
+                } else if (element instanceof Quantity) {
+                    // No value at all (code/unit only, data-absent-reason) is legal
+                    Quantity quantity = (Quantity) element;
+                    if (quantity.hasValueElement() && quantity.getValueElement().getValue() == null
+                            && quantity.getValueElement().getValueAsString() != null) {
+                        issues.add(error(location + pathOf(path), "PreValidation_QuantityValue",
+                                "Quantity value is not a number: '"
+                                        + quantity.getValueElement().getValueAsString() + "'"));
+                    }
+                }
+            });
+        }
+
+        if (document && !entries.isEmpty()) {
+            int root = find(component, 0);
+            for (int i = 1; i < entries.size(); i++) {
+                if (find(component, i) != root) {
+                    issues.add(error("Bundle.entry[" + i + "]", "PreValidation_Orphan",
+                            "Entry " + entries.get(i).getFullUrl() + " is not linked to the Composition"));
+                }
+            }
+        }
+        return new ValidationResult(ctx, issues);
+    }
+
+    private static int find(int[] component, int entry) {
+        while (component[entry] != entry) {
+            component[entry] = component[component[entry]];
+            entry = component[entry];
+        }
+        return entry;
+    }
+
+    private static void union(int[] component, int a, int b) {
+        component[find(component, a)] = find(component, b);
+    }
+
+    private static void checkComposition(Composition composition, String location,
+            List<SingleValidationMessage> issues) {
+        if (!composition.hasSubject() || !composition.getSubject().hasReference()) {
+            issues.add(error(location + ".subject", "PreValidation_CompositionSubject",
+                    "Composition has no subject"));
+        }
+        checkSections(composition.getSection(), location, issues);
+    }
+
+    private static void checkSections(List<Composition.SectionComponent> sections, String location,
+            List<SingleValidationMessage> issues) {
+        for (int s = 0; s < sections.size(); s++) {
+            Composition.SectionComponent section = sections.get(s);
+            String sectionLocation = location + ".section[" + s + "]";
+            Object name = section.hasTitle() ? section.getTitle() : s;
+            if (!section.hasText() && !section.hasEntry() && !section.hasSection()) {
+                issues.add(error(sectionLocation, "PreValidation_EmptySection",
+                        "Section '" + name + "' has no text, entries or sub-sections (cmp-1)"));
+            }
+            if (section.hasEmptyReason() && section.hasEntry()) {
+                issues.add(error(sectionLocation, "PreValidation_SectionEmptyReason",
+                        "Section '" + name + "' has entries and an emptyReason (cmp-2)"));
+            }
+            checkSections(section.getSection(), sectionLocation, issues);
+        }
+    }
+
+    /**
+     * Element path below the resource, e.g. ".section.entry" for the terser
+     * path [section, entry].
+     */
+    private static String pathOf(List<String> path) {
+        StringBuilder location = new StringBuilder();
+        for (int i = 0; i < path.size(); i++) {
+            location.append('.').append(path.get(i));
+        }
+        return location.toString();
+    }
+
+    private static SingleValidationMessage error(String location, String messageId, String message) {
+        SingleValidationMessage issue = new SingleValidationMessage();
+        issue.setSeverity(ResultSeverityEnum.ERROR);
+        issue.setLocationString(location);
+        issue.setMessageId(messageId);
+        issue.setMessage(message);
+        return issue;
+    }
+}
@@ -1,24 +1,146 @@
 package com.yourorg.fhir.validator;
 
+import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.validation.FhirValidator;
 import ca.uhn.fhir.validation.ValidationResult;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OutputMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.hl7.fhir.r4.model.Bundle;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Validates bundles against the shared validation chain.
+ *
+ * <p>
+ * Outcomes of the bundles we generate are cached by {@link BundleFingerprint},
+ * so regenerating the same document (retries, repeated pulls) is validated
+ * once; bundles received from elsewhere are always validated. The cache is bounded
+ * by {@code fhir.validation.cache.max-size} and
+ * {@code fhir.validation.cache.ttl} and reports hits and misses as the
+ * {@code cache.*} metrics with {@code cache=fhirValidationResults}. Profiles
+ * are loaded once at startup, so entries only ever leave the cache by size or
+ * age.
+ *
+ * <p>
+ * {@code fhir.validation.mode} picks how much validation is done:
+ * <ul>
+ * <li>{@code full} (default): {@link BundlePreValidator} first, then the
+ * profile validator only for bundles that pass it,</li>
+ * <li>{@code parallel}: as {@code full}, but bundles with at least
+ * {@code fhir.validation.parallel.min-entries} entries are validated entry by
+ * entry on several threads by {@link ParallelBundleValidator},</li>
+ * <li>{@code pre-check}: the structural pre-check only,</li>
+ * <li>{@code off}: every bundle is reported valid.</li>
+ * </ul>
+ */
 @Service
 public class FhirValidatorService {
 
+    static final String CACHE_NAME = "fhirValidationResults";
+
+    enum Mode {
+        OFF, PRE_CHECK, FULL, PARALLEL
+    }
+
+    private final FhirContext ctx;
     private final FhirValidator validator;
+    private final BundlePreValidator preValidator;
+    private final ParallelBundleValidator parallelValidator;
+    private final FhirSerializer serializer;
+    private final Cache<String, ValidationResult> results;
+    private final Mode mode;
+    private final int parallelMinEntries;
 
-    public FhirValidatorService(FhirValidator validator) {
+    public FhirValidatorService(FhirContext ctx, FhirValidator validator, BundlePreValidator preValidator,
+            ParallelBundleValidator parallelValidator, FhirSerializer serializer, MeterRegistry meterRegistry,
+            @Value("${fhir.validation.cache.max-size:10000}") long maxSize,
+            @Value("${fhir.validation.cache.ttl:1h}") Duration ttl,
+            @Value("${fhir.validation.mode:full}") String mode,
+            @Value("${fhir.validation.parallel.min-entries:50}") int parallelMinEntries) {
+        this.ctx = ctx;
         this.validator = validator;
+        this.preValidator = preValidator;
+        this.parallelValidator = parallelValidator;
+        this.serializer = serializer;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+        this.mode = Mode.valueOf(mode.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.parallelMinEntries = parallelMinEntries;
     }
 
     public void validate(Bundle bundle) {
-        ValidationResult result = validator.validateWithResult(bundle);
+        ValidationResult result = validateWithResult(bundle);
         if (!result.isSuccessful()) {
             throw new RuntimeException(result.getMessages().toString());
         }
     }
+
+    /**
+     * Validates a bundle we generated, or returns the cached outcome of an
+     * earlier bundle with the same content. Message locations are element
+     * paths, so they apply to either bundle.
+     */
+    public ValidationResult validateWithResult(Bundle bundle) {
+        return validateWithResult(bundle, true);
+    }
+
+    /**
+     * @param cacheable Whether the outcome may come from and go into the cache;
+     *                  false for bundles we did not generate
+     */
+    public ValidationResult validateWithResult(Bundle bundle, boolean cacheable) {
+        if (mode == Mode.OFF) {
+            return new ValidationResult(ctx, Collections.emptyList());
+        }
+        ValidationResult preCheck = preValidator.check(bundle);
+        if (mode == Mode.PRE_CHECK || !preCheck.isSuccessful()) {
+            // A structurally broken bundle would only produce the same errors, slower
+            return preCheck;
+        }
+        if (!cacheable) {
+            return profileValidate(bundle);
+        }
+        String key = fingerprint(bundle);
+        ValidationResult result = results.getIfPresent(key);
+        if (result == null) {
+            // Not computed inside the cache: concurrent misses may validate twice, but a
+            // slow validation never blocks lookups of other keys
+            result = profileValidate(bundle);
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    private ValidationResult profileValidate(Bundle bundle) {
+        return mode == Mode.PARALLEL && bundle.getEntry().size() >= parallelMinEntries
+                ? parallelValidator.validate(bundle)
+                : validator.validateWithResult(bundle);
+    }
+
+    private String fingerprint(Bundle bundle) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(16 * 1024);
+        try {
+            serializer.encodeToStream(bundle, json, OutputMode.COMPACT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return BundleFingerprint.of(json.toByteArray());
+    }
 }
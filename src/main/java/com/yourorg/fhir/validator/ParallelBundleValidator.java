@@ -0,0 +1,168 @@
+package com.yourorg.fhir.validator;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.validation.FhirValidator;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
+
+/**
+ * Validates a bundle as one bundle-level pass plus one pass per entry
+ * resource, the entries running concurrently on the
+ * {@code entryValidationPool}.
+ *
+ * <p>
+ * The bundle-level pass validates a copy of the bundle whose resources are
+ * replaced by stubs keeping only their type, id and meta, so the Bundle
+ * profile, the bdl invariants and the entry fullUrls are checked once without
+ * walking the resources. Only its messages outside the entry resources are
+ * kept, except entry reachability, which the stubs cannot show; that is left
+ * to {@link BundlePreValidator}. Entry messages get bundle locations
+ * ({@code Bundle.entry[3].resource.ofType(Observation).code}).
+ *
+ * <p>
+ * Messages are merged in a fixed order: bundle-level first, then each entry in
+ * bundle order. Errors match whole-bundle validation. Since entries are
+ * validated on their own, the warning for entries only reachable backwards
+ * from the Composition and the informational notes on reference targets are
+ * not produced.
+ */
+@Component
+public class ParallelBundleValidator {
+
+    private static final Pattern ENTRY_RESOURCE = Pattern.compile("^Bundle\\.entry\\[\\d+]\\.resource\\b.*");
+
+    private static final String URN_UUID = "urn:uuid:";
+
+    private final FhirContext ctx;
+    private final FhirValidator validator;
+    private final ForkJoinPool pool;
+
+    public ParallelBundleValidator(FhirContext ctx, FhirValidator validator,
+            @Qualifier("entryValidationPool") ForkJoinPool pool) {
+        this.ctx = ctx;
+        this.validator = validator;
+        this.pool = pool;
+    }
+
+    public ValidationResult validate(Bundle bundle) {
+        List<Bundle.BundleEntryComponent> entries = bundle.getEntry();
+        List<ForkJoinTask<ValidationResult>> entryTasks = new ArrayList<>(entries.size());
+        for (Bundle.BundleEntryComponent entry : entries) {
+            Resource resource = entry.getResource();
+            entryTasks.add(resource == null ? null : pool.submit(() -> validator.validateWithResult(resource)));
+        }
+
+        List<SingleValidationMessage> messages = new ArrayList<>();
+        for (SingleValidationMessage message : validator.validateWithResult(shell(bundle)).getMessages()) {
+            String location = message.getLocationString();
+            if (location != null && ENTRY_RESOURCE.matcher(location).matches()) {
+                continue;
+            }
+            String messageId = message.getMessageId();
+            if (messageId != null && messageId.startsWith("Bundle_BUNDLE_Entry_Orphan")) {
+                continue;
+            }
+            messages.add(message);
+        }
+
+        for (int i = 0; i < entryTasks.size(); i++) {
+            ForkJoinTask<ValidationResult> task = entryTasks.get(i);
+            if (task == null) {
+                continue;
+            }
+            String resourceType = entries.get(i).getResource().fhirType();
+            String prefix = "Bundle.entry[" + i + "].resource.ofType(" + resourceType + ")";
+            for (SingleValidationMessage message : task.join().getMessages()) {
+                message.setLocationString(bundleLocation(prefix, resourceType, message.getLocationString()));
+                messages.add(message);
+            }
+        }
+        return new ValidationResult(ctx, messages);
+    }
+
+    /**
+     * Copy of {@code bundle} with each resource replaced by an empty one of the
+     * same type, id and meta.
+     */
+    private Bundle shell(Bundle bundle) {
+        // Field by field: Bundle.copy() would deep-copy every resource. Only
+        // populated fields are read, as the getters create missing ones and the
+        // entry tasks are reading the same bundle.
+        Bundle shell = new Bundle();
+        if (bundle.hasIdElement()) {
+            shell.setIdElement(bundle.getIdElement().copy());
+        }
+        if (bundle.hasMeta()) {
+            shell.setMeta(bundle.getMeta().copy());
+        }
+        if (bundle.hasIdentifier()) {
+            shell.setIdentifier(bundle.getIdentifier().copy());
+        }
+        if (bundle.hasType()) {
+            shell.setTypeElement(bundle.getTypeElement().copy());
+        }
+        if (bundle.hasTimestamp()) {
+            shell.setTimestampElement(bundle.getTimestampElement().copy());
+        }
+        if (bundle.hasTotal()) {
+            shell.setTotalElement(bundle.getTotalElement().copy());
+        }
+        if (bundle.hasSignature()) {
+            shell.setSignature(bundle.getSignature().copy());
+        }
+        if (bundle.hasLink()) {
+            bundle.getLink().forEach(link -> shell.addLink(link.copy()));
+        }
+        for (Bundle.BundleEntryComponent entry : bundle.getEntry()) {
+            Bundle.BundleEntryComponent stubEntry = shell.addEntry();
+            if (entry.hasFullUrl()) {
+                stubEntry.setFullUrl(entry.getFullUrl());
+            }
+            if (entry.hasSearch()) {
+                stubEntry.setSearch(entry.getSearch().copy());
+            }
+            if (entry.hasRequest()) {
+                stubEntry.setRequest(entry.getRequest().copy());
+            }
+            if (entry.hasResponse()) {
+                stubEntry.setResponse(entry.getResponse().copy());
+            }
+            Resource resource = entry.getResource();
+            if (resource == null) {
+                continue;
+            }
+            Resource stub = (Resource) ctx.getResourceDefinition(resource).newInstance();
+            if (resource.hasIdElement()) {
+                stub.setIdElement(resource.getIdElement().copy());
+            } else if (entry.hasFullUrl() && entry.getFullUrl().startsWith(URN_UUID)) {
+                stub.setId(entry.getFullUrl().substring(URN_UUID.length()));
+            }
+            if (resource.hasMeta()) {
+                stub.setMeta(resource.getMeta().copy());
+            }
+            stubEntry.setResource(stub);
+        }
+        return shell;
+    }
+
+    /**
+     * "Observation.code" becomes "Bundle.entry[3].resource.ofType(Observation).code".
+     */
+    private static String bundleLocation(String prefix, String resourceType, String location) {
+        if (location == null || !location.startsWith(resourceType)) {
+            return prefix;
+        }
+        return prefix + location.substring(resourceType.length());
+    }
+}
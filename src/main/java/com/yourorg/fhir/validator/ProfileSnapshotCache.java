@@ -0,0 +1,160 @@
+package com.yourorg.fhir.validator;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.context.support.ValidationSupportContext;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.util.VersionUtil;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.StructureDefinition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of the snapshots generated for the profiles of an
+ * implementation guide package, so only the first start after a package
+ * update pays for snapshot generation.
+ *
+ * <p>
+ * The cache is one gzipped NDJSON file of StructureDefinitions per package,
+ * named after the SHA-256 of the package bytes and the HAPI version that
+ * generated the snapshots. A different package or HAPI upgrade therefore
+ * simply misses and writes a new file.
+ */
+public class ProfileSnapshotCache {
+
+    private static final String FILE_PREFIX = "snapshots-";
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+
+    private final FhirContext ctx;
+    private final Path directory;
+
+    public ProfileSnapshotCache(FhirContext ctx, Path directory) {
+        this.ctx = ctx;
+        this.directory = directory;
+    }
+
+    /**
+     * Cache key for a package: SHA-256 of its bytes plus the HAPI version.
+     */
+    public static String key(InputStream packageBytes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DigestInputStream in = new DigestInputStream(packageBytes, digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest()) + "-hapi-" + VersionUtil.getVersion();
+    }
+
+    /**
+     * @return The cached snapshots for {@code key}, or null when there is no
+     *         usable cache file
+     */
+    public List<StructureDefinition> load(String key) {
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        IParser parser = ctx.newJsonParser();
+        List<StructureDefinition> profiles = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                profiles.add(parser.parseResource(StructureDefinition.class, line));
+            }
+        } catch (IOException | DataFormatException e) {
+            // Truncated or corrupt: regenerate as if it were missing
+            return null;
+        }
+        return profiles;
+    }
+
+    /**
+     * Generates snapshots for every profile in {@code profiles} that lacks one.
+     * Profiles the chain cannot generate a snapshot for are left out; the
+     * validator retries them lazily as before.
+     *
+     * @param profiles StructureDefinitions from the package
+     * @param support  Full validation chain, used to resolve base definitions
+     */
+    public static List<StructureDefinition> generate(List<IBaseResource> profiles, IValidationSupport support) {
+        ValidationSupportContext context = new ValidationSupportContext(support);
+        List<StructureDefinition> generated = new ArrayList<>();
+        for (IBaseResource resource : profiles) {
+            StructureDefinition profile = (StructureDefinition) resource;
+            if (profile.hasSnapshot()) {
+                continue;
+            }
+            try {
+                IBaseResource result = support.generateSnapshot(context, profile, profile.getUrl(), null,
+                        profile.getName());
+                if (result instanceof StructureDefinition && ((StructureDefinition) result).hasSnapshot()) {
+                    generated.add((StructureDefinition) result);
+                }
+            } catch (RuntimeException e) {
+                // Broken or unresolvable base: not cacheable
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * Writes the cache file for {@code key}, replacing it atomically so a
+     * concurrent start never reads a partial file, and removes the files of
+     * earlier packages.
+     */
+    public void store(String key, List<StructureDefinition> profiles) throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, FILE_PREFIX, ".tmp");
+        try {
+            IParser parser = ctx.newJsonParser().setPrettyPrint(false);
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp)),
+                    StandardCharsets.UTF_8)) {
+                for (StructureDefinition profile : profiles) {
+                    writer.write(parser.encodeResourceToString(profile));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path old : stale) {
+                if (!old.equals(file(key))) {
+                    Files.deleteIfExists(old);
+                }
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(FILE_PREFIX + key + FILE_SUFFIX);
+    }
+}
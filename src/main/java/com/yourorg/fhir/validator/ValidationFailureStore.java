@@ -0,0 +1,145 @@
+package com.yourorg.fhir.validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size in-memory ring buffer of the most recent sampled validation
+ * failures, each with the offending bundle. Once full, every new failure
+ * overwrites the oldest one.
+ *
+ * <p>
+ * The bundles hold patient data; see {@link ValidationFailuresEndpoint} for
+ * where they are exposed.
+ */
+@Component
+public class ValidationFailureStore {
+
+    /**
+     * One issue of a failed validation.
+     */
+    public static class Issue {
+        private final String severity;
+        private final String code;
+        private final String location;
+        private final String message;
+
+        public Issue(String severity, String code, String location, String message) {
+            this.severity = severity;
+            this.code = code;
+            this.location = location;
+            this.message = message;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        /**
+         * Validator message id, e.g. {@code Validation_VAL_Profile_Minimum}.
+         */
+        public String getCode() {
+            return code;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * A sampled bundle that failed validation.
+     */
+    public static class Failure {
+        private final long id;
+        private final Instant recordedAt;
+        private final String documentType;
+        private final List<Issue> issues;
+        private final String bundleId;
+        private final String bundle;
+
+        public Failure(long id, Instant recordedAt, String documentType, List<Issue> issues, String bundleId,
+                String bundle) {
+            this.id = id;
+            this.recordedAt = recordedAt;
+            this.documentType = documentType;
+            this.issues = issues;
+            this.bundleId = bundleId;
+            this.bundle = bundle;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Instant getRecordedAt() {
+            return recordedAt;
+        }
+
+        public String getDocumentType() {
+            return documentType;
+        }
+
+        /**
+         * Error and fatal issues only.
+         */
+        public List<Issue> getIssues() {
+            return issues;
+        }
+
+        /**
+         * Logical id of the offending bundle.
+         */
+        public String getBundleId() {
+            return bundleId;
+        }
+
+        /**
+         * The offending bundle as compact JSON.
+         */
+        public String getBundle() {
+            return bundle;
+        }
+    }
+
+    private final Failure[] ring;
+    private long nextId = 1;
+
+    public ValidationFailureStore(@Value("${fhir.validation.sampling.failure-capacity:100}") int capacity) {
+        this.ring = new Failure[Math.max(1, capacity)];
+    }
+
+    public synchronized Failure add(String documentType, List<Issue> issues, String bundleId, String bundle) {
+        long id = nextId++;
+        Failure failure = new Failure(id, Instant.now(), documentType, issues, bundleId, bundle);
+        ring[(int) (id % ring.length)] = failure;
+        return failure;
+    }
+
+    /**
+     * @return Stored failures, newest first
+     */
+    public synchronized List<Failure> recent() {
+        List<Failure> failures = new ArrayList<>(ring.length);
+        for (long id = nextId - 1; id >= 1 && id >= nextId - ring.length; id--) {
+            failures.add(ring[(int) (id % ring.length)]);
+        }
+        return failures;
+    }
+
+    /**
+     * @return The failure with this id, or null once it has been overwritten
+     */
+    public synchronized Failure get(long id) {
+        Failure failure = ring[(int) (id % ring.length)];
+        return failure != null && failure.getId() == id ? failure : null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yourorg.fhir.validator;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code validationfailures}: recent sampled validation failures, newest
+ * first, and {@code validationfailures/{id}} for one failure including the
+ * offending bundle.
+ *
+ * <p>
+ * Available over JMX when {@code spring.jmx.enabled} is set. It is not
+ * exposed over HTTP unless added to
+ * {@code management.endpoints.web.exposure.include}, which should only be done
+ * behind authentication: the bundles hold patient data.
+ */
+@Component
+@Endpoint(id = "validationfailures")
+public class ValidationFailuresEndpoint {
+
+    private final ValidationFailureStore store;
+
+    public ValidationFailuresEndpoint(ValidationFailureStore store) {
+        this.store = store;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> failures() {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (ValidationFailureStore.Failure failure : store.recent()) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", failure.getId());
+            summary.put("recordedAt", failure.getRecordedAt());
+            summary.put("documentType", failure.getDocumentType());
+            summary.put("bundleId", failure.getBundleId());
+            summary.put("errors", failure.getIssues().size());
+            summary.put("firstError", failure.getIssues().isEmpty() ? null : failure.getIssues().get(0).getMessage());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    @ReadOperation
+    public ValidationFailureStore.Failure failure(@Selector long id) {
+        // null maps to 404
+        return store.get(id);
+    }
+}
@@ -0,0 +1,199 @@
+package com.yourorg.fhir.validator;
+
+import ca.uhn.fhir.validation.ResultSeverityEnum;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OutputMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Composition;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Validates a sample of the generated bundles in the background, so profile
+ * regressions show up without putting validation on the request path.
+ *
+ * <p>
+ * The share of bundles validated is set per document type, named after the
+ * Composition profile (e.g. {@code PrescriptionRecord}), with
+ * {@code fhir.validation.sampling.percent.<type>}, falling back to
+ * {@code fhir.validation.sampling.default-percent}. Both default to 0, which
+ * turns sampling off.
+ *
+ * <p>
+ * Bundles that fail go to the {@link ValidationFailureStore}.
+ * A sample that cannot be validated at all is logged, at most once a minute
+ * per document type. Meters:
+ * <ul>
+ * <li>{@code fhir.validation.sampled} (documentType, outcome=valid|invalid|dropped|error)</li>
+ * <li>{@code fhir.validation.errors} (profile, code): error issues by the
+ * profile of the offending resource and the validator message id</li>
+ * </ul>
+ */
+@Component
+public class ValidationSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationSampler.class);
+
+    private static final String PERCENT_PROPERTY = "fhir.validation.sampling.percent.";
+    private static final String DEFAULT_PERCENT_PROPERTY = "fhir.validation.sampling.default-percent";
+
+    private static final Pattern ENTRY_INDEX = Pattern.compile("^Bundle\\.entry\\[(\\d+)]");
+
+    private static final long ERROR_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final FhirValidatorService validatorService;
+    private final ValidationFailureStore failureStore;
+    private final FhirSerializer serializer;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final double defaultPercent;
+    private final Map<String, Double> percentByType = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastErrorLogged = new ConcurrentHashMap<>();
+
+    public ValidationSampler(FhirValidatorService validatorService, ValidationFailureStore failureStore,
+            FhirSerializer serializer, @Qualifier("validationExecutor") ExecutorService executor,
+            MeterRegistry meterRegistry, Environment environment) {
+        this.validatorService = validatorService;
+        this.failureStore = failureStore;
+        this.serializer = serializer;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.defaultPercent = environment.getProperty(DEFAULT_PERCENT_PROPERTY, Double.class, 0.0);
+    }
+
+    /**
+     * Possibly validates a bundle that has been fully written. The bundle must
+     * not be modified afterwards.
+     */
+    public void sample(Bundle bundle) {
+        sample(compositionProfile(bundle), () -> bundle);
+    }
+
+    /**
+     * Possibly validates a bundle that only exists in another form, e.g. a
+     * fast-path bundle. {@code bundle} is only called, on the background
+     * thread, when this one is picked.
+     *
+     * @param compositionProfile Profile URL of the document's Composition
+     */
+    public void sample(String compositionProfile, Callable<Bundle> bundle) {
+        String documentType = documentType(compositionProfile);
+        if (!isSampled(documentType)) {
+            return;
+        }
+        try {
+            executor.execute(() -> validate(documentType, bundle));
+        } catch (RejectedExecutionException e) {
+            // Validation is falling behind; skipping samples is the point of sampling
+            count(documentType, "dropped");
+        }
+    }
+
+    private boolean isSampled(String documentType) {
+        double percent = percentByType.computeIfAbsent(documentType,
+                type -> environment.getProperty(PERCENT_PROPERTY + type, Double.class, defaultPercent));
+        return percent > 0 && (percent >= 100 || ThreadLocalRandom.current().nextDouble(100) < percent);
+    }
+
+    private void validate(String documentType, Callable<Bundle> source) {
+        try {
+            Bundle bundle = source.call();
+            ValidationResult result = validatorService.validateWithResult(bundle);
+            if (result.isSuccessful()) {
+                count(documentType, "valid");
+                return;
+            }
+            count(documentType, "invalid");
+            List<ValidationFailureStore.Issue> issues = new ArrayList<>();
+            for (SingleValidationMessage message : result.getMessages()) {
+                if (message.getSeverity().ordinal() < ResultSeverityEnum.ERROR.ordinal()) {
+                    continue;
+                }
+                String code = message.getMessageId() != null ? message.getMessageId() : "unknown";
+                meterRegistry.counter("fhir.validation.errors",
+                        "profile", resourceProfile(bundle, message.getLocationString()), "code", code).increment();
+                issues.add(new ValidationFailureStore.Issue(message.getSeverity().getCode(), code,
+                        message.getLocationString(), message.getMessage()));
+            }
+            failureStore.add(documentType, issues, bundle.getIdElement().getIdPart(),
+                    serializer.encodeToString(bundle, OutputMode.COMPACT));
+        } catch (Exception e) {
+            count(documentType, "error");
+            if (shouldLogError(documentType)) {
+                log.warn("Could not validate a sampled {} bundle", documentType, e);
+            }
+        }
+    }
+
+    private boolean shouldLogError(String documentType) {
+        long now = System.nanoTime();
+        Long last = lastErrorLogged.get(documentType);
+        if (last != null && now - last < ERROR_LOG_INTERVAL_NANOS) {
+            return false;
+        }
+        return last == null ? lastErrorLogged.putIfAbsent(documentType, now) == null
+                : lastErrorLogged.replace(documentType, last, now);
+    }
+
+    private void count(String documentType, String outcome) {
+        meterRegistry.counter("fhir.validation.sampled", "documentType", documentType, "outcome", outcome)
+                .increment();
+    }
+
+    private static String compositionProfile(Bundle bundle) {
+        if (bundle.hasEntry() && bundle.getEntryFirstRep().getResource() instanceof Composition) {
+            Composition composition = (Composition) bundle.getEntryFirstRep().getResource();
+            if (composition.getMeta().hasProfile()) {
+                return composition.getMeta().getProfile().get(0).getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Profile of the resource an issue is located in, or of the bundle itself.
+     */
+    private static String resourceProfile(Bundle bundle, String location) {
+        Resource resource = bundle;
+        Matcher matcher = location != null ? ENTRY_INDEX.matcher(location) : null;
+        if (matcher != null && matcher.find()) {
+            int index = Integer.parseInt(matcher.group(1));
+            if (index < bundle.getEntry().size() && bundle.getEntry().get(index).getResource() != null) {
+                resource = bundle.getEntry().get(index).getResource();
+            }
+        }
+        if (resource.getMeta().hasProfile()) {
+            return documentType(resource.getMeta().getProfile().get(0).getValue());
+        }
+        return resource.fhirType();
+    }
+
+    private static String documentType(String profile) {
+        if (profile == null) {
+            return "unknown";
+        }
+        return profile.substring(profile.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,150 @@
+package com.yourorg.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.fhir.builder.AbdmResourceBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBuilder;
+import com.yourorg.fhir.builder.DiagnosticReportBundleBuilder;
+import com.yourorg.fhir.builder.ObservationBuilder;
+import com.yourorg.fhir.builder.ResourceTemplateCache;
+import com.yourorg.fhir.config.FhirConfig;
+import com.yourorg.fhir.dto.*;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.JsonFragmentCache;
+import com.yourorg.fhir.service.AbdmService;
+import com.yourorg.fhir.service.IPDischargeSummaryService;
+import com.yourorg.fhir.service.InvoiceService;
+import com.yourorg.fhir.service.LabReportService;
+import com.yourorg.fhir.terminology.TerminologyService;
+import com.yourorg.fhir.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The services wired by hand the way the application context wires them, and
+ * the request payloads in src/main/resources/samples bound the way Spring MVC
+ * binds them (unknown properties ignored).
+ */
+public final class Fixtures {
+
+    /**
+     * Every document endpoint with a sample payload; see {@link Services#build}.
+     */
+    public static final List<String> ENDPOINTS = List.of("prescription", "op-consult", "wellness", "immunization",
+            "health-document", "discharge-summary", "lab-report", "composite-op-consult", "composite-invoice",
+            "invoice", "ip-discharge-summary");
+
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static final FhirContext FHIR_CONTEXT = new FhirConfig().fhirContext();
+
+    private Fixtures() {
+    }
+
+    /**
+     * Ids 00000000-0000-0000-0000-000000000001, ...002, ... in call order.
+     */
+    public static IdGenerator sequentialIds() {
+        AtomicLong next = new AtomicLong();
+        return () -> new UUID(0, next.incrementAndGet()).toString();
+    }
+
+    public static FhirSerializer serializer(boolean fragments, boolean pretty) {
+        return new FhirSerializer(FHIR_CONTEXT,
+                new JsonFragmentCache(new SimpleMeterRegistry(), fragments, 1000, Duration.ofHours(1)), pretty);
+    }
+
+    /**
+     * @param path Classpath location, e.g. {@code /samples/wellness.json}
+     */
+    public static <T> T sample(String path, Class<T> type) {
+        try (InputStream in = Fixtures.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Sample not found: " + path);
+            }
+            return MAPPER.readValue(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One set of document services sharing an id generator and serializer.
+     */
+    public static final class Services {
+
+        public final TerminologyService terminology = TerminologyService.seed();
+        public final IdGenerator ids;
+        public final FhirSerializer serializer;
+        public final AbdmResourceBuilder resourceBuilder;
+        public final ResourceTemplateCache templates;
+        public final AbdmService abdm;
+        public final LabReportService labReport;
+        public final InvoiceService invoice;
+        public final IPDischargeSummaryService ipDischarge;
+
+        public Services(IdGenerator ids, FhirSerializer serializer) {
+            this.ids = ids;
+            this.serializer = serializer;
+            resourceBuilder = new AbdmResourceBuilder(terminology, ids);
+            templates = new ResourceTemplateCache(resourceBuilder, new SimpleMeterRegistry(), 1000,
+                    Duration.ofHours(1));
+            abdm = new AbdmService(serializer, resourceBuilder, templates, new DiagnosticReportBuilder(ids),
+                    new ObservationBuilder(terminology, ids), ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+            labReport = new LabReportService(serializer, new DiagnosticReportBuilder(ids),
+                    new DiagnosticReportBundleBuilder(ids), new ObservationBuilder(terminology, ids), ids);
+            invoice = new InvoiceService(resourceBuilder, templates, serializer);
+            ipDischarge = new IPDischargeSummaryService(resourceBuilder, templates, serializer);
+        }
+
+        /**
+         * Builds the document bundle of an endpoint in {@link #ENDPOINTS} from its
+         * sample payload.
+         */
+        public Bundle build(String endpoint) {
+            switch (endpoint) {
+                case "prescription":
+                    return abdm.buildPrescriptionBundle(sample("/samples/prescription.json", PrescriptionDTO.class));
+                case "op-consult":
+                    return abdm.buildOpConsultBundle(sample("/samples/op-consult.json", OpConsultDTO.class));
+                case "wellness":
+                    return abdm.buildWellnessBundle(sample("/samples/wellness.json", WellnessRecordDTO.class));
+                case "immunization":
+                    return abdm.buildImmunizationBundle(
+                            sample("/samples/immunization.json", ImmunizationRecordDTO.class));
+                case "health-document":
+                    return abdm.buildHealthDocumentBundle(
+                            sample("/samples/health-document.json", HealthDocumentRecordDTO.class));
+                case "discharge-summary":
+                    return abdm.buildDischargeSummaryBundle(
+                            sample("/samples/discharge-summary.json", DischargeSummaryDTO.class));
+                case "lab-report":
+                    return labReport.buildLabReportBundle(sample("/samples/lab-report.json", LabReportDTO.class));
+                case "composite-op-consult":
+                    return abdm.buildCompositeBundle(
+                            sample("/samples/composite-op-consult.json", CompositeRequestDTO.class));
+                case "composite-invoice":
+                    return abdm.buildCompositeBundle(
+                            sample("/samples/composite_invoice.json", CompositeRequestDTO.class));
+                case "invoice":
+                    return invoice.buildInvoiceBundle(sample("/samples/invoice.json", InvoiceDTO.class));
+                case "ip-discharge-summary":
+                    return ipDischarge.buildIPDischargeSummaryBundle(
+                            sample("/ip_discharge_payload.json", IPDischargeSummaryDTO.class));
+                default:
+                    throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+            }
+        }
+    }
+}
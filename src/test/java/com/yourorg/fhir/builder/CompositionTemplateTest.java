@@ -0,0 +1,34 @@
+package com.yourorg.fhir.builder;
+
+import com.yourorg.fhir.Fixtures;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Composition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class CompositionTemplateTest {
+
+    @Test
+    void documentsDoNotShareCodings() {
+        Fixtures.Services services = new Fixtures.Services(Fixtures.sequentialIds(),
+                Fixtures.serializer(false, false));
+        Composition first = composition(services.build("prescription"));
+        Composition second = composition(services.build("prescription"));
+
+        assertNotSame(first.getType().getCodingFirstRep(), second.getType().getCodingFirstRep());
+        assertNotSame(first.getSectionFirstRep().getCode().getCodingFirstRep(),
+                second.getSectionFirstRep().getCode().getCodingFirstRep());
+
+        first.getType().getCodingFirstRep().setDisplay("changed");
+        first.getSectionFirstRep().getCode().getCodingFirstRep().setDisplay("changed");
+        Composition third = composition(services.build("prescription"));
+        assertEquals("Prescription record", third.getType().getCodingFirstRep().getDisplay());
+        assertEquals("Prescription record", third.getSectionFirstRep().getCode().getCodingFirstRep().getDisplay());
+    }
+
+    private static Composition composition(Bundle bundle) {
+        return (Composition) bundle.getEntryFirstRep().getResource();
+    }
+}
@@ -0,0 +1,85 @@
+package com.yourorg.fhir.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.fhir.Fixtures;
+import com.yourorg.fhir.validator.ValidationSampler;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class BundleResponseWriterTest {
+
+    private final Bundle bundle = new Fixtures.Services(Fixtures.sequentialIds(), Fixtures.serializer(false, false))
+            .build("prescription");
+
+    @Test
+    void streamedResponseVariesByAccept() {
+        ResponseEntity<StreamingResponseBody> response = writer(request(null), false).ok(bundle);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+        assertNull(response.getHeaders().getETag());
+    }
+
+    @Test
+    void eachRepresentationHasItsOwnETag() {
+        Set<String> etags = new HashSet<>();
+        for (String accept : new String[] { "application/fhir+json", "application/fhir+json; pretty=true",
+                "application/cbor", "application/x-jackson-smile" }) {
+            ResponseEntity<StreamingResponseBody> response = writer(request(accept), true).ok(bundle);
+            assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary(), accept);
+            etags.add(response.getHeaders().getETag());
+        }
+
+        assertEquals(4, etags.size());
+    }
+
+    @Test
+    void notModifiedVariesByAccept() {
+        String etag = writer(request("application/cbor"), true).ok(bundle).getHeaders().getETag();
+
+        MockHttpServletRequest get = request("application/cbor");
+        get.setMethod("GET");
+        get.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<StreamingResponseBody> notModified = writer(get, true).ok(bundle);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(List.of(HttpHeaders.ACCEPT), notModified.getHeaders().getVary());
+
+        MockHttpServletRequest post = request("application/cbor");
+        post.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<StreamingResponseBody> failed = writer(post, true).ok(bundle);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, failed.getStatusCode());
+        assertEquals(List.of(HttpHeaders.ACCEPT), failed.getHeaders().getVary());
+
+        // The ETag of the CBOR representation does not match the JSON one
+        MockHttpServletRequest json = request(null);
+        json.setMethod("GET");
+        json.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertEquals(HttpStatus.OK, writer(json, true).ok(bundle).getStatusCode());
+    }
+
+    private static MockHttpServletRequest request(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/fhir/prescription");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return request;
+    }
+
+    private static BundleResponseWriter writer(MockHttpServletRequest request, boolean contentDerivedIds) {
+        return new BundleResponseWriter(Fixtures.serializer(false, false), mock(ValidationSampler.class), request,
+                new ObjectMapper(), contentDerivedIds);
+    }
+}
@@ -0,0 +1,51 @@
+package com.yourorg.fhir.serializer;
+
+import com.yourorg.fhir.Fixtures;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every sample bundle written as CBOR and Smile and read back must be the
+ * bundle a JSON client reads.
+ */
+class BinaryRoundTripTest {
+
+    private final FhirSerializer serializer = Fixtures.serializer(true, false);
+
+    static Stream<Arguments> samples() {
+        return Fixtures.ENDPOINTS.stream()
+                .flatMap(endpoint -> Stream.of(WireFormat.CBOR, WireFormat.SMILE)
+                        .map(format -> Arguments.of(endpoint, format)));
+    }
+
+    @ParameterizedTest(name = "{0} as {1}")
+    @MethodSource("samples")
+    void roundTripPreservesBundle(String endpoint, WireFormat format) throws IOException {
+        Bundle bundle = new Fixtures.Services(Fixtures.sequentialIds(), serializer).build(endpoint);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.encodeToStream(bundle, out, format);
+        Bundle actual = serializer.parseResource(Bundle.class, new ByteArrayInputStream(out.toByteArray()), format);
+
+        // Parsing moves urn:uuid ids into fullUrl, so compare against the bundle
+        // a JSON consumer would have parsed rather than the original object
+        String json = serializer.encodeToString(bundle, OutputMode.COMPACT);
+        Bundle expected = serializer.parseResource(Bundle.class,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), WireFormat.JSON);
+
+        assertEquals(serializer.encodeToString(expected, OutputMode.COMPACT),
+                serializer.encodeToString(actual, OutputMode.COMPACT));
+        assertTrue(expected.equalsDeep(actual), "parsed bundles differ");
+    }
+}
@@ -0,0 +1,103 @@
+package com.yourorg.fhir.serializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourorg.fhir.Fixtures;
+import com.yourorg.fhir.dto.LabReportDTO;
+import com.yourorg.fhir.dto.PrescriptionDTO;
+import com.yourorg.fhir.dto.WellnessRecordDTO;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Each fast-path writer against the service method it mirrors, over the
+ * sample payloads: both outputs must be the same JSON once ids are renamed in
+ * document order. Ids come from a sequential generator and every date from
+ * the sample's visitDate, so nothing depends on the clock.
+ */
+class DirectBundleWriterConformanceTest {
+
+    private static final ObjectMapper SORTED = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final Pattern UUID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    @ParameterizedTest
+    @ValueSource(strings = { "prescription", "wellness", "lab-report" })
+    void fastPathMatchesHapi(String endpoint) throws IOException {
+        Fixtures.Services services = new Fixtures.Services(Fixtures.sequentialIds(),
+                Fixtures.serializer(false, false));
+        String path = "/samples/" + endpoint + ".json";
+
+        String hapi;
+        String direct;
+        switch (endpoint) {
+            case "prescription": {
+                PrescriptionDTO dto = Fixtures.sample(path, PrescriptionDTO.class);
+                assertNotNull(dto.getVisitDate(), "sample must be dated");
+                hapi = hapi(services, services.abdm.buildPrescriptionBundle(dto));
+                direct = direct(new PrescriptionBundleWriter(services.resourceBuilder, services.ids, true), dto);
+                break;
+            }
+            case "wellness": {
+                WellnessRecordDTO dto = Fixtures.sample(path, WellnessRecordDTO.class);
+                assertNotNull(dto.getVisitDate(), "sample must be dated");
+                hapi = hapi(services, services.abdm.buildWellnessBundle(dto));
+                direct = direct(new WellnessBundleWriter(services.resourceBuilder, services.ids, true), dto);
+                break;
+            }
+            case "lab-report": {
+                LabReportDTO dto = Fixtures.sample(path, LabReportDTO.class);
+                assertNotNull(dto.getVisitDate(), "sample must be dated");
+                hapi = hapi(services, services.labReport.buildLabReportBundle(dto));
+                direct = direct(new LabReportBundleWriter(services.terminology, services.ids, true), dto);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(endpoint);
+        }
+
+        assertEquals(canonical(hapi), canonical(direct));
+    }
+
+    private static String hapi(Fixtures.Services services, Bundle bundle) {
+        return services.serializer.encodeToString(bundle, OutputMode.COMPACT);
+    }
+
+    private static <T> String direct(DirectBundleWriter<T> writer, T dto) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.encodeToStream(writer.prepare(dto), out, OutputMode.COMPACT);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Pretty JSON with object keys sorted and each id replaced by its position
+     * among the distinct ids in that text.
+     */
+    private static String canonical(String json) throws JsonProcessingException {
+        Object tree = SORTED.readValue(json, Object.class);
+        String sorted = SORTED.writerWithDefaultPrettyPrinter().writeValueAsString(tree);
+        Map<String, String> renamed = new HashMap<>();
+        Matcher m = UUID.matcher(sorted);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            m.appendReplacement(sb, renamed.computeIfAbsent(m.group(), id -> "id-" + renamed.size()));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.yourorg.fhir.serializer;
+
+import com.yourorg.fhir.Fixtures;
+import com.yourorg.fhir.util.FragmentKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Signature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Output with the fragment cache must be byte-for-byte the HAPI encoding.
+ */
+class JsonFragmentCacheTest {
+
+    private final FhirSerializer hapi = Fixtures.serializer(false, false);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JsonFragmentCache fragments = new JsonFragmentCache(meterRegistry, true, 1000,
+            Duration.ofHours(1));
+    private final FhirSerializer spliced = new FhirSerializer(Fixtures.FHIR_CONTEXT, fragments, false);
+    private final Fixtures.Services services = new Fixtures.Services(Fixtures.sequentialIds(), spliced);
+
+    static List<String> endpoints() {
+        return Fixtures.ENDPOINTS;
+    }
+
+    @ParameterizedTest
+    @MethodSource("endpoints")
+    void splicedOutputIsTheHapiEncoding(String endpoint) throws IOException {
+        // The first bundle fills the cache, the others hit it with new ids
+        for (int i = 0; i < 3; i++) {
+            assertSameEncoding(services.build(endpoint));
+        }
+        assertTrue(hits() > 0, "no fragment was reused");
+    }
+
+    @ParameterizedTest
+    @MethodSource("endpoints")
+    void prettyOutputIsTheHapiEncoding(String endpoint) throws IOException {
+        FhirSerializer prettyHapi = Fixtures.serializer(false, true);
+        FhirSerializer prettySpliced = Fixtures.serializer(true, true);
+        for (int i = 0; i < 2; i++) {
+            Bundle bundle = services.build(endpoint);
+            String expected = prettyHapi.encodeToString(bundle, OutputMode.PRETTY);
+            assertEquals(expected, prettySpliced.encodeToString(bundle));
+            assertEquals(expected, stream(prettySpliced, bundle, OutputMode.PRETTY));
+        }
+    }
+
+    @Test
+    void hitOnChangedResourceIsEncodedAgain() throws IOException {
+        assertSameEncoding(patientBundle(patient()));
+
+        // Same key, different content, as if the resource had been changed after it was built
+        Patient renamed = patient();
+        renamed.getNameFirstRep().setText("Jane Roe");
+        assertSameEncoding(patientBundle(renamed));
+
+        Patient reidentified = patient();
+        reidentified.getIdentifierFirstRep().setValue("91-0000-0000-0001");
+        assertSameEncoding(patientBundle(reidentified));
+
+        // Same instant, different JSON
+        Patient birthYear = patient();
+        birthYear.getBirthDateElement().setValueAsString("1985");
+        assertSameEncoding(patientBundle(birthYear));
+
+        // Unchanged again: reused by both the String and the stream API
+        double hits = hits();
+        assertSameEncoding(patientBundle(patient()));
+        assertEquals(hits + 2, hits());
+    }
+
+    @Test
+    void signedBundleFallsBack() throws IOException {
+        Bundle bundle = services.build("prescription");
+        assertSameEncoding(bundle);
+        bundle.setSignature(new Signature().setData("c2lnbmF0dXJl".getBytes(StandardCharsets.US_ASCII))
+                .setSigFormat("application/jose"));
+
+        assertFalse(fragments.canSplice(bundle));
+        assertSameEncoding(bundle);
+    }
+
+    @Test
+    void entryWithRequestOrSearchFallsBack() throws IOException {
+        Bundle transaction = services.build("prescription");
+        assertTrue(fragments.canSplice(transaction));
+        transaction.getEntryFirstRep().getRequest().setMethod(Bundle.HTTPVerb.POST).setUrl("Composition");
+        assertFalse(fragments.canSplice(transaction));
+        assertSameEncoding(transaction);
+
+        Bundle searchset = services.build("prescription");
+        searchset.getEntry().get(1).getSearch().setMode(Bundle.SearchEntryMode.MATCH);
+        assertFalse(fragments.canSplice(searchset));
+        assertSameEncoding(searchset);
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets").tag("cache", JsonFragmentCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private Patient patient() {
+        return services.resourceBuilder.buildPatient("John Doe", "22-7225-4829-5255", "M", "1985-03-01");
+    }
+
+    private static Bundle patientBundle(Patient patient) {
+        Object key = FragmentKey.of(patient);
+        assertTrue(key != null);
+        Bundle bundle = new Bundle().setType(Bundle.BundleType.COLLECTION);
+        bundle.addEntry().setFullUrl("urn:uuid:" + patient.getIdElement().getIdPart()).setResource(patient);
+        return bundle;
+    }
+
+    private void assertSameEncoding(Bundle bundle) throws IOException {
+        String expected = hapi.encodeToString(bundle, OutputMode.COMPACT);
+        assertEquals(expected, spliced.encodeToString(bundle, OutputMode.COMPACT));
+        assertEquals(expected, stream(spliced, bundle, OutputMode.COMPACT));
+    }
+
+    private static String stream(FhirSerializer serializer, Bundle bundle, OutputMode mode) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.encodeToStream(bundle, out, mode);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package com.yourorg.fhir.util;
+
+import org.hl7.fhir.r4.model.Coding;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class CodingCatalogTest {
+
+    @Test
+    void changingAReturnedCodingLeavesTheCatalogAlone() {
+        Coding coding = CodingCatalog.MEDICAL_RECORD_NUMBER.coding();
+        coding.setDisplay("changed");
+        CodingCatalog.VITAL_SIGNS_CATEGORY.concept().getCodingFirstRep().setCode("changed");
+
+        assertEquals("Medical record number", CodingCatalog.MEDICAL_RECORD_NUMBER.coding().getDisplay());
+        assertEquals("vital-signs", CodingCatalog.VITAL_SIGNS_CATEGORY.concept().getCodingFirstRep().getCode());
+    }
+
+    @Test
+    void everyCallReturnsANewCoding() {
+        assertNotSame(CodingCatalog.BP_PANEL.coding(), CodingCatalog.BP_PANEL.coding());
+        assertNotSame(CodingCatalog.BP_PANEL.concept().getCodingFirstRep(),
+                CodingCatalog.BP_PANEL.concept().getCodingFirstRep());
+    }
+}
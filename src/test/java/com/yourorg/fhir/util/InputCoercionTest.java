@@ -0,0 +1,143 @@
+package com.yourorg.fhir.util;
+
+import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputCoercionTest {
+
+    // --- Dates ---
+
+    @Test
+    void partialDatesKeepTheirPrecision() {
+        assertDate("1985", LocalDate.of(1985, 1, 1).atStartOfDay(), TemporalPrecisionEnum.YEAR);
+        assertDate("1985-03", LocalDate.of(1985, 3, 1).atStartOfDay(), TemporalPrecisionEnum.MONTH);
+        assertDate("1985-03-09", LocalDate.of(1985, 3, 9).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertEquals("1985", InputCoercion.date("1985").get().toDateType().getValueAsString());
+        assertEquals("1985-03", InputCoercion.date(" 1985-03 ").get().toDateType().getValueAsString());
+    }
+
+    @Test
+    void dateTimesWithoutOffsetAreLocal() {
+        assertDate("2023-05-17T10:30", LocalDateTime.of(2023, 5, 17, 10, 30), TemporalPrecisionEnum.MINUTE);
+        assertDate("2023-05-17T10:30:15", LocalDateTime.of(2023, 5, 17, 10, 30, 15), TemporalPrecisionEnum.SECOND);
+        assertDate("2023-05-17T10:30:15.25", LocalDateTime.of(2023, 5, 17, 10, 30, 15, 250_000_000),
+                TemporalPrecisionEnum.MILLI);
+    }
+
+    @Test
+    void spaceSeparatedTimeIsAccepted() {
+        assertDate("2023-05-17 10:30:00", LocalDateTime.of(2023, 5, 17, 10, 30), TemporalPrecisionEnum.SECOND);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "2023-05-17T10:30:00Z", "2023-05-17T16:00:00+05:30", "2023-05-17T05:30:00-05:00",
+            "2023-05-17T10:30:00.000+00:00" })
+    void offsetsGiveTheSameInstant(String text) {
+        assertEquals(Date.from(OffsetDateTime.parse("2023-05-17T10:30:00Z").toInstant()),
+                InputCoercion.date(text).get().getDate());
+    }
+
+    @Test
+    void leapDays() {
+        assertDate("2024-02-29", LocalDate.of(2024, 2, 29).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertDate("2000-02-29", LocalDate.of(2000, 2, 29).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertInvalidDate("2023-02-29");
+        assertInvalidDate("1900-02-29");
+    }
+
+    @Test
+    void unpaddedDatesAreAccepted() {
+        assertDate("2023-5-7", LocalDate.of(2023, 5, 7).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertDate("2023-05-7", LocalDate.of(2023, 5, 7).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertDate("2023-5-17", LocalDate.of(2023, 5, 17).atStartOfDay(), TemporalPrecisionEnum.DAY);
+        assertInvalidDate("2023-2-30");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "  ", "85", "1985-13", "1985-00-01", "1985-04-31", "1985/03/09", "17-05-2023",
+            "2023-05-17T25:00", "2023-05-17T10:60", "2023-05-17T10:30:00+15:00", "2023-05-17T10:30:00+0530",
+            "2023-05-17T10:30:00.", "2023-05-17X10:30", "2023-05-17T10:30:00 IST", "yesterday" })
+    void malformedDatesAreRejected(String text) {
+        assertFalse(InputCoercion.date(text).isValid());
+    }
+
+    @Test
+    void missingDate() {
+        assertEquals(InputCoercion.MISSING, InputCoercion.date(null).getError());
+        assertEquals(InputCoercion.MISSING, InputCoercion.date(" ").getError());
+    }
+
+    @Test
+    void parseDateFallsBackToTheLeadingDate() {
+        assertEquals(local(LocalDate.of(2023, 5, 17).atStartOfDay()), FhirUtil.parseDate("2023-05-17 10:30 IST"));
+        assertEquals(local(LocalDate.of(2023, 5, 17).atStartOfDay()), FhirUtil.parseDate("2023-05-17garbage"));
+        assertEquals(local(LocalDateTime.of(2023, 5, 17, 10, 30)), FhirUtil.parseDate("2023-05-17 10:30:00"));
+    }
+
+    // --- Decimals ---
+
+    @ParameterizedTest
+    @ValueSource(strings = { "0", "-0", "+7", "70", "70.0", "0.001", "-12.50", ".5", "5.", "123456789012345678",
+            "1234567890123456789", "98.6", "1e3", "1E-3", "-2.5e+2", "1e0001", "1e-999", "0.1",
+            "3.141592653589793", " 42 ", "000123.4500" })
+    void decimalsMatchTheJdk(String text) {
+        assertEquals(new BigDecimal(text.trim()), InputCoercion.decimal(text).get(), text);
+        assertEquals(Double.parseDouble(text), InputCoercion.decimal(text, Double.NaN), text);
+    }
+
+    @Test
+    void exponentWithLeadingZerosIsInRange() {
+        assertTrue(InputCoercion.decimal("1e0001").isValid());
+        assertEquals(new BigDecimal("1e0001"), InputCoercion.decimal("1e0001").get());
+        assertEquals(10.0, InputCoercion.decimal("1e0001", -1));
+        // In range for BigDecimal, but not a finite double
+        assertEquals(new BigDecimal("1e999"), InputCoercion.decimal("1e999").get());
+        assertEquals(-1.0, InputCoercion.decimal("1e999", -1));
+        assertEquals(InputCoercion.OUT_OF_RANGE, InputCoercion.decimal("1e1000").getError());
+        assertEquals(InputCoercion.OUT_OF_RANGE, InputCoercion.decimal("1e-01000").getError());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "abc", "1.2.3", "1e", "1e+", "e5", "-", ".", "NaN", "Infinity", "-Infinity", "0x1F",
+            "1,5", "5 kg", "1_000", "1d", "1f" })
+    void malformedDecimalsAreRejected(String text) {
+        assertEquals(InputCoercion.NOT_A_NUMBER, InputCoercion.decimal(text).getError(), text);
+        assertEquals(-1.0, InputCoercion.decimal(text, -1.0), text);
+    }
+
+    @Test
+    void missingDecimal() {
+        assertEquals(InputCoercion.MISSING, InputCoercion.decimal(null).getError());
+        assertEquals(InputCoercion.MISSING, InputCoercion.decimal("  ").getError());
+        assertNull(InputCoercion.decimal("x").get());
+    }
+
+    private static void assertDate(String text, LocalDateTime expected, TemporalPrecisionEnum precision) {
+        InputCoercion.Result<InputCoercion.PartialDate> result = InputCoercion.date(text);
+        assertTrue(result.isValid(), text);
+        assertEquals(local(expected), result.get().getDate(), text);
+        assertEquals(precision, result.get().getPrecision(), text);
+    }
+
+    private static void assertInvalidDate(String text) {
+        assertEquals(InputCoercion.NOT_A_DATE, InputCoercion.date(text).getError(), text);
+    }
+
+    private static Date local(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
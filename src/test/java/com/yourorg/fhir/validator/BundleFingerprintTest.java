@@ -0,0 +1,85 @@
+package com.yourorg.fhir.validator;
+
+import com.yourorg.fhir.Fixtures;
+import com.yourorg.fhir.serializer.FhirSerializer;
+import com.yourorg.fhir.serializer.OutputMode;
+import com.yourorg.fhir.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class BundleFingerprintTest {
+
+    private static final String ENCOUNTER = "{\"resourceType\":\"Bundle\","
+            + "\"id\":\"%s\",\"meta\":{\"lastUpdated\":\"%s\"},"
+            + "\"identifier\":{\"system\":\"https://www.xyz-hospital.com/bundles\",\"value\":\"%s\"},"
+            + "\"type\":\"document\",\"timestamp\":\"%s\","
+            + "\"entry\":[{\"fullUrl\":\"urn:uuid:%s\",\"resource\":{\"resourceType\":\"Encounter\",\"id\":\"%s\","
+            + "\"identifier\":[{\"value\":\"5d4c3b2a-1908-4776-8554-433221100fed\"}],"
+            + "\"period\":{\"start\":\"%s\",\"end\":\"%s\"}}}]}";
+
+    @ParameterizedTest
+    @ValueSource(strings = { "op-consult", "invoice", "lab-report" })
+    void regeneratedDocumentHasSameFingerprint(String endpoint) {
+        FhirSerializer serializer = Fixtures.serializer(false, false);
+        String first = serializer.encodeToString(
+                new Fixtures.Services(IdGenerator.random(), serializer).build(endpoint), OutputMode.COMPACT);
+        String second = serializer.encodeToString(
+                new Fixtures.Services(IdGenerator.timeOrdered(), serializer).build(endpoint), OutputMode.PRETTY);
+
+        assertNotEquals(first, second);
+        assertEquals(fingerprint(first), fingerprint(second));
+    }
+
+    @Test
+    void generatedIdsAndTimesAreNormalised() {
+        String first = encounter("8c2f0c1e-4d6f-4a43-9d0b-2f1c5d3e7a10", "2024-01-01T10:00:00+05:30",
+                "a6f1d9a4-7b3c-4e2d-8f5a-0c9b1e2d3f40", "2024-01-01T10:00:00.000+05:30",
+                "0b6e2f3a-1c4d-4e5f-8a9b-7c6d5e4f3a21", "2023-11-15T09:00:00+05:30", "2023-11-15T11:00:00+05:30");
+        String second = encounter("f0e1d2c3-b4a5-4968-8776-655443322110", "2025-06-30T23:59:59Z",
+                "11223344-5566-4778-8899-aabbccddeeff", "2025-06-30T23:59:59.123Z",
+                "99887766-5544-4332-8110-ffeeddccbbaa", "2023-11-15T09:00:00+05:30", "2023-11-15T11:00:00+05:30");
+
+        assertEquals(fingerprint(first), fingerprint(second));
+    }
+
+    @Test
+    void differentClinicalDatesHaveDifferentFingerprints() {
+        String wellFormed = encounter("8c2f0c1e-4d6f-4a43-9d0b-2f1c5d3e7a10", "2024-01-01T10:00:00+05:30",
+                "a6f1d9a4-7b3c-4e2d-8f5a-0c9b1e2d3f40", "2024-01-01T10:00:00.000+05:30",
+                "0b6e2f3a-1c4d-4e5f-8a9b-7c6d5e4f3a21", "2023-11-15T09:00:00+05:30", "2023-11-15T11:00:00+05:30");
+        // period start after end (per-1)
+        String reversed = encounter("8c2f0c1e-4d6f-4a43-9d0b-2f1c5d3e7a10", "2024-01-01T10:00:00+05:30",
+                "a6f1d9a4-7b3c-4e2d-8f5a-0c9b1e2d3f40", "2024-01-01T10:00:00.000+05:30",
+                "0b6e2f3a-1c4d-4e5f-8a9b-7c6d5e4f3a21", "2023-11-15T11:00:00+05:30", "2023-11-15T09:00:00+05:30");
+
+        assertNotEquals(fingerprint(wellFormed), fingerprint(reversed));
+    }
+
+    @Test
+    void uuidsOutsideGeneratedElementsAreKept() {
+        String first = encounter("8c2f0c1e-4d6f-4a43-9d0b-2f1c5d3e7a10", "2024-01-01T10:00:00+05:30",
+                "a6f1d9a4-7b3c-4e2d-8f5a-0c9b1e2d3f40", "2024-01-01T10:00:00.000+05:30",
+                "0b6e2f3a-1c4d-4e5f-8a9b-7c6d5e4f3a21", "2023-11-15T09:00:00+05:30", "2023-11-15T11:00:00+05:30");
+        // Encounter.identifier came from the request, not from our id generator
+        String second = first.replace("5d4c3b2a-1908-4776-8554-433221100fed", "99887766-5544-4332-8110-ffeeddccbbaa");
+
+        assertNotEquals(first, second);
+        assertNotEquals(fingerprint(first), fingerprint(second));
+    }
+
+    private static String encounter(String bundleId, String lastUpdated, String bundleIdentifier, String timestamp,
+            String encounterId, String start, String end) {
+        return String.format(ENCOUNTER, bundleId, lastUpdated, bundleIdentifier, timestamp, encounterId, encounterId,
+                start, end);
+    }
+
+    private static String fingerprint(String json) {
+        return BundleFingerprint.of(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.yourorg.fhir.validator;
+
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+import com.yourorg.fhir.Fixtures;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.DecimalType;
+import org.hl7.fhir.r4.model.Observation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BundlePreValidatorTest {
+
+    private final BundlePreValidator preValidator = new BundlePreValidator(Fixtures.FHIR_CONTEXT);
+
+    static List<String> endpoints() {
+        return Fixtures.ENDPOINTS;
+    }
+
+    @ParameterizedTest
+    @MethodSource("endpoints")
+    void generatedDocumentsPass(String endpoint) {
+        Bundle bundle = new Fixtures.Services(Fixtures.sequentialIds(), Fixtures.serializer(false, false))
+                .build(endpoint);
+
+        assertEquals(List.of(), messageIds(bundle));
+    }
+
+    @Test
+    void sectionWithOnlyTextIsAccepted() {
+        assertEquals(List.of(), messageIds(document(
+                "{\"title\":\"Notes\",\"text\":{\"status\":\"generated\",\"div\":\"<div xmlns=\\\"http://www.w3.org/1999/xhtml\\\">None</div>\"}}",
+                "")));
+    }
+
+    @Test
+    void sectionWithOnlyEmptyReasonViolatesCmp1() {
+        assertEquals(List.of("PreValidation_EmptySection"), messageIds(document(
+                "{\"title\":\"Allergies\",\"emptyReason\":{\"text\":\"nil known\"}}", "")));
+    }
+
+    @Test
+    void nestedEmptySectionViolatesCmp1() {
+        assertEquals(List.of("PreValidation_EmptySection"), messageIds(document(
+                "{\"title\":\"History\",\"section\":[{\"title\":\"Family\"}]}", "")));
+    }
+
+    @Test
+    void emptyReasonWithEntriesViolatesCmp2() {
+        assertEquals(List.of("PreValidation_SectionEmptyReason"), messageIds(document(
+                "{\"title\":\"Vitals\",\"emptyReason\":{\"text\":\"not asked\"},"
+                        + "\"entry\":[{\"reference\":\"urn:uuid:00000000-0000-0000-0000-000000000003\"}]}",
+                observation("\"valueQuantity\":{\"value\":70,\"unit\":\"kg\"}"))));
+    }
+
+    @Test
+    void quantityWithoutValueIsAccepted() {
+        assertEquals(List.of(), messageIds(document(vitalsSection(),
+                observation("\"valueQuantity\":{\"unit\":\"kg\",\"system\":\"http://unitsofmeasure.org\",\"code\":\"kg\"}"))));
+        assertEquals(List.of(), messageIds(document(vitalsSection(),
+                observation("\"valueQuantity\":{\"_value\":{\"extension\":[{\"url\":"
+                        + "\"http://hl7.org/fhir/StructureDefinition/data-absent-reason\",\"valueCode\":\"unknown\"}]},"
+                        + "\"unit\":\"kg\"}"))));
+    }
+
+    @Test
+    void unparseableQuantityValueIsRejected() {
+        Bundle bundle = document(vitalsSection(), observation("\"valueQuantity\":{\"value\":70,\"unit\":\"kg\"}"));
+        // HAPI's parsers and setters refuse such a value, so put one in place directly
+        ((Observation) bundle.getEntry().get(2).getResource()).getValueQuantity().setValueElement(new DecimalType() {
+            @Override
+            public String getValueAsString() {
+                return "seventy";
+            }
+        });
+
+        assertEquals(List.of("PreValidation_QuantityValue"), messageIds(bundle));
+    }
+
+    private static String vitalsSection() {
+        return "{\"title\":\"Vitals\",\"entry\":[{\"reference\":\"urn:uuid:00000000-0000-0000-0000-000000000003\"}]}";
+    }
+
+    private static String observation(String value) {
+        return ",{\"fullUrl\":\"urn:uuid:00000000-0000-0000-0000-000000000003\",\"resource\":"
+                + "{\"resourceType\":\"Observation\",\"status\":\"final\",\"code\":{\"text\":\"Body weight\"},"
+                + "\"subject\":{\"reference\":\"urn:uuid:00000000-0000-0000-0000-000000000002\"}," + value + "}}";
+    }
+
+    /**
+     * Document with a Composition holding one section, its Patient and the
+     * given extra entries.
+     */
+    private static Bundle document(String section, String entries) {
+        String json = "{\"resourceType\":\"Bundle\",\"type\":\"document\",\"entry\":["
+                + "{\"fullUrl\":\"urn:uuid:00000000-0000-0000-0000-000000000001\",\"resource\":"
+                + "{\"resourceType\":\"Composition\",\"status\":\"final\",\"type\":{\"text\":\"Note\"},"
+                + "\"subject\":{\"reference\":\"urn:uuid:00000000-0000-0000-0000-000000000002\"},"
+                + "\"date\":\"2023-11-15\",\"author\":[{\"display\":\"Dr A\"}],\"title\":\"Note\","
+                + "\"section\":[" + section + "]}},"
+                + "{\"fullUrl\":\"urn:uuid:00000000-0000-0000-0000-000000000002\",\"resource\":"
+                + "{\"resourceType\":\"Patient\"}}" + entries + "]}";
+        return Fixtures.FHIR_CONTEXT.newJsonParser().parseResource(Bundle.class, json);
+    }
+
+    private List<String> messageIds(Bundle bundle) {
+        ValidationResult result = preValidator.check(bundle);
+        return result.getMessages().stream().map(SingleValidationMessage::getMessageId).collect(Collectors.toList());
+    }
+}